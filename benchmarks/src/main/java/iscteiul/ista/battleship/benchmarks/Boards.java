@@ -0,0 +1,109 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.Caravel;
+import iscteiul.ista.battleship.Carrack;
+import iscteiul.ista.battleship.Compass;
+import iscteiul.ista.battleship.Fleet;
+import iscteiul.ista.battleship.Frigate;
+import iscteiul.ista.battleship.Galleon;
+import iscteiul.ista.battleship.IShip;
+import iscteiul.ista.battleship.Barge;
+import iscteiul.ista.battleship.PlacementTable;
+import iscteiul.ista.battleship.Position;
+import iscteiul.ista.battleship.RandomFleetGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the boards and fleets shared by the benchmarks.
+ * <p>
+ * The standard 10x10 board uses one fixed layout from {@link RandomFleetGenerator}.
+ * Larger boards are tiled with 4x5 slots, one ship per slot (cycling through
+ * the five kinds), which keeps every ship inside its slot and away from its
+ * neighbours, so all of them are accepted by {@link Fleet#addShip(IShip)}.
+ * </p>
+ */
+final class Boards {
+
+    /** Seed used for every generated fleet, so runs are comparable. */
+    static final long SEED = 20251017L;
+
+    /** Placements of the standard board and the layout used for it. */
+    private static final PlacementTable STANDARD = new PlacementTable(BoardConfig.STANDARD);
+    private static final int[] STANDARD_LAYOUT =
+            new RandomFleetGenerator(STANDARD, BoardConfig.STANDARD_FLEET, new SplittableRandom(SEED)).nextLayout();
+
+    private Boards() {
+    }
+
+    /**
+     * Returns the board configuration for a benchmark board size.
+     *
+     * @param size board side
+     * @return the standard configuration for 10, an unrestricted one otherwise
+     */
+    static BoardConfig config(int size) {
+        if (size == BoardConfig.STANDARD.getRows())
+            return BoardConfig.STANDARD;
+        return new BoardConfig(size, size, (size / 4) * (size / 5));
+    }
+
+    /**
+     * Returns fresh ships for a full fleet on the given board.
+     *
+     * @param config board configuration
+     * @return ships, in insertion order
+     */
+    static List<IShip> ships(BoardConfig config) {
+        List<IShip> ships = new ArrayList<>();
+        if (config == BoardConfig.STANDARD) {
+            for (int p : STANDARD_LAYOUT)
+                ships.add(STANDARD.buildShip(p));
+            return ships;
+        }
+        int kind = 0;
+        for (int row = 0; row + 3 <= config.getRows(); row += 4)
+            for (int column = 0; column + 4 <= config.getColumns(); column += 5)
+                ships.add(ship(kind++ % 5, new Position(row, column)));
+        return ships;
+    }
+
+    /**
+     * Builds a fleet with all the ships of {@link #ships(BoardConfig)}.
+     *
+     * @param config board configuration
+     * @return full fleet
+     */
+    static Fleet fleet(BoardConfig config) {
+        Fleet fleet = new Fleet(config);
+        for (IShip s : ships(config))
+            if (!fleet.addShip(s))
+                throw new IllegalStateException("benchmark layout rejected: " + s);
+        return fleet;
+    }
+
+    /**
+     * Builds a ship that fits in the 3x4 top-left corner of its slot.
+     *
+     * @param kind ship kind, 0 (Barca) to 4 (Galeao)
+     * @param pos  top-left corner of the slot
+     * @return the ship
+     */
+    private static IShip ship(int kind, Position pos) {
+        switch (kind) {
+            case 0:
+                return new Barge(Compass.NORTH, pos);
+            case 1:
+                return new Caravel(Compass.EAST, pos);
+            case 2:
+                return new Carrack(Compass.EAST, pos);
+            case 3:
+                return new Frigate(Compass.EAST, pos);
+            default:
+                return new Galleon(Compass.NORTH, pos);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.ConcurrentGame;
+import iscteiul.ista.battleship.Fleet;
+import iscteiul.ista.battleship.FleetLayout;
+import iscteiul.ista.battleship.Game;
+import iscteiul.ista.battleship.IShip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Several threads firing at one shared game: the lock-free
+ * {@link ConcurrentGame} against a {@link Game} guarded by a single lock.
+ * <p>
+ * Each thread fires at random cells of the board, so the mix of hits, misses
+ * and repeated shots is the same for both games; a fresh game is built for
+ * every iteration. Run with {@code -t} to change the number of threads.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ConcurrentGameBenchmark {
+
+    @Param({"100", "1000"})
+    int boardSize;
+
+    private BoardConfig config;
+    private FleetLayout layout;
+
+    private ConcurrentGame concurrentGame;
+    private Game lockedGame;
+
+    @Setup(Level.Trial)
+    public void setupLayout() {
+        config = Boards.config(boardSize);
+        layout = FleetLayout.of(Boards.fleet(config));
+    }
+
+    @Setup(Level.Iteration)
+    public void setupGames() {
+        concurrentGame = new ConcurrentGame(layout);
+        Fleet fleet = Boards.fleet(config);
+        lockedGame = new Game(fleet);
+    }
+
+    /** Per-thread source of target cells. */
+    @State(Scope.Thread)
+    public static class Shooter {
+
+        private SplittableRandom random;
+
+        @Setup
+        public void setup() {
+            random = new SplittableRandom(Boards.SEED + Thread.currentThread().getId());
+        }
+    }
+
+    @Benchmark
+    public IShip concurrent(Shooter shooter) {
+        int cell = shooter.random.nextInt(config.getCells());
+        return concurrentGame.fire(config.rowOf(cell), config.columnOf(cell));
+    }
+
+    @Benchmark
+    public IShip synchronizedBaseline(Shooter shooter) {
+        int cell = shooter.random.nextInt(config.getCells());
+        synchronized (lockedGame) {
+            return lockedGame.fire(config.rowOf(cell), config.columnOf(cell));
+        }
+    }
+}
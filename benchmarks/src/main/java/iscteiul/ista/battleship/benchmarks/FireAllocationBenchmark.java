@@ -0,0 +1,80 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state allocation of the {@link Game#fire(int, int)} loop, to be run
+ * with the GC profiler:
+ * <pre>
+ * java -jar target/benchmarks.jar FireAllocationBenchmark -prof gc
+ * </pre>
+ * The fleet and game are built once per trial and a snapshot is taken before
+ * the first shot. Each {@link #playGame()} fires at every cell of the board,
+ * plus a repeated and an invalid shot per cell, and then restores the
+ * snapshot, so every invocation replays the same game on the same objects.
+ * Once the shot list and the snapshot journal have grown during warmup,
+ * {@code gc.alloc.rate.norm} should be 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FireAllocationBenchmark {
+
+    private int[] rows;
+    private int[] columns;
+    private Game game;
+    private int start;
+
+    @Setup
+    public void setup() {
+        BoardConfig config = Boards.config(10);
+        int[] cells = new int[config.getCells()];
+        for (int cell = 0; cell < cells.length; cell++)
+            cells[cell] = cell;
+        SplittableRandom random = new SplittableRandom(Boards.SEED);
+        for (int i = cells.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = cells[i];
+            cells[i] = cells[j];
+            cells[j] = t;
+        }
+        rows = new int[cells.length];
+        columns = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            rows[i] = config.rowOf(cells[i]);
+            columns[i] = config.columnOf(cells[i]);
+        }
+        game = new Game(Boards.fleet(config));
+        start = game.snapshot();
+    }
+
+    /** A hit or miss, a repeated and an invalid shot per cell, then back to the start. */
+    @Benchmark
+    public int playGame() {
+        for (int i = 0; i < rows.length; i++) {
+            game.fire(rows[i], columns[i]);
+            game.fire(rows[i], columns[i]);
+            game.fire(-1, columns[i]);
+        }
+        int sunk = game.getSunkShips();
+        game.restore(start);
+        return sunk;
+    }
+}
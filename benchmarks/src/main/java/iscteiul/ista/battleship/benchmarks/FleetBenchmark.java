@@ -0,0 +1,104 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.Compass;
+import iscteiul.ista.battleship.Fleet;
+import iscteiul.ista.battleship.Galleon;
+import iscteiul.ista.battleship.IShip;
+import iscteiul.ista.battleship.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fleet construction and lookup: {@link Fleet#addShip(IShip)}, {@link Fleet#shipAt(int, int)}
+ * and {@link IShip#tooCloseTo(IShip)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int boardSize;
+
+    private BoardConfig config;
+    private List<IShip> ships;
+    private Fleet fleet;
+    private IShip colliding;
+    private IShip outOfBoard;
+    private IShip first;
+    private IShip second;
+    private int[] rows;
+    private int[] columns;
+    private int next;
+
+    @Setup
+    public void setup() {
+        config = Boards.config(boardSize);
+        ships = Boards.ships(config);
+        fleet = Boards.fleet(config);
+        IShip last = ships.get(ships.size() - 1);
+        colliding = new Galleon(Compass.NORTH, new Position(last.getPosition().getRow(), last.getPosition().getColumn()));
+        outOfBoard = new Galleon(Compass.NORTH, new Position(config.getRows() - 1, config.getColumns() - 1));
+        first = ships.get(0);
+        second = ships.get(1);
+
+        SplittableRandom random = new SplittableRandom(Boards.SEED);
+        rows = new int[1024];
+        columns = new int[1024];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = random.nextInt(config.getRows());
+            columns[i] = random.nextInt(config.getColumns());
+        }
+    }
+
+    /** Full fleet construction: a new fleet and every ship added to it. */
+    @Benchmark
+    public Fleet buildFleet() {
+        Fleet f = new Fleet(config);
+        for (IShip s : ships)
+            f.addShip(s);
+        return f;
+    }
+
+    /** A placement rejected by the collision check, against a full fleet. */
+    @Benchmark
+    public boolean addShipColliding() {
+        return fleet.addShip(colliding);
+    }
+
+    /** A placement rejected by the board check. */
+    @Benchmark
+    public boolean addShipOutOfBoard() {
+        return fleet.addShip(outOfBoard);
+    }
+
+    /** Lookup of random cells (about one in five occupied on the tiled boards). */
+    @Benchmark
+    public IShip shipAt() {
+        int i = next++ & (rows.length - 1);
+        return fleet.shipAt(rows[i], columns[i]);
+    }
+
+    /** Pairwise proximity check between two ships. */
+    @Benchmark
+    public boolean tooCloseTo() {
+        return first.tooCloseTo(second);
+    }
+}
@@ -0,0 +1,139 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.Fleet;
+import iscteiul.ista.battleship.Game;
+import iscteiul.ista.battleship.ICoordinate;
+import iscteiul.ista.battleship.IShip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Game#fire(int, int)} for each kind of shot.
+ * <p>
+ * Hits and misses change the game state, so each one walks through a shuffled
+ * list of target cells and starts a new fleet and game once the list is used
+ * up; that rebuild is amortised over all the cells of the list.
+ * {@link #fireAndRestore()} instead undoes each hit with {@link Game#restore(int)},
+ * as a search player trying shots would.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int boardSize;
+
+    private BoardConfig config;
+
+    private Game hitGame;
+    private int[] hitCells;
+    private int nextHit;
+
+    private Game missGame;
+    private int[] missCells;
+    private int nextMiss;
+
+    private Game repeatedGame;
+    private ICoordinate repeated;
+
+    private Game searchGame;
+    private int nextSearch;
+
+    @Setup
+    public void setup() {
+        config = Boards.config(boardSize);
+        Fleet fleet = Boards.fleet(config);
+
+        List<Integer> occupied = new ArrayList<>();
+        List<Integer> empty = new ArrayList<>();
+        for (int cell = 0; cell < config.getCells(); cell++)
+            if (fleet.shipAt(config.rowOf(cell), config.columnOf(cell)) != null)
+                occupied.add(cell);
+            else
+                empty.add(cell);
+        SplittableRandom random = new SplittableRandom(Boards.SEED);
+        hitCells = shuffle(occupied, random);
+        missCells = shuffle(empty, random);
+
+        hitGame = new Game(Boards.fleet(config));
+        missGame = new Game(Boards.fleet(config));
+        repeatedGame = new Game(fleet);
+        repeated = config.positionAt(config.rowOf(missCells[0]), config.columnOf(missCells[0]));
+        repeatedGame.fire(repeated);
+        searchGame = new Game(Boards.fleet(config));
+        searchGame.snapshot();
+    }
+
+    private static int[] shuffle(List<Integer> cells, SplittableRandom random) {
+        int[] a = cells.stream().mapToInt(Integer::intValue).toArray();
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+        return a;
+    }
+
+    @Benchmark
+    public IShip fireHit() {
+        if (nextHit == hitCells.length) {
+            hitGame = new Game(Boards.fleet(config));
+            nextHit = 0;
+        }
+        int cell = hitCells[nextHit++];
+        return hitGame.fire(config.rowOf(cell), config.columnOf(cell));
+    }
+
+    @Benchmark
+    public IShip fireMiss() {
+        if (nextMiss == missCells.length) {
+            missGame = new Game(Boards.fleet(config));
+            nextMiss = 0;
+        }
+        int cell = missCells[nextMiss++];
+        return missGame.fire(config.rowOf(cell), config.columnOf(cell));
+    }
+
+    @Benchmark
+    public IShip fireRepeated() {
+        return repeatedGame.fire(repeated);
+    }
+
+    @Benchmark
+    public IShip fireInvalid() {
+        return repeatedGame.fire(-1, config.getColumns());
+    }
+
+    @Benchmark
+    public int fireAndRestore() {
+        int mark = searchGame.snapshot();
+        int cell = hitCells[nextSearch];
+        nextSearch = nextSearch + 1 == hitCells.length ? 0 : nextSearch + 1;
+        searchGame.fire(config.rowOf(cell), config.columnOf(cell));
+        int hits = searchGame.getHits();
+        searchGame.restore(mark);
+        searchGame.release(mark);
+        return hits;
+    }
+}
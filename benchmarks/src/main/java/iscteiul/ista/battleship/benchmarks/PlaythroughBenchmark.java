@@ -0,0 +1,116 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.Fleet;
+import iscteiul.ista.battleship.FleetLayout;
+import iscteiul.ista.battleship.Game;
+import iscteiul.ista.battleship.ICoordinate;
+import iscteiul.ista.battleship.IShip;
+import iscteiul.ista.battleship.LayoutGame;
+import iscteiul.ista.battleship.PlacementTable;
+import iscteiul.ista.battleship.ProbabilityShooter;
+import iscteiul.ista.battleship.RandomFleetGenerator;
+import iscteiul.ista.battleship.RandomShooter;
+import iscteiul.ista.battleship.ShotResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-game costs on the standard 10x10 board: random fleet generation,
+ * fleet construction through {@link Fleet#addShip} and a complete game
+ * played by a {@link RandomShooter} or a {@link ProbabilityShooter}, either on
+ * a freshly built fleet or as a {@link LayoutGame} on a shared {@link FleetLayout}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaythroughBenchmark {
+
+    private PlacementTable table;
+    private RandomFleetGenerator generator;
+    private int[] layout;
+    private SplittableRandom random;
+    private FleetLayout shared;
+
+    @Setup
+    public void setup() {
+        table = new PlacementTable(BoardConfig.STANDARD);
+        random = new SplittableRandom(Boards.SEED);
+        generator = new RandomFleetGenerator(table, BoardConfig.STANDARD_FLEET, random.split());
+        layout = new int[generator.getShipCount()];
+        shared = FleetLayout.of(table, generator.nextLayout());
+    }
+
+    /** Placement indices only, no ship objects. */
+    @Benchmark
+    public int[] generateLayout() {
+        generator.nextLayout(layout);
+        return layout;
+    }
+
+    /** A generated layout built into Fleet and Ship objects. */
+    @Benchmark
+    public Fleet generateFleet() {
+        return generator.nextFleet();
+    }
+
+    /** A full game: fleet generation plus random shots until every ship sinks. */
+    @Benchmark
+    public int playGame() {
+        Fleet fleet = generator.nextFleet();
+        Game game = new Game(fleet);
+        RandomShooter shooter = new RandomShooter(BoardConfig.DEFAULT, random);
+        int fired = 0;
+        while (game.getRemainingShips() > 0) {
+            game.fire(shooter.nextShot());
+            fired++;
+        }
+        return fired;
+    }
+
+    /** A full game of random shots on one shared, immutable layout: no fleet is built. */
+    @Benchmark
+    public int playSharedLayout() {
+        LayoutGame game = new LayoutGame(shared);
+        RandomShooter shooter = new RandomShooter(BoardConfig.DEFAULT, random);
+        int fired = 0;
+        while (game.getRemainingShips() > 0) {
+            game.fire(shooter.nextShot());
+            fired++;
+        }
+        return fired;
+    }
+
+    /** A full game played by the density-map shooter, reporting every result back to it. */
+    @Benchmark
+    public int playGameProbability() {
+        Fleet fleet = generator.nextFleet();
+        Game game = new Game(fleet);
+        ProbabilityShooter shooter = new ProbabilityShooter(table, BoardConfig.STANDARD_FLEET, random);
+        int fired = 0;
+        while (game.getRemainingShips() > 0) {
+            ICoordinate shot = shooter.nextShot();
+            int hits = game.getHits();
+            int invalid = game.getInvalidShots();
+            int repeated = game.getRepeatedShots();
+            IShip sunk = game.fire(shot);
+            shooter.shotResult(shot, ShotResult.of(sunk, hits, invalid, repeated, game), sunk);
+            fired++;
+        }
+        return fired;
+    }
+}
@@ -0,0 +1,150 @@
+package iscteiul.ista.battleship.benchmarks;
+
+import iscteiul.ista.battleship.BoardConfig;
+import iscteiul.ista.battleship.FleetLayout;
+import iscteiul.ista.battleship.Game;
+import iscteiul.ista.battleship.IGame;
+import iscteiul.ista.battleship.LayoutGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scripted burst fired shot by shot with {@link IGame#fire(int, int)} against
+ * the same burst fired with {@link IGame#fireAll(int[], int, byte[])}, in
+ * volleys of three (as the {@code rajada} command does) or in a single call.
+ * <p>
+ * The script covers every cell of the board once, in random order, with one
+ * invalid and one repeated shot mixed in for every ten cells. {@link Game} is
+ * reset with {@link Game#restore(int)} after each script, and a new
+ * {@link LayoutGame} is started on a shared layout, so both variants pay the
+ * same reset cost.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VolleyBenchmark {
+
+    private static final int VOLLEY = 3;
+
+    @Param({"10", "100"})
+    int boardSize;
+
+    private BoardConfig config;
+    private int[] script;
+    private int[] volley;
+    private byte[] results;
+
+    private Game game;
+    private int start;
+    private FleetLayout layout;
+
+    @Setup
+    public void setup() {
+        config = Boards.config(boardSize);
+        SplittableRandom random = new SplittableRandom(Boards.SEED);
+        int cells = config.getCells();
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++)
+            order[i] = i;
+        for (int i = cells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        script = new int[cells + 2 * (cells / 10)];
+        int next = 0;
+        for (int i = 0; i < cells; i++) {
+            script[next++] = order[i];
+            if (i % 10 == 9) {
+                script[next++] = -1;
+                script[next++] = order[random.nextInt(i + 1)];
+            }
+        }
+        volley = new int[VOLLEY];
+        results = new byte[script.length];
+
+        game = new Game(Boards.fleet(config));
+        start = game.snapshot();
+        layout = FleetLayout.of(Boards.fleet(config));
+    }
+
+    @Benchmark
+    public int gameFire() {
+        for (int cell : script) {
+            if (cell < 0)
+                game.fire(-1, -1);
+            else
+                game.fire(config.rowOf(cell), config.columnOf(cell));
+        }
+        return reset();
+    }
+
+    @Benchmark
+    public int gameFireAllVolleys() {
+        fireVolleys(game);
+        return reset();
+    }
+
+    @Benchmark
+    public int gameFireAllScript() {
+        game.fireAll(script, script.length, results);
+        return reset();
+    }
+
+    @Benchmark
+    public int layoutFire() {
+        LayoutGame layoutGame = new LayoutGame(layout);
+        for (int cell : script) {
+            if (cell < 0)
+                layoutGame.fire(-1, -1);
+            else
+                layoutGame.fire(config.rowOf(cell), config.columnOf(cell));
+        }
+        return layoutGame.getHits();
+    }
+
+    @Benchmark
+    public int layoutFireAllVolleys() {
+        LayoutGame layoutGame = new LayoutGame(layout);
+        fireVolleys(layoutGame);
+        return layoutGame.getHits();
+    }
+
+    @Benchmark
+    public int layoutFireAllScript() {
+        LayoutGame layoutGame = new LayoutGame(layout);
+        layoutGame.fireAll(script, script.length, results);
+        return layoutGame.getHits();
+    }
+
+    private void fireVolleys(IGame target) {
+        for (int i = 0; i < script.length; i += VOLLEY) {
+            int count = Math.min(VOLLEY, script.length - i);
+            System.arraycopy(script, i, volley, 0, count);
+            target.fireAll(volley, count, results);
+        }
+    }
+
+    private int reset() {
+        int hits = game.getHits();
+        game.restore(start);
+        return hits;
+    }
+}
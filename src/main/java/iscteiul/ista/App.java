@@ -1,8 +1,14 @@
 package iscteiul.ista;
 
 import iscteiul.ista.battleship.Fleet;
+import iscteiul.ista.battleship.GameServer;
+import iscteiul.ista.battleship.NioGameServer;
+import iscteiul.ista.battleship.ScriptReplayer;
 import iscteiul.ista.battleship.Tasks;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 /**
  * @author britoeabreu
  * @author adrianolopes
@@ -10,8 +16,30 @@ import iscteiul.ista.battleship.Tasks;
  */
 public class App
 {
-    public static void main( String[] args )
+    public static void main( String[] args ) throws IOException, InterruptedException
     {
+        // replay <diretoria> <resultados>: reproduz os jogos gravados sem consola
+        if (args.length == 3 && args[0].equals("replay")) {
+            int files = ScriptReplayer.replay(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.printf("%d ficheiros reproduzidos em %s\n", files, args[2]);
+            return;
+        }
+
+        // server <porta>: aceita jogos em simultâneo por TCP, um por ligação
+        if (args.length == 2 && args[0].equals("server")) {
+            GameServer server = new GameServer(Integer.parseInt(args[1]));
+            server.start();
+            server.join();
+            return;
+        }
+
+        // nio <porta>: como server, mas com todas as ligações servidas por uma só thread
+        if (args.length == 2 && args[0].equals("nio")) {
+            NioGameServer server = new NioGameServer(Integer.parseInt(args[1]));
+            server.start();
+            server.join();
+            return;
+        }
 
         System.out.printf("\n***  Battleship Game ***\n");
 
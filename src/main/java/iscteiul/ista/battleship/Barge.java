@@ -9,19 +9,20 @@ package iscteiul.ista.battleship;
  */
 public class Barge extends Ship {
     
-    private static final Integer SIZE = 1;
+    private static final int SIZE = 1;
     private static final String NAME = "Barca";
 
     /**
      * Construtor da classe Barge (Barca).
      * Inicializa a Barca com o seu nome predefinido ("Barca"), a sua orientação e a posição inicial.
-     * Como tem tamanho 1, a lista de posições ocupadas conterá apenas a posição fornecida.
+     * Como tem tamanho 1, a lista de posições ocupadas conterá apenas a posição fornecida,
+     * qualquer que seja a orientação (que pode mesmo ser nula).
      * * @param bearing A orientação do navio (ex: Horizontal ou Vertical, definido pela classe Compass).
      * @param pos     A posição de origem (coordenadas da grelha) onde a Barca será colocada.
      */
     public Barge(Compass bearing, IPosition pos) {
         super(Barge.NAME, bearing, pos);
-        getPositions().add(new Position(pos.getRow(), pos.getColumn()));
+        place(ShapeTable.shape(ShapeTable.BARCA, bearing == null ? Compass.NORTH : bearing));
     }
 
     /**
@@ -30,7 +31,7 @@ public class Barge extends Ship {
      * * @return O número de posições que o navio ocupa na grelha (1).
      */
     @Override
-    public Integer getSize() {
+    public int getSize() {
         return SIZE;
     }
 
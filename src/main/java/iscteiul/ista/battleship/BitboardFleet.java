@@ -0,0 +1,341 @@
+/**
+ * Implementação alternativa de uma frota de navios, em que o tabuleiro
+ * é representado por conjuntos de bits compactados em dois {@code long}.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frota cujo estado é mantido em bitboards.
+ * <p>
+ * Cada célula do tabuleiro corresponde a um bit: as células {@code 0..63}
+ * ficam na palavra baixa ({@code lo}) e as células {@code 64..127} na palavra
+ * alta ({@code hi}). São mantidas máscaras de ocupação, de impactos, de zona
+ * proibida (navios mais a sua vizinhança) e uma máscara por navio, pelo que
+ * a consulta de navios, o registo de impactos e a verificação de afundamento
+ * são operações de bits de custo constante e sem alocação de memória.
+ * </p>
+ * <p>
+ * O estado dos impactos é guardado apenas nas máscaras da frota; as posições
+ * dos objetos {@link IShip} adicionados não são alteradas pelos disparos.
+ * Por esta razão esta frota deve ser usada em conjunto com {@link BitboardGame}.
+ * </p>
+ */
+public class BitboardFleet implements IFleet {
+
+    /** Número máximo de células representável em duas palavras de 64 bits. */
+    static final int MAX_CELLS = 2 * Long.SIZE;
+
+    /** Dimensões do tabuleiro e composição da frota. */
+    private final BoardConfig config;
+
+    /** Navios da frota, pela ordem em que foram adicionados. */
+    private final List<IShip> ships;
+
+    /** Número de navios por categoria, comparado com os limites da configuração. */
+    private final Map<String, Integer> categoryCount;
+
+    /** Máscaras de cada navio (palavra baixa), indexadas pela ordem de inserção. */
+    private final long[] shipLo;
+
+    /** Máscaras de cada navio (palavra alta), indexadas pela ordem de inserção. */
+    private final long[] shipHi;
+
+    /** Índice do navio que ocupa cada célula, ou {@code -1} se estiver vazia. */
+    private final byte[] cellShip;
+
+    /** Células ocupadas por navios. */
+    private long occupiedLo;
+    private long occupiedHi;
+
+    /** Células ocupadas por navios ou adjacentes a estes. */
+    private long forbiddenLo;
+    private long forbiddenHi;
+
+    /** Células de navios já atingidas. */
+    private long hitsLo;
+    private long hitsHi;
+
+    /** Número de navios ainda a flutuar. */
+    private int floating;
+
+    /**
+     * Cria uma frota vazia no tabuleiro 10x10 por omissão, sem limites por categoria.
+     */
+    public BitboardFleet() {
+        this(BoardConfig.DEFAULT);
+    }
+
+    /**
+     * Cria uma frota vazia para a configuração de tabuleiro indicada.
+     *
+     * @param config dimensões do tabuleiro e composição da frota
+     * @throws IllegalArgumentException se o tabuleiro tiver mais células
+     *                                  do que as representáveis em dois {@code long},
+     *                                  ou se a frota puder ter mais navios do que um {@code byte} indexa
+     */
+    public BitboardFleet(BoardConfig config) {
+        if (config.getCells() > MAX_CELLS)
+            throw new IllegalArgumentException("ERROR! board too large for a bitboard fleet: " + config);
+        if (config.getFleetSize() >= Byte.MAX_VALUE)
+            throw new IllegalArgumentException("ERROR! fleet too large for a bitboard fleet: " + config);
+        this.config = config;
+        ships = new ArrayList<>();
+        categoryCount = new HashMap<>();
+        shipLo = new long[config.getFleetSize() + 1];
+        shipHi = new long[config.getFleetSize() + 1];
+        cellShip = new byte[config.getCells()];
+        Arrays.fill(cellShip, (byte) -1);
+    }
+
+    /**
+     * Devolve o identificador da célula (linha, coluna), ou {@code -1}
+     * se a posição estiver fora do tabuleiro.
+     *
+     * @param row    linha
+     * @param column coluna
+     * @return identificador da célula, ou {@code -1}
+     */
+    int cellOf(int row, int column) {
+        if (!config.isInside(row, column))
+            return -1;
+        return config.cellOf(row, column);
+    }
+
+    /**
+     * Devolve a máscara da palavra baixa correspondente à célula indicada.
+     *
+     * @param cell identificador da célula
+     * @return máscara com o bit da célula, ou {@code 0} se a célula estiver na palavra alta
+     */
+    static long lo(int cell) {
+        return cell < Long.SIZE ? 1L << cell : 0L;
+    }
+
+    /**
+     * Devolve a máscara da palavra alta correspondente à célula indicada.
+     *
+     * @param cell identificador da célula
+     * @return máscara com o bit da célula, ou {@code 0} se a célula estiver na palavra baixa
+     */
+    static long hi(int cell) {
+        return cell >= Long.SIZE ? 1L << (cell - Long.SIZE) : 0L;
+    }
+
+    @Override
+    public List<IShip> getShips() {
+        return ships;
+    }
+
+    @Override
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    /**
+     * Adiciona um navio à frota se a frota não estiver cheia, se o limite
+     * da categoria não tiver sido atingido, se o navio estiver dentro do
+     * tabuleiro e se não tocar em nenhum navio existente.
+     * A verificação de colisão é uma interseção com a zona proibida.
+     * Com o Java Flight Recorder ativo, emite {@link ShipPlacedEvent} ou
+     * {@link PlacementRejectedEvent}.
+     *
+     * @param s navio a adicionar
+     * @return {@code true} se o navio foi adicionado; {@code false} caso contrário
+     */
+    @Override
+    public boolean addShip(IShip s) {
+        ShipPlacedEvent placed = new ShipPlacedEvent();
+        PlacementRejectedEvent rejected = new PlacementRejectedEvent();
+        placed.begin();
+        rejected.begin();
+        if (ships.size() > config.getFleetSize())
+            return rejected(s, PlacementResult.FLEET_FULL, rejected);
+        if (categoryCount.getOrDefault(s.getCategory(), 0) >= config.getQuota(s.getCategory()))
+            return rejected(s, PlacementResult.OVER_QUOTA, rejected);
+
+        long lo = 0L;
+        long hi = 0L;
+        for (IPosition p : s.getPositions()) {
+            int cell = cellOf(p.getRow(), p.getColumn());
+            if (cell < 0)
+                return rejected(s, PlacementResult.OUT_OF_BOARD, rejected);
+            lo |= lo(cell);
+            hi |= hi(cell);
+        }
+        if (((lo & forbiddenLo) | (hi & forbiddenHi)) != 0)
+            return rejected(s, PlacementResult.COLLISION, rejected);
+        if (GameMetrics.ENABLED)
+            GameMetrics.placement(PlacementResult.ACCEPTED);
+
+        int index = ships.size();
+        ships.add(s);
+        categoryCount.merge(s.getCategory(), 1, Integer::sum);
+        shipLo[index] = lo;
+        shipHi[index] = hi;
+        occupiedLo |= lo;
+        occupiedHi |= hi;
+        for (IPosition p : s.getPositions()) {
+            cellShip[cellOf(p.getRow(), p.getColumn())] = (byte) index;
+            for (int r = p.getRow() - 1; r <= p.getRow() + 1; r++)
+                for (int c = p.getColumn() - 1; c <= p.getColumn() + 1; c++) {
+                    int halo = cellOf(r, c);
+                    if (halo >= 0) {
+                        forbiddenLo |= lo(halo);
+                        forbiddenHi |= hi(halo);
+                    }
+                }
+        }
+        floating++;
+        if (placed.shouldCommit()) {
+            placed.set(s);
+            placed.commit();
+        }
+        return true;
+    }
+
+    /**
+     * Recusa um navio, contabilizando o motivo nas métricas e no evento do
+     * Java Flight Recorder.
+     *
+     * @param s      navio recusado
+     * @param reason motivo da recusa
+     * @param event  evento da recusa, iniciado no início da colocação
+     * @return {@code false}
+     */
+    private static boolean rejected(IShip s, PlacementResult reason, PlacementRejectedEvent event) {
+        if (GameMetrics.ENABLED)
+            GameMetrics.placement(reason);
+        if (event.shouldCommit()) {
+            event.set(s, reason);
+            event.commit();
+        }
+        return false;
+    }
+
+    @Override
+    public List<IShip> getShipsLike(String category) {
+        List<IShip> shipsLike = new ArrayList<>();
+        for (IShip s : ships)
+            if (s.getCategory().equals(category))
+                shipsLike.add(s);
+        return shipsLike;
+    }
+
+    /**
+     * Devolve os navios cuja máscara ainda não está totalmente coberta
+     * pela máscara de impactos.
+     *
+     * @return lista de navios ainda a flutuar
+     */
+    @Override
+    public List<IShip> getFloatingShips() {
+        List<IShip> floatingShips = new ArrayList<>();
+        for (int i = 0; i < ships.size(); i++)
+            if (isFloating(i))
+                floatingShips.add(ships.get(i));
+        return floatingShips;
+    }
+
+    @Override
+    public IShip shipAt(ICoordinate pos) {
+        return shipAt(pos.getRow(), pos.getColumn());
+    }
+
+    @Override
+    public IShip shipAt(int row, int column) {
+        int cell = cellOf(row, column);
+        if (cell < 0 || cellShip[cell] < 0)
+            return null;
+        return ships.get(cellShip[cell]);
+    }
+
+    /**
+     * Devolve o índice do navio que ocupa a célula indicada.
+     *
+     * @param cell identificador da célula
+     * @return índice do navio, ou {@code -1} se a célula estiver vazia
+     */
+    int shipIndexAt(int cell) {
+        return cellShip[cell];
+    }
+
+    /**
+     * Devolve o navio com o índice indicado.
+     *
+     * @param index índice de inserção do navio
+     * @return o navio
+     */
+    IShip shipByIndex(int index) {
+        return ships.get(index);
+    }
+
+    /**
+     * Regista um impacto numa célula ocupada pelo navio indicado.
+     *
+     * @param index índice do navio atingido
+     * @param cell  célula atingida
+     * @return {@code true} se o impacto afundou o navio; {@code false} caso contrário
+     */
+    boolean hit(int index, int cell) {
+        boolean wasFloating = isFloating(index);
+        hitsLo |= lo(cell);
+        hitsHi |= hi(cell);
+        if (wasFloating && !isFloating(index)) {
+            floating--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indica se o navio com o índice indicado ainda tem células por atingir.
+     *
+     * @param index índice do navio
+     * @return {@code true} se o navio ainda estiver a flutuar
+     */
+    boolean isFloating(int index) {
+        return ((shipLo[index] & ~hitsLo) | (shipHi[index] & ~hitsHi)) != 0;
+    }
+
+    /**
+     * Devolve o número de navios ainda a flutuar, mantido em cada impacto.
+     *
+     * @return número de navios a flutuar
+     */
+    @Override
+    public int countFloatingShips() {
+        return floating;
+    }
+
+    /**
+     * Indica se a célula indicada está ocupada por um navio.
+     *
+     * @param cell identificador da célula
+     * @return {@code true} se estiver ocupada
+     */
+    boolean isOccupied(int cell) {
+        return ((occupiedLo & lo(cell)) | (occupiedHi & hi(cell))) != 0;
+    }
+
+    @Override
+    public void printStatus() {
+        StringBuilder out = new StringBuilder();
+        Fleet.appendShips(out, ships);
+        Fleet.appendShips(out, getFloatingShips());
+        Fleet.appendShips(out, getShipsLike("Galeao"));
+        Fleet.appendShips(out, getShipsLike("Fragata"));
+        Fleet.appendShips(out, getShipsLike("Nau"));
+        Fleet.appendShips(out, getShipsLike("Caravela"));
+        Fleet.appendShips(out, getShipsLike("Barca"));
+        System.out.print(out);
+    }
+}
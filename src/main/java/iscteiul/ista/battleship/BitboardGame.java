@@ -0,0 +1,257 @@
+/**
+ * Implementação alternativa do jogo de Batalha Naval sobre uma
+ * {@link BitboardFleet}.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jogo em que os tiros efetuados são guardados num bitboard.
+ * <p>
+ * A deteção de tiros repetidos, o registo de impactos, a verificação de
+ * afundamento e a contagem de navios restantes são operações de bits de
+ * custo constante, sem alocação de memória por tiro.
+ * </p>
+ */
+public class BitboardGame implements IGame {
+
+    /** Frota adversária sobre a qual os tiros são disparados. */
+    private final BitboardFleet fleet;
+
+    /** Dimensões do tabuleiro da frota. */
+    private final BoardConfig config;
+
+    /** Células já alvo de tiros válidos (palavra baixa). */
+    private long shotsLo;
+
+    /** Células já alvo de tiros válidos (palavra alta). */
+    private long shotsHi;
+
+    /** Contador de tiros disparados para posições fora do tabuleiro. */
+    private int countInvalidShots;
+
+    /** Contador de tiros disparados para posições já anteriormente atingidas. */
+    private int countRepeatedShots;
+
+    /** Contador de tiros que acertaram num navio. */
+    private int countHits;
+
+    /** Contador de navios completamente afundados. */
+    private int countSinks;
+
+    /** Buffer de desenho do tabuleiro, criado no primeiro desenho. */
+    private BoardRenderer renderer;
+
+    /**
+     * Cria um novo jogo com a frota fornecida.
+     *
+     * @param fleet a frota adversária a ser usada no jogo
+     */
+    public BitboardGame(BitboardFleet fleet) {
+        this.fleet = fleet;
+        this.config = fleet.getBoardConfig();
+    }
+
+    /**
+     * Dispara um tiro numa posição do tabuleiro adversário.
+     *
+     * @param pos a posição onde o tiro é disparado
+     * @return o navio afundado se o tiro o tiver afundado, {@code null} caso contrário
+     */
+    @Override
+    public IShip fire(ICoordinate pos) {
+        return fire(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Dispara um tiro na posição (linha, coluna) do tabuleiro adversário.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return o navio afundado se o tiro o tiver afundado, {@code null} caso contrário
+     */
+    @Override
+    public IShip fire(int row, int column) {
+        int cell = fleet.cellOf(row, column);
+        if (cell < 0) {
+            countInvalidShots++;
+            return null;
+        }
+
+        long lo = BitboardFleet.lo(cell);
+        long hi = BitboardFleet.hi(cell);
+        if (((shotsLo & lo) | (shotsHi & hi)) != 0) {
+            countRepeatedShots++;
+            return null;
+        }
+        shotsLo |= lo;
+        shotsHi |= hi;
+
+        int index = fleet.shipIndexAt(cell);
+        if (index < 0)
+            return null;
+        countHits++;
+        if (fleet.hit(index, cell)) {
+            countSinks++;
+            return fleet.shipByIndex(index);
+        }
+        return null;
+    }
+
+    /**
+     * Dispara uma sequência de tiros sobre o bitboard, com os contadores em
+     * variáveis locais até ao fim da sequência.
+     *
+     * @param cells   células dos tiros
+     * @param count   número de tiros
+     * @param results destino do código de {@link ShotResult} de cada tiro
+     */
+    @Override
+    public void fireAll(int[] cells, int count, byte[] results) {
+        if (count < 0 || count > cells.length || count > results.length)
+            throw new IllegalArgumentException("ERROR! invalid number of shots");
+        long shotLo = shotsLo;
+        long shotHi = shotsHi;
+        int invalid = 0;
+        int repeated = 0;
+        int hits = 0;
+        int sinks = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            byte result;
+            if (cell < 0 || cell >= config.getCells()) {
+                invalid++;
+                result = ShotResult.INVALID_CODE;
+            } else {
+                long lo = BitboardFleet.lo(cell);
+                long hi = BitboardFleet.hi(cell);
+                if (((shotLo & lo) | (shotHi & hi)) != 0) {
+                    repeated++;
+                    result = ShotResult.REPEATED_CODE;
+                } else {
+                    shotLo |= lo;
+                    shotHi |= hi;
+                    int index = fleet.shipIndexAt(cell);
+                    if (index < 0) {
+                        result = ShotResult.MISS_CODE;
+                    } else {
+                        hits++;
+                        if (fleet.hit(index, cell)) {
+                            sinks++;
+                            result = ShotResult.SUNK_CODE;
+                        } else {
+                            result = ShotResult.HIT_CODE;
+                        }
+                    }
+                }
+            }
+            results[i] = result;
+        }
+        shotsLo = shotLo;
+        shotsHi = shotHi;
+        countInvalidShots += invalid;
+        countRepeatedShots += repeated;
+        countHits += hits;
+        countSinks += sinks;
+    }
+
+    /**
+     * Devolve as posições dos tiros válidos, por ordem de linha e coluna.
+     * A lista é construída a partir do bitboard a cada chamada.
+     *
+     * @return lista de posições dos tiros válidos
+     */
+    @Override
+    public List<ICoordinate> getShots() {
+        List<ICoordinate> shots = new ArrayList<>(Long.bitCount(shotsLo) + Long.bitCount(shotsHi));
+        for (int cell = 0; cell < config.getCells(); cell++)
+            if (isShot(cell))
+                shots.add(config.positionAt(config.rowOf(cell), config.columnOf(cell)));
+        return shots;
+    }
+
+    @Override
+    public int getRepeatedShots() {
+        return countRepeatedShots;
+    }
+
+    @Override
+    public int getInvalidShots() {
+        return countInvalidShots;
+    }
+
+    @Override
+    public int getHits() {
+        return countHits;
+    }
+
+    @Override
+    public int getSunkShips() {
+        return countSinks;
+    }
+
+    @Override
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    @Override
+    public int getRemainingShips() {
+        return fleet.countFloatingShips();
+    }
+
+    /**
+     * Indica se a célula indicada já foi alvo de um tiro válido.
+     *
+     * @param cell identificador da célula
+     * @return {@code true} se já foi alvo de um tiro
+     */
+    private boolean isShot(int cell) {
+        return ((shotsLo & BitboardFleet.lo(cell)) | (shotsHi & BitboardFleet.hi(cell))) != 0;
+    }
+
+    /**
+     * Imprime no ecrã o tabuleiro com os tiros válidos efetuados,
+     * marcados com o caráter 'X'.
+     */
+    @Override
+    public void printValidShots() {
+        BoardRenderer board = renderer();
+        for (int row = 0; row < config.getRows(); row++)
+            for (int col = 0; col < config.getColumns(); col++)
+                if (isShot(config.cellOf(row, col)))
+                    board.mark(row, col, 'X');
+        board.print(System.out);
+    }
+
+    /**
+     * Imprime no ecrã o tabuleiro com as posições ocupadas pela frota,
+     * marcadas com o caráter '#'.
+     */
+    @Override
+    public void printFleet() {
+        BoardRenderer board = renderer();
+        for (int row = 0; row < config.getRows(); row++)
+            for (int col = 0; col < config.getColumns(); col++)
+                if (fleet.isOccupied(config.cellOf(row, col)))
+                    board.mark(row, col, '#');
+        board.print(System.out);
+    }
+
+    /**
+     * Devolve o buffer de desenho do tabuleiro, com todas as células a '.'.
+     *
+     * @return buffer de desenho deste jogo
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(config);
+        renderer.clear();
+        return renderer;
+    }
+}
@@ -0,0 +1,256 @@
+/**
+ * Configuração de um tabuleiro de Batalha Naval: dimensões do tabuleiro
+ * e composição máxima da frota.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros imutáveis de um tabuleiro, injetados em {@link Fleet} e {@link Game}.
+ * <p>
+ * As células do tabuleiro são numeradas por linhas: a célula da posição
+ * (linha, coluna) tem o identificador {@code linha * colunas + coluna}.
+ * </p>
+ */
+public final class BoardConfig {
+
+    /** Composição da frota nas regras dos Descobrimentos (navios por categoria). */
+    public static final Map<String, Integer> STANDARD_FLEET = standardFleet();
+
+    /**
+     * Tabuleiro 10x10 sem limites por categoria, com as regras de sempre de
+     * {@link Fleet}: só o número total de navios é limitado.
+     */
+    public static final BoardConfig DEFAULT =
+            new BoardConfig(IFleet.BOARD_SIZE, IFleet.BOARD_SIZE, IFleet.FLEET_SIZE);
+
+    /**
+     * Tabuleiro 10x10 com a frota dos Descobrimentos: cada categoria está
+     * limitada ao número de navios de {@link #STANDARD_FLEET}. Tem de ser
+     * pedido explicitamente (ex: {@code new Fleet(BoardConfig.STANDARD)}).
+     */
+    public static final BoardConfig STANDARD =
+            new BoardConfig(IFleet.BOARD_SIZE, IFleet.BOARD_SIZE, IFleet.FLEET_SIZE, STANDARD_FLEET);
+
+    /** Número de linhas do tabuleiro. */
+    private final int rows;
+
+    /** Número de colunas do tabuleiro. */
+    private final int columns;
+
+    /** Limite de navios da frota (ver {@link Fleet#addShip(IShip)}). */
+    private final int fleetSize;
+
+    /** Número máximo de navios por categoria; categorias ausentes não têm limite. */
+    private final Map<String, Integer> quotas;
+
+    /**
+     * Instâncias partilhadas das células do tabuleiro, criadas à medida que são pedidas.
+     * Como {@link Cell} é imutável, uma corrida na criação é inofensiva.
+     */
+    private final Cell[] positions;
+
+    /**
+     * Cria uma configuração sem limites por categoria.
+     *
+     * @param rows      número de linhas
+     * @param columns   número de colunas
+     * @param fleetSize limite de navios da frota
+     */
+    public BoardConfig(int rows, int columns, int fleetSize) {
+        this(rows, columns, fleetSize, Collections.emptyMap());
+    }
+
+    /**
+     * Cria uma configuração com limites por categoria.
+     *
+     * @param rows      número de linhas
+     * @param columns   número de colunas
+     * @param fleetSize limite de navios da frota
+     * @param quotas    número máximo de navios por categoria (ex: "Barca" -> 4)
+     * @throws IllegalArgumentException se as dimensões não forem positivas
+     */
+    public BoardConfig(int rows, int columns, int fleetSize, Map<String, Integer> quotas) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("ERROR! invalid board dimensions " + rows + "x" + columns);
+        if (fleetSize < 0)
+            throw new IllegalArgumentException("ERROR! invalid fleet size " + fleetSize);
+        this.rows = rows;
+        this.columns = columns;
+        this.fleetSize = fleetSize;
+        this.quotas = Collections.unmodifiableMap(new LinkedHashMap<>(quotas));
+        this.positions = new Cell[rows * columns];
+    }
+
+    /**
+     * Cria a composição da frota nas regras dos Descobrimentos.
+     *
+     * @return mapa categoria -> número de navios
+     */
+    private static Map<String, Integer> standardFleet() {
+        Map<String, Integer> fleet = new LinkedHashMap<>();
+        fleet.put("Galeao", 1);
+        fleet.put("Fragata", 1);
+        fleet.put("Nau", 2);
+        fleet.put("Caravela", 3);
+        fleet.put("Barca", 4);
+        return Collections.unmodifiableMap(fleet);
+    }
+
+    /**
+     * Devolve o número de linhas do tabuleiro.
+     *
+     * @return número de linhas
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Devolve o número de colunas do tabuleiro.
+     *
+     * @return número de colunas
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Devolve o limite de navios da frota.
+     *
+     * @return limite de navios
+     */
+    public int getFleetSize() {
+        return fleetSize;
+    }
+
+    /**
+     * Devolve os limites por categoria.
+     *
+     * @return mapa (não modificável) categoria -> número máximo de navios
+     */
+    public Map<String, Integer> getQuotas() {
+        return quotas;
+    }
+
+    /**
+     * Devolve o número máximo de navios da categoria indicada.
+     *
+     * @param category categoria do navio
+     * @return número máximo de navios, ou {@link Integer#MAX_VALUE} se não houver limite
+     */
+    public int getQuota(String category) {
+        Integer quota = quotas.get(category);
+        return quota == null ? Integer.MAX_VALUE : quota;
+    }
+
+    /**
+     * Devolve o número de células do tabuleiro.
+     *
+     * @return linhas x colunas
+     */
+    public int getCells() {
+        return rows * columns;
+    }
+
+    /**
+     * Verifica se a posição (linha, coluna) está dentro do tabuleiro.
+     *
+     * @param row    linha
+     * @param column coluna
+     * @return {@code true} se estiver dentro do tabuleiro
+     */
+    public boolean isInside(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    /**
+     * Devolve o identificador da célula (linha, coluna).
+     * A posição tem de estar dentro do tabuleiro.
+     *
+     * @param row    linha
+     * @param column coluna
+     * @return identificador da célula
+     */
+    public int cellOf(int row, int column) {
+        return row * columns + column;
+    }
+
+    /**
+     * Devolve a célula de um tiro em (linha, coluna), no formato de
+     * {@link IGame#fireAll(int[], int, byte[])}: o identificador da célula, ou
+     * {@code -1} se a posição estiver fora do tabuleiro.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return identificador da célula, ou {@code -1}
+     */
+    public int targetCell(int row, int column) {
+        return isInside(row, column) ? cellOf(row, column) : -1;
+    }
+
+    /**
+     * Devolve a posição imutável (linha, coluna).
+     * Para posições dentro do tabuleiro é devolvida sempre a mesma instância,
+     * pelo que não há alocação após o primeiro pedido de cada célula.
+     *
+     * @param row    linha
+     * @param column coluna
+     * @return posição imutável
+     */
+    public Cell positionAt(int row, int column) {
+        if (!isInside(row, column))
+            return new Cell(row, column);
+        int cell = cellOf(row, column);
+        Cell pos = positions[cell];
+        if (pos == null) {
+            pos = new Cell(row, column);
+            positions[cell] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Devolve a posição imutável da célula indicada, que tem de estar dentro do
+     * tabuleiro: a mesma instância de {@link #positionAt(int, int)}, sem
+     * calcular a linha e a coluna depois do primeiro pedido.
+     *
+     * @param cell identificador da célula
+     * @return posição imutável
+     */
+    public Cell positionAt(int cell) {
+        Cell pos = positions[cell];
+        return pos != null ? pos : positionAt(rowOf(cell), columnOf(cell));
+    }
+
+    /**
+     * Devolve a linha da célula indicada.
+     *
+     * @param cell identificador da célula
+     * @return linha
+     */
+    public int rowOf(int cell) {
+        return cell / columns;
+    }
+
+    /**
+     * Devolve a coluna da célula indicada.
+     *
+     * @param cell identificador da célula
+     * @return coluna
+     */
+    public int columnOf(int cell) {
+        return cell % columns;
+    }
+
+    @Override
+    public String toString() {
+        return rows + "x" + columns + " " + quotas;
+    }
+}
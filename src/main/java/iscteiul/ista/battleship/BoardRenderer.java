@@ -0,0 +1,86 @@
+/**
+ * Desenho em texto do tabuleiro do jogo.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Desenha o tabuleiro num buffer de caracteres reutilizável, com uma linha de
+ * texto por linha do tabuleiro, e escreve-o de uma só vez.
+ * <p>
+ * O buffer é criado uma única vez com as dimensões do tabuleiro e os fins de
+ * linha já colocados: cada desenho apenas repõe as células a {@code '.'},
+ * marca as células pedidas e faz uma única escrita no fluxo de saída, sem criar
+ * objetos. Cada instância deve ser usada por uma única thread.
+ * </p>
+ */
+final class BoardRenderer {
+
+    /** Carácter das células não marcadas. */
+    private static final char EMPTY = '.';
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Comprimento de cada linha no buffer, incluindo o fim de linha. */
+    private final int stride;
+
+    /** Texto do tabuleiro. */
+    private final char[] board;
+
+    /**
+     * Cria o buffer de desenho de um tabuleiro.
+     *
+     * @param config dimensões do tabuleiro
+     */
+    BoardRenderer(BoardConfig config) {
+        this.config = config;
+        String newLine = System.lineSeparator();
+        this.stride = config.getColumns() + newLine.length();
+        this.board = new char[config.getRows() * stride];
+        for (int row = 0; row < config.getRows(); row++)
+            newLine.getChars(0, newLine.length(), board, row * stride + config.getColumns());
+    }
+
+    /**
+     * Repõe todas as células a {@code '.'}.
+     */
+    void clear() {
+        for (int row = 0; row < config.getRows(); row++)
+            Arrays.fill(board, row * stride, row * stride + config.getColumns(), EMPTY);
+    }
+
+    /**
+     * Marca uma célula.
+     *
+     * @param row    linha da célula
+     * @param column coluna da célula
+     * @param marker carácter da marca
+     */
+    void mark(int row, int column, char marker) {
+        board[row * stride + column] = marker;
+    }
+
+    /**
+     * Escreve o tabuleiro numa única operação.
+     *
+     * @param out fluxo de saída
+     */
+    void print(PrintStream out) {
+        out.print(board);
+    }
+
+    /**
+     * Acrescenta o tabuleiro a um buffer de texto.
+     *
+     * @param out buffer de texto
+     */
+    void appendTo(StringBuilder out) {
+        out.append(board);
+    }
+}
@@ -9,7 +9,7 @@ package iscteiul.ista.battleship;
  */
 public class Caravel extends Ship {
     
-    private static final Integer SIZE = 2;
+    private static final int SIZE = 2;
     private static final String NAME = "Caravela";
 
     /**
@@ -27,20 +27,10 @@ public class Caravel extends Ship {
         if (bearing == null)
             throw new NullPointerException("ERROR! invalid bearing for the caravel");
 
-        switch (bearing) {
-            case NORTH:
-            case SOUTH:
-                for (int r = 0; r < SIZE; r++)
-                    getPositions().add(new Position(pos.getRow() + r, pos.getColumn()));
-                break;
-            case EAST:
-            case WEST:
-                for (int c = 0; c < SIZE; c++)
-                    getPositions().add(new Position(pos.getRow(), pos.getColumn() + c));
-                break;
-            default:
-                throw new IllegalArgumentException("ERROR! invalid bearing for the caravel");
-        }
+        ShapeTable.Shape shape = ShapeTable.shape(ShapeTable.CARAVELA, bearing);
+        if (shape == null)
+            throw new IllegalArgumentException("ERROR! invalid bearing for the caravel");
+        place(shape);
     }
 
     /**
@@ -49,7 +39,7 @@ public class Caravel extends Ship {
      * * @return O número de posições que o navio ocupa na grelha (2).
      */
     @Override
-    public Integer getSize() {
+    public int getSize() {
         return SIZE;
     }
 
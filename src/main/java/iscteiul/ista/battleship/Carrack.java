@@ -9,7 +9,7 @@ package iscteiul.ista.battleship;
  */
 public class Carrack extends Ship {
     
-    private static final Integer SIZE = 3;
+    private static final int SIZE = 3;
     private static final String NAME = "Nau";
 
     /**
@@ -24,20 +24,10 @@ public class Carrack extends Ship {
     public Carrack(Compass bearing, IPosition pos) throws IllegalArgumentException {
         super(Carrack.NAME, bearing, pos);
         
-        switch (bearing) {
-            case NORTH:
-            case SOUTH:
-                for (int r = 0; r < SIZE; r++)
-                    getPositions().add(new Position(pos.getRow() + r, pos.getColumn()));
-                break;
-            case EAST:
-            case WEST:
-                for (int c = 0; c < SIZE; c++)
-                    getPositions().add(new Position(pos.getRow(), pos.getColumn() + c));
-                break;
-            default:
-                throw new IllegalArgumentException("ERROR! invalid bearing for the carrack");
-        }
+        ShapeTable.Shape shape = ShapeTable.shape(ShapeTable.NAU, bearing);
+        if (shape == null)
+            throw new IllegalArgumentException("ERROR! invalid bearing for the carrack");
+        place(shape);
     }
 
     /**
@@ -46,7 +36,7 @@ public class Carrack extends Ship {
      * * @return O número de posições que o navio ocupa na grelha (3).
      */
     @Override
-    public Integer getSize() {
+    public int getSize() {
         return Carrack.SIZE;
     }
 
@@ -0,0 +1,98 @@
+/**
+ * Representa as coordenadas de uma célula do tabuleiro, sem estado.
+ * <p>
+ * Ao contrário de {@link Position}, uma {@code Cell} é imutável: implementa
+ * apenas {@link ICoordinate}, não podendo ser ocupada nem atingida, e serve
+ * só para identificar uma posição (por exemplo, o alvo de um tiro). Por ser
+ * imutável, a mesma instância pode ser partilhada livremente;
+ * {@link BoardConfig#positionAt(int, int)} mantém uma instância por célula
+ * do tabuleiro.
+ * </p>
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Posição imutável e partilhável do tabuleiro.
+ */
+public final class Cell implements ICoordinate {
+
+    /** Número da linha da posição no tabuleiro */
+    private final int row;
+
+    /** Número da coluna da posição no tabuleiro */
+    private final int column;
+
+    /**
+     * Constrói uma célula com a linha e coluna especificadas.
+     * Para células dentro do tabuleiro deve preferir-se
+     * {@link BoardConfig#positionAt(int, int)}.
+     *
+     * @param row    número da linha
+     * @param column número da coluna
+     */
+    public Cell(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Gera o código hash da célula, coerente com {@link Position#hashCode()}.
+     *
+     * @return valor de hash baseado na linha e coluna
+     */
+    @Override
+    public int hashCode() {
+        return 31 * row + column;
+    }
+
+    /**
+     * Duas posições são iguais se tiverem a mesma linha e coluna.
+     *
+     * @param otherPosition objeto a comparar
+     * @return {@code true} se tiverem a mesma linha e coluna; {@code false} caso contrário
+     */
+    @Override
+    public boolean equals(Object otherPosition) {
+        if (this == otherPosition)
+            return true;
+
+        if (otherPosition instanceof ICoordinate) {
+            ICoordinate other = (ICoordinate) otherPosition;
+            return (this.row == other.getRow() && this.column == other.getColumn());
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se esta célula é adjacente a outra (incluindo diagonais).
+     *
+     * @param other célula a verificar
+     * @return {@code true} se for adjacente; {@code false} caso contrário
+     */
+    public boolean isAdjacentTo(ICoordinate other) {
+        return (Math.abs(this.row - other.getRow()) <= 1 &&
+                Math.abs(this.column - other.getColumn()) <= 1);
+    }
+
+    /**
+     * Devolve uma representação textual da célula.
+     *
+     * @return string no formato "Linha = X Coluna = Y"
+     */
+    @Override
+    public String toString() {
+        return "Linha = " + row + " Coluna = " + column;
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * Jogo sobre o qual vários jogadores podem disparar em simultâneo.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jogo seguro para várias threads, sem locks, sobre uma {@link FleetLayout}
+ * imutável (por exemplo, num modo de equipas em que vários jogadores disparam
+ * sobre a mesma frota).
+ * <p>
+ * Cada célula corresponde a um bit de um {@link AtomicLongArray}: um tiro
+ * válido reclama a sua célula com uma operação compare-and-set sobre a
+ * palavra da célula, pelo que, entre vários tiros simultâneos na mesma
+ * célula, exatamente um é contado como novo e os restantes como repetidos.
+ * Cada navio tem um contador atómico das células por atingir; o tiro que o
+ * leva a zero é o único que afunda o navio e o único a quem o navio é
+ * devolvido, pelo que cada afundamento é reportado exatamente uma vez.
+ * </p>
+ * <p>
+ * Os contadores de acertos e de tiros inválidos e repetidos são
+ * {@link LongAdder}, sem disputa entre threads; as suas leituras durante
+ * disparos simultâneos são aproximadas e são exatas quando não há disparos
+ * em curso. O número de navios afundados e a flutuar é lido de um único
+ * contador atómico e é sempre exato.
+ * </p>
+ */
+public class ConcurrentGame implements IGame {
+
+    /** Disposição partilhada da frota adversária. */
+    private final FleetLayout layout;
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Células já alvo de tiros válidos, 64 por palavra. */
+    private final AtomicLongArray shotCells;
+
+    /** Número de células ainda não atingidas de cada navio. */
+    private final AtomicIntegerArray shipCells;
+
+    /** Número de navios ainda a flutuar. */
+    private final AtomicInteger floating;
+
+    /** Contador de tiros disparados para posições fora do tabuleiro. */
+    private final LongAdder countInvalidShots = new LongAdder();
+
+    /** Contador de tiros disparados para posições já anteriormente atingidas. */
+    private final LongAdder countRepeatedShots = new LongAdder();
+
+    /** Contador de tiros que acertaram num navio. */
+    private final LongAdder countHits = new LongAdder();
+
+    /**
+     * Cria um novo jogo sobre a disposição de uma frota.
+     *
+     * @param fleet frota adversária, cuja disposição é copiada
+     */
+    public ConcurrentGame(IFleet fleet) {
+        this(FleetLayout.of(fleet));
+    }
+
+    /**
+     * Cria um novo jogo sobre a disposição indicada.
+     *
+     * @param layout disposição da frota adversária
+     */
+    public ConcurrentGame(FleetLayout layout) {
+        this.layout = layout;
+        this.config = layout.getBoardConfig();
+        this.shotCells = new AtomicLongArray((config.getCells() + Long.SIZE - 1) / Long.SIZE);
+        this.shipCells = new AtomicIntegerArray(layout.shipCount());
+        for (int i = 0; i < layout.shipCount(); i++)
+            shipCells.set(i, layout.shipSize(i));
+        this.floating = new AtomicInteger(layout.shipCount());
+    }
+
+    /**
+     * Devolve a disposição partilhada da frota.
+     *
+     * @return disposição da frota
+     */
+    public FleetLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public IShip fire(ICoordinate pos) {
+        return fire(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Dispara um tiro na posição (linha, coluna). Pode ser chamado por várias
+     * threads em simultâneo.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return o navio afundado ({@link FleetLayout#sunkShip(int)}) se este tiro o tiver afundado,
+     *         {@code null} caso contrário
+     */
+    @Override
+    public IShip fire(int row, int column) {
+        if (!config.isInside(row, column)) {
+            countInvalidShots.increment();
+            return null;
+        }
+        int cell = config.cellOf(row, column);
+        if (!claim(cell)) {
+            countRepeatedShots.increment();
+            return null;
+        }
+        int index = layout.shipIndexAt(cell);
+        if (index < 0)
+            return null;
+        countHits.increment();
+        if (shipCells.decrementAndGet(index) != 0)
+            return null;
+        floating.decrementAndGet();
+        return layout.sunkShip(index);
+    }
+
+    /**
+     * Dispara uma sequência de tiros. Cada célula é reclamada individualmente,
+     * como em {@link #fire(int, int)}, mas os contadores de acertos e de tiros
+     * inválidos e repetidos são atualizados uma única vez por sequência, o que
+     * reduz a contenção entre threads. O número de navios a flutuar é
+     * atualizado em cada afundamento, como em {@link #fire(int, int)}, para
+     * continuar sempre exato. Pode ser chamado por várias threads em simultâneo.
+     *
+     * @param cells   células dos tiros
+     * @param count   número de tiros
+     * @param results destino do código de {@link ShotResult} de cada tiro
+     */
+    @Override
+    public void fireAll(int[] cells, int count, byte[] results) {
+        if (count < 0 || count > cells.length || count > results.length)
+            throw new IllegalArgumentException("ERROR! invalid number of shots");
+        int invalid = 0;
+        int repeated = 0;
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            byte result;
+            if (cell < 0 || cell >= config.getCells()) {
+                invalid++;
+                result = ShotResult.INVALID_CODE;
+            } else if (!claim(cell)) {
+                repeated++;
+                result = ShotResult.REPEATED_CODE;
+            } else {
+                int index = layout.shipIndexAt(cell);
+                if (index < 0) {
+                    result = ShotResult.MISS_CODE;
+                } else {
+                    hits++;
+                    if (shipCells.decrementAndGet(index) != 0) {
+                        result = ShotResult.HIT_CODE;
+                    } else {
+                        floating.decrementAndGet();
+                        result = ShotResult.SUNK_CODE;
+                    }
+                }
+            }
+            results[i] = result;
+        }
+        if (invalid != 0)
+            countInvalidShots.add(invalid);
+        if (repeated != 0)
+            countRepeatedShots.add(repeated);
+        if (hits != 0)
+            countHits.add(hits);
+    }
+
+    /**
+     * Reclama uma célula para o tiro corrente.
+     *
+     * @param cell identificador da célula
+     * @return {@code true} se a célula ainda não tinha sido alvo de nenhum tiro
+     */
+    private boolean claim(int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        long current;
+        do {
+            current = shotCells.get(word);
+            if ((current & bit) != 0)
+                return false;
+        } while (!shotCells.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    /**
+     * Indica se uma célula já foi alvo de um tiro válido.
+     *
+     * @param cell identificador da célula
+     * @return {@code true} se já foi alvo de um tiro
+     */
+    private boolean isShot(int cell) {
+        return (shotCells.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    /**
+     * Devolve as posições dos tiros válidos e não repetidos, numa lista nova,
+     * por ordem das células (a ordem entre tiros de threads diferentes não é
+     * registada).
+     *
+     * @return posições dos tiros
+     */
+    @Override
+    public List<ICoordinate> getShots() {
+        List<ICoordinate> shots = new ArrayList<>();
+        for (int cell = 0; cell < config.getCells(); cell++)
+            if (isShot(cell))
+                shots.add(config.positionAt(config.rowOf(cell), config.columnOf(cell)));
+        return shots;
+    }
+
+    @Override
+    public int getRepeatedShots() {
+        return countRepeatedShots.intValue();
+    }
+
+    @Override
+    public int getInvalidShots() {
+        return countInvalidShots.intValue();
+    }
+
+    @Override
+    public int getHits() {
+        return countHits.intValue();
+    }
+
+    @Override
+    public int getSunkShips() {
+        return layout.shipCount() - floating.get();
+    }
+
+    @Override
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    @Override
+    public int getRemainingShips() {
+        return floating.get();
+    }
+
+    /**
+     * Imprime no ecrã o tabuleiro com os tiros válidos efetuados,
+     * marcados com o caráter 'X'.
+     */
+    @Override
+    public void printValidShots() {
+        BoardRenderer board = new BoardRenderer(config);
+        board.clear();
+        for (int cell = 0; cell < config.getCells(); cell++)
+            if (isShot(cell))
+                board.mark(config.rowOf(cell), config.columnOf(cell), 'X');
+        board.print(System.out);
+    }
+
+    /**
+     * Imprime no ecrã o tabuleiro com as posições ocupadas pela frota,
+     * marcadas com o caráter '#'.
+     */
+    @Override
+    public void printFleet() {
+        BoardRenderer board = new BoardRenderer(config);
+        board.clear();
+        for (int cell = 0; cell < config.getCells(); cell++)
+            if (layout.shipIndexAt(cell) >= 0)
+                board.mark(config.rowOf(cell), config.columnOf(cell), '#');
+        board.print(System.out);
+    }
+}
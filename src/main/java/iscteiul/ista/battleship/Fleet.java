@@ -1,7 +1,11 @@
 package iscteiul.ista.battleship;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a fleet of ships in the Battleship game.
@@ -18,20 +22,91 @@ public class Fleet implements IFleet {
     private List<IShip> ships;
 
     /**
-     * Creates an empty fleet.
+     * Board dimensions and fleet composition.
+     */
+    private BoardConfig config;
+
+    /**
+     * Dense cell index: the ship occupying each board cell (row-major),
+     * or null if the cell is empty.
+     */
+    private IShip[] cells;
+
+    /**
+     * Forbidden zone: cells occupied by a ship or adjacent to one
+     * (8-neighbourhood), where no new ship may be placed.
+     */
+    private BitSet forbidden;
+
+    /**
+     * Number of ships per category, checked against the category quotas.
+     */
+    private Map<String, Integer> categoryCount;
+
+    /**
+     * Number of {@link Ship} objects still floating, kept up to date as they sink.
+     */
+    private int floatingCount;
+
+    /**
+     * Ships that are not {@link Ship} objects and so do not report when they
+     * sink; they are checked one by one when the floating ships are counted.
+     */
+    private List<IShip> untrackedShips;
+
+    /**
+     * Reusable text buffer for the print methods, created on first use.
+     */
+    private StringBuilder text;
+
+    /**
+     * Ships already sunk, in the order they sank.
+     */
+    private List<IShip> sunkShips;
+
+    /**
+     * Creates an empty fleet on the default 10x10 board, with no per-category quotas.
      */
     public Fleet() {
+        this(BoardConfig.DEFAULT);
+    }
+
+    /**
+     * Creates an empty fleet for the given board configuration.
+     *
+     * @param config board dimensions and fleet composition
+     */
+    public Fleet(BoardConfig config) {
+        this.config = config;
         ships = new ArrayList<>();
+        cells = new IShip[config.getCells()];
+        forbidden = new BitSet(config.getCells());
+        categoryCount = new HashMap<>();
+        sunkShips = new ArrayList<>(config.getFleetSize() + 1);
+        untrackedShips = new ArrayList<>();
     }
 
     /**
-     * Prints all ships from a given list.
+     * Appends all ships from a given list to a text buffer, one per line.
      *
-     * @param ships list of ships to print
+     * @param out   text buffer
+     * @param ships list of ships to append
      */
-    static void printShips(List<IShip> ships) {
+    static void appendShips(StringBuilder out, List<IShip> ships) {
         for (IShip ship : ships)
-            System.out.println(ship);
+            out.append(ship).append(System.lineSeparator());
+    }
+
+    /**
+     * Returns the reusable text buffer of this fleet, emptied.
+     *
+     * @return text buffer
+     */
+    private StringBuilder text() {
+        if (text == null)
+            text = new StringBuilder();
+        text.setLength(0);
+        return text;
     }
 
     /**
@@ -44,25 +119,83 @@ public class Fleet implements IFleet {
         return ships;
     }
 
+    /**
+     * Returns the board configuration of this fleet.
+     *
+     * @return board configuration
+     */
+    @Override
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
     /**
      * Adds a ship to the fleet if:
      * <ul>
      *     <li>The fleet is not full</li>
+     *     <li>The quota for the ship's category is not reached</li>
      *     <li>The ship is inside board boundaries</li>
      *     <li>No collision risk exists</li>
      * </ul>
+     * While Java Flight Recorder is recording, emits a {@link ShipPlacedEvent}
+     * or a {@link PlacementRejectedEvent} with the reason.
      *
      * @param s ship to add
      * @return true if the ship was successfully added; false otherwise
      */
     @Override
     public boolean addShip(IShip s) {
-        boolean result = false;
-        if ((ships.size() <= FLEET_SIZE) && (isInsideBoard(s)) && (!colisionRisk(s))) {
-            ships.add(s);
-            result = true;
+        ShipPlacedEvent placed = new ShipPlacedEvent();
+        PlacementRejectedEvent rejected = new PlacementRejectedEvent();
+        placed.begin();
+        rejected.begin();
+        PlacementResult result = placement(s);
+        if (GameMetrics.ENABLED)
+            GameMetrics.placement(result);
+        if (!result.isAccepted()) {
+            if (rejected.shouldCommit()) {
+                rejected.set(s, result);
+                rejected.commit();
+            }
+            return false;
+        }
+        ships.add(s);
+        for (IPosition p : s.getPositions()) {
+            cells[config.cellOf(p.getRow(), p.getColumn())] = s;
+            markForbidden(p);
+        }
+        categoryCount.merge(s.getCategory(), 1, Integer::sum);
+        if (s instanceof Ship) {
+            ((Ship) s).setFleet(this);
+            if (s.stillFloating())
+                floatingCount++;
+        } else {
+            untrackedShips.add(s);
         }
-        return result;
+        if (placed.shouldCommit()) {
+            placed.set(s);
+            placed.commit();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a ship can be added to the fleet, in the order listed in
+     * {@link #addShip(IShip)}, and returns the first reason to reject it.
+     *
+     * @param s ship to validate
+     * @return {@link PlacementResult#ACCEPTED} or the reason for rejecting the ship
+     */
+    private PlacementResult placement(IShip s) {
+        if (ships.size() > config.getFleetSize())
+            return PlacementResult.FLEET_FULL;
+        if (!withinQuota(s))
+            return PlacementResult.OVER_QUOTA;
+        if (!isInsideBoard(s))
+            return PlacementResult.OUT_OF_BOARD;
+        if (colisionRisk(s))
+            return PlacementResult.COLLISION;
+        return PlacementResult.ACCEPTED;
     }
 
     /**
@@ -94,18 +227,78 @@ public class Fleet implements IFleet {
         return floatingShips;
     }
 
+    /**
+     * Returns the number of ships still floating.
+     * The counter is updated by {@link Ship#shoot(ICoordinate)} when a ship sinks,
+     * so no list is built; only ships of other {@link IShip} implementations,
+     * if any, are checked one by one.
+     *
+     * @return number of ships not yet sunk
+     */
+    @Override
+    public int countFloatingShips() {
+        int count = floatingCount;
+        for (int i = 0; i < untrackedShips.size(); i++)
+            if (untrackedShips.get(i).stillFloating())
+                count++;
+        return count;
+    }
+
+    /**
+     * Returns the {@link Ship} objects already sunk, in the order they sank.
+     *
+     * @return unmodifiable list of sunk ships
+     */
+    public List<IShip> getSunkShips() {
+        return Collections.unmodifiableList(sunkShips);
+    }
+
+    /**
+     * Records that a ship of this fleet has just been sunk.
+     *
+     * @param s the sunk ship
+     */
+    void shipSunk(IShip s) {
+        floatingCount--;
+        sunkShips.add(s);
+    }
+
+    /**
+     * Records that the most recently sunk ship is floating again, because the
+     * shot that sank it was undone.
+     *
+     * @param s the ship floating again
+     */
+    void shipRefloated(IShip s) {
+        assert sunkShips.get(sunkShips.size() - 1) == s;
+        floatingCount++;
+        sunkShips.remove(sunkShips.size() - 1);
+    }
+
     /**
      * Returns the ship occupying a given position.
+     * The lookup is a single read of the cell index.
      *
      * @param pos board position
      * @return ship at that position or null if none exists
      */
     @Override
-    public IShip shipAt(IPosition pos) {
-        for (IShip ship : ships)
-            if (ship.occupies(pos))
-                return ship;
-        return null;
+    public IShip shipAt(ICoordinate pos) {
+        return shipAt(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Returns the ship occupying a given row and column.
+     *
+     * @param row    board row
+     * @param column board column
+     * @return ship at that position or null if none exists
+     */
+    @Override
+    public IShip shipAt(int row, int column) {
+        if (!config.isInside(row, column))
+            return null;
+        return cells[config.cellOf(row, column)];
     }
 
     /**
@@ -116,36 +309,74 @@ public class Fleet implements IFleet {
      */
     private boolean isInsideBoard(IShip s) {
         return (s.getLeftMostPos() >= 0 &&
-                s.getRightMostPos() <= BOARD_SIZE - 1 &&
+                s.getRightMostPos() <= config.getColumns() - 1 &&
                 s.getTopMostPos() >= 0 &&
-                s.getBottomMostPos() <= BOARD_SIZE - 1);
+                s.getBottomMostPos() <= config.getRows() - 1);
+    }
+
+    /**
+     * Verifies if the fleet still accepts ships of the given ship's category.
+     *
+     * @param s ship to validate
+     * @return true if the category quota is not reached
+     */
+    private boolean withinQuota(IShip s) {
+        return categoryCount.getOrDefault(s.getCategory(), 0) < config.getQuota(s.getCategory());
     }
 
     /**
      * Checks if placing a ship causes collision
      * or is too close to another ship.
+     * Each of the ship's cells is looked up in the forbidden zone,
+     * so the cost is O(ship size) regardless of the number of ships in the fleet.
      *
-     * @param s ship to validate
+     * @param s ship to validate (already inside the board)
      * @return true if collision risk exists
      */
     private boolean colisionRisk(IShip s) {
-        for (IShip ship : ships)
-            if (ship.tooCloseTo(s))
+        for (IPosition p : s.getPositions())
+            if (forbidden.get(config.cellOf(p.getRow(), p.getColumn())))
                 return true;
         return false;
     }
 
     /**
-     * Prints full fleet status grouped by category.
+     * Adds a ship cell and its 8-neighbourhood (clipped to the board)
+     * to the forbidden zone.
+     *
+     * @param p position occupied by a newly added ship
+     */
+    private void markForbidden(IPosition p) {
+        for (int r = Math.max(p.getRow() - 1, 0); r <= Math.min(p.getRow() + 1, config.getRows() - 1); r++) {
+            int from = config.cellOf(r, Math.max(p.getColumn() - 1, 0));
+            int to = config.cellOf(r, Math.min(p.getColumn() + 1, config.getColumns() - 1));
+            forbidden.set(from, to + 1);
+        }
+    }
+
+    /**
+     * Prints full fleet status grouped by category, in a single write.
      */
     public void printStatus() {
-        printAllShips();
-        printFloatingShips();
-        printShipsByCategory("Galeao");
-        printShipsByCategory("Fragata");
-        printShipsByCategory("Nau");
-        printShipsByCategory("Caravela");
-        printShipsByCategory("Barca");
+        StringBuilder out = text();
+        appendStatus(out);
+        System.out.print(out);
+    }
+
+    /**
+     * Appends the full fleet status grouped by category, as printed by
+     * {@link #printStatus()}, to a text buffer.
+     *
+     * @param out text buffer
+     */
+    void appendStatus(StringBuilder out) {
+        appendShips(out, ships);
+        appendShips(out, getFloatingShips());
+        appendShips(out, getShipsLike("Galeao"));
+        appendShips(out, getShipsLike("Fragata"));
+        appendShips(out, getShipsLike("Nau"));
+        appendShips(out, getShipsLike("Caravela"));
+        appendShips(out, getShipsLike("Barca"));
     }
 
     /**
@@ -155,20 +386,31 @@ public class Fleet implements IFleet {
      */
     public void printShipsByCategory(String category) {
         assert category != null;
-        printShips(getShipsLike(category));
+        print(getShipsLike(category));
     }
 
     /**
      * Prints ships that are still floating.
      */
     public void printFloatingShips() {
-        printShips(getFloatingShips());
+        print(getFloatingShips());
     }
 
     /**
      * Prints all ships in the fleet.
      */
     void printAllShips() {
-        printShips(ships);
+        print(ships);
+    }
+
+    /**
+     * Prints the given ships through the reusable text buffer, in a single write.
+     *
+     * @param list ships to print
+     */
+    private void print(List<IShip> list) {
+        StringBuilder out = text();
+        appendShips(out, list);
+        System.out.print(out);
     }
 }
@@ -0,0 +1,181 @@
+/**
+ * Disposição imutável de uma frota no tabuleiro, partilhável entre jogos.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Molde de uma frota: a forma e a posição de cada navio e o navio que ocupa
+ * cada célula, sem qualquer estado de jogo.
+ * <p>
+ * Depois de criada, uma disposição nunca é alterada, pelo que pode ser
+ * partilhada por qualquer número de jogos ({@link LayoutGame}), em qualquer
+ * número de threads, sem cópias nem sincronização: o estado de cada jogo
+ * (tiros e impactos) é guardado apenas no próprio jogo.
+ * </p>
+ * <p>
+ * Os navios da disposição são vistas imutáveis ({@link ShipView}), com a
+ * categoria, a orientação e as células de cada navio; não guardam impactos
+ * e não podem ser alvo de tiros.
+ * </p>
+ */
+public final class FleetLayout {
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Navios do molde, pela ordem de inserção. */
+    private final List<ShipView> ships;
+
+    /** Número de células de cada navio. */
+    private final int[] sizes;
+
+    /** Índice do navio que ocupa cada célula, ou {@code -1} se estiver vazia. */
+    private final int[] cellShip;
+
+    /**
+     * Cria uma disposição a partir dos navios do molde.
+     *
+     * @param config dimensões do tabuleiro
+     * @param ships  navios do molde
+     * @throws IllegalArgumentException se algum navio sair do tabuleiro ou se sobrepuser a outro
+     */
+    private FleetLayout(BoardConfig config, List<ShipView> ships) {
+        this.config = config;
+        this.ships = Collections.unmodifiableList(ships);
+        this.sizes = new int[ships.size()];
+        this.cellShip = new int[config.getCells()];
+        Arrays.fill(cellShip, -1);
+        for (int i = 0; i < ships.size(); i++) {
+            ShipView s = ships.get(i);
+            sizes[i] = s.getSize();
+            for (Cell p : s.getCells()) {
+                if (!config.isInside(p.getRow(), p.getColumn()))
+                    throw new IllegalArgumentException("ERROR! ship outside the board: " + s);
+                int cell = config.cellOf(p.getRow(), p.getColumn());
+                if (cellShip[cell] >= 0)
+                    throw new IllegalArgumentException("ERROR! overlapping ships: " + s);
+                cellShip[cell] = i;
+            }
+        }
+    }
+
+    /**
+     * Cria a disposição dos navios de uma frota. É criada uma vista de cada
+     * navio, com a mesma categoria, orientação e posições, pelo que o estado de
+     * impactos da frota não é copiado e a frota pode continuar a ser usada.
+     *
+     * @param fleet frota de origem
+     * @return nova disposição
+     */
+    public static FleetLayout of(IFleet fleet) {
+        List<ShipView> ships = new ArrayList<>(fleet.getShips().size());
+        for (IShip s : fleet.getShips())
+            ships.add(new ShipView(s));
+        return new FleetLayout(fleet.getBoardConfig(), ships);
+    }
+
+    /**
+     * Cria a disposição correspondente a um conjunto de colocações, por exemplo
+     * as devolvidas por {@link RandomFleetGenerator#nextLayout()}.
+     *
+     * @param table      tabela de colocações
+     * @param placements índices das colocações, um por navio
+     * @return nova disposição
+     * @throws IllegalArgumentException se as colocações se sobrepuserem
+     */
+    public static FleetLayout of(PlacementTable table, int[] placements) {
+        List<ShipView> ships = new ArrayList<>(placements.length);
+        for (int p : placements)
+            ships.add(new ShipView(table.buildShip(p)));
+        return new FleetLayout(table.getBoardConfig(), ships);
+    }
+
+    /**
+     * Devolve as dimensões do tabuleiro.
+     *
+     * @return configuração do tabuleiro
+     */
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    /**
+     * Devolve os navios do molde, numa lista não modificável.
+     *
+     * @return navios, pela ordem de inserção
+     */
+    public List<ShipView> getShips() {
+        return ships;
+    }
+
+    /**
+     * Devolve o número de navios.
+     *
+     * @return número de navios
+     */
+    public int shipCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Devolve o navio do molde com o índice indicado.
+     *
+     * @param index índice do navio
+     * @return o navio
+     */
+    public ShipView ship(int index) {
+        return ships.get(index);
+    }
+
+    /**
+     * Devolve o navio com o índice indicado já afundado, tal como é devolvido
+     * pelos jogos sobre esta disposição quando um tiro o afunda.
+     *
+     * @param index índice do navio
+     * @return o navio afundado ({@link ShipView#sunk()})
+     */
+    public IShip sunkShip(int index) {
+        return ships.get(index).sunk();
+    }
+
+    /**
+     * Devolve o número de células de um navio.
+     *
+     * @param index índice do navio
+     * @return tamanho do navio
+     */
+    public int shipSize(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * Devolve o índice do navio que ocupa uma célula.
+     *
+     * @param cell identificador da célula
+     * @return índice do navio, ou {@code -1} se a célula estiver vazia
+     */
+    public int shipIndexAt(int cell) {
+        return cellShip[cell];
+    }
+
+    /**
+     * Devolve o índice do navio que ocupa a posição (linha, coluna).
+     *
+     * @param row    linha
+     * @param column coluna
+     * @return índice do navio, ou {@code -1} se a posição estiver vazia ou fora do tabuleiro
+     */
+    public int shipIndexAt(int row, int column) {
+        if (!config.isInside(row, column))
+            return -1;
+        return cellShip[config.cellOf(row, column)];
+    }
+}
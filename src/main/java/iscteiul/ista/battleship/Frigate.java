@@ -6,7 +6,7 @@ package iscteiul.ista.battleship;
  */
 public class Frigate extends Ship {
 
-    private static final Integer SIZE = 4;
+    private static final int SIZE = 4;
     private static final String NAME = "Fragata";
 
     /**
@@ -19,22 +19,10 @@ public class Frigate extends Ship {
     public Frigate(Compass bearing, IPosition pos) throws IllegalArgumentException {
         super(NAME, bearing, pos);
 
-        switch (bearing) {
-            case NORTH:
-            case SOUTH:
-                for (int r = 0; r < SIZE; r++)
-                    getPositions().add(new Position(pos.getRow() + r, pos.getColumn()));
-                break;
-
-            case EAST:
-            case WEST:
-                for (int c = 0; c < SIZE; c++)
-                    getPositions().add(new Position(pos.getRow(), pos.getColumn() + c));
-                break;
-
-            default:
-                throw new IllegalArgumentException("Invalid bearing for Frigate");
-        }
+        ShapeTable.Shape shape = ShapeTable.shape(ShapeTable.FRAGATA, bearing);
+        if (shape == null)
+            throw new IllegalArgumentException("Invalid bearing for Frigate");
+        place(shape);
     }
 
     /**
@@ -43,7 +31,7 @@ public class Frigate extends Ship {
      * @return ship size (4)
      */
     @Override
-    public Integer getSize() {
+    public int getSize() {
         return SIZE;
     }
 }
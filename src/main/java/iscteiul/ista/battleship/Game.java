@@ -8,7 +8,11 @@
  */
 package iscteiul.ista.battleship;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -17,33 +21,81 @@ import java.util.List;
  */
 public class Game implements IGame {
 
+    /** Resultados dos tiros, indexados pelo ordinal, para ler o diário. */
+    private static final ShotResult[] RESULTS = ShotResult.values();
+
     /** Frota adversária sobre a qual os tiros são disparados. */
     private IFleet fleet;
 
+    /** Dimensões do tabuleiro sobre o qual decorre o jogo. */
+    private BoardConfig config;
+
     /** Lista de posições onde foram efetuados tiros válidos e não repetidos. */
-    private List<IPosition> shots;
+    private List<ICoordinate> shots;
+
+    /** Células já alvo de tiros válidos, para deteção de tiros repetidos em tempo constante. */
+    private BitSet shotCells;
 
     /** Contador de tiros disparados para posições fora do tabuleiro. */
-    private Integer countInvalidShots;
+    private int countInvalidShots;
 
     /** Contador de tiros disparados para posições já anteriormente atingidas. */
-    private Integer countRepeatedShots;
+    private int countRepeatedShots;
 
     /** Contador de tiros que acertaram num navio. */
-    private Integer countHits;
+    private int countHits;
 
     /** Contador de navios completamente afundados. */
-    private Integer countSinks;
+    private int countSinks;
+
+    /** Destino onde são gravados a frota e os tiros, ou {@code null}. */
+    private GameRecordWriter recorder;
+
+    /** Buffer de desenho do tabuleiro, criado no primeiro desenho. */
+    private BoardRenderer renderer;
+
+    /**
+     * Diário dos tiros disparados enquanto há snapshots por libertar, usado por
+     * {@link #restore(int)}: cada entrada é {@code célula << 3 | resultado}.
+     * É {@code null} enquanto não for pedido nenhum snapshot.
+     */
+    private int[] journal;
+
+    /** Número de entradas usadas de {@link #journal}. */
+    private int journalSize;
+
+    /** Marcas dos snapshots por libertar, da mais antiga para a mais recente. */
+    private int[] snapshots;
+
+    /** Número de snapshots por libertar. */
+    private int snapshotCount;
 
     /**
      * Cria um novo jogo com a frota fornecida.
      * Inicializa todos os contadores a zero e a lista de tiros vazia.
      *
      * @param fleet a frota adversária a ser usada no jogo
+     * @throws IllegalArgumentException se a frota for uma {@link BitboardFleet}
      */
     public Game(IFleet fleet) {
+        this(fleet, fleet.getBoardConfig());
+    }
+
+    /**
+     * Cria um novo jogo com a frota e o tabuleiro fornecidos.
+     *
+     * @param fleet  a frota adversária a ser usada no jogo
+     * @param config as dimensões do tabuleiro
+     * @throws IllegalArgumentException se a frota for uma {@link BitboardFleet},
+     *                                  cujo estado só é atualizado por {@link BitboardGame}
+     */
+    public Game(IFleet fleet, BoardConfig config) {
+        if (fleet instanceof BitboardFleet)
+            throw new IllegalArgumentException("ERROR! a BitboardFleet must be played with a BitboardGame");
         this.fleet = fleet;
+        this.config = config;
         this.shots = new ArrayList<>();
+        this.shotCells = new BitSet(config.getCells());
         this.countInvalidShots = 0;
         this.countRepeatedShots = 0;
         this.countHits = 0;
@@ -59,30 +111,426 @@ public class Game implements IGame {
      * @return o navio afundado se o tiro o tiver afundado, {@code null} caso contrário
      */
     @Override
-    public IShip fire(IPosition pos) {
-        if (!validShot(pos))
+    public IShip fire(ICoordinate pos) {
+        return fire(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Dispara um tiro na posição (linha, coluna) do tabuleiro adversário.
+     * Para posições dentro do tabuleiro não é criado nenhum objeto:
+     * a posição registada é a instância partilhada de {@link BoardConfig#positionAt(int, int)}.
+     * Com as métricas ativas, o tiro é contabilizado em {@link GameMetrics}; com o
+     * Java Flight Recorder ativo, emite {@link ShotFiredEvent} e {@link ShipSunkEvent}.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return o navio afundado se o tiro o tiver afundado, {@code null} caso contrário
+     */
+    @Override
+    public IShip fire(int row, int column) {
+        ShotFiredEvent event = new ShotFiredEvent();
+        if (!GameMetrics.ENABLED && !event.isEnabled())
+            return shoot(row, column);
+        event.begin();
+        long start = System.nanoTime();
+        int hits = countHits;
+        int invalid = countInvalidShots;
+        int repeated = countRepeatedShots;
+        IShip sunk = shoot(row, column);
+        long latency = System.nanoTime() - start;
+        event.end();
+        ShotResult result = ShotResult.of(sunk, hits, invalid, repeated, this);
+        if (GameMetrics.ENABLED) {
+            GameMetrics.shot(result, latency);
+            if (sunk != null)
+                GameMetrics.sunk(sunk);
+        }
+        if (event.shouldCommit()) {
+            event.row = row;
+            event.column = column;
+            event.placed = true;
+            event.result = result.name();
+            event.commit();
+        }
+        if (sunk != null) {
+            ShipSunkEvent sunkEvent = new ShipSunkEvent();
+            if (sunkEvent.shouldCommit()) {
+                sunkEvent.category = sunk.getCategory();
+                sunkEvent.row = sunk.getPosition().getRow();
+                sunkEvent.column = sunk.getPosition().getColumn();
+                sunkEvent.shotRow = row;
+                sunkEvent.shotColumn = column;
+                sunkEvent.shots = shots.size();
+                sunkEvent.commit();
+            }
+        }
+        return sunk;
+    }
+
+    /**
+     * Dispara, com métricas e eventos, um tiro fora do tabuleiro cujas
+     * coordenadas não são conhecidas, como {@link #fire(int, int)}.
+     *
+     * @return {@code null}, já que o tiro é inválido
+     */
+    private IShip fireUnplaced() {
+        ShotFiredEvent event = new ShotFiredEvent();
+        event.begin();
+        long start = System.nanoTime();
+        countInvalidShots++;
+        recordUnplaced();
+        long latency = System.nanoTime() - start;
+        event.end();
+        if (GameMetrics.ENABLED)
+            GameMetrics.shot(ShotResult.INVALID, latency);
+        if (event.shouldCommit()) {
+            event.result = ShotResult.INVALID.name();
+            event.commit();
+        }
+        return null;
+    }
+
+    /**
+     * Dispara uma sequência de tiros numa única passagem: os contadores são
+     * atualizados no fim, e as posições dos tiros são as instâncias partilhadas
+     * de {@link BoardConfig#positionAt(int)}. Como a célula de um tiro inválido
+     * não guarda as suas coordenadas, estes tiros são gravados sem coordenadas
+     * ({@link GameRecordWriter#unplacedShot()});
+     * {@link #fireAll(int[], int[], int, byte[])} grava-os onde foram disparados.
+     *
+     * @param cells   células dos tiros
+     * @param count   número de tiros
+     * @param results destino do código de {@link ShotResult} de cada tiro
+     */
+    @Override
+    public void fireAll(int[] cells, int count, byte[] results) {
+        shootAll(cells, null, count, results);
+    }
+
+    /**
+     * Dispara uma sequência de tiros como {@link #fireAll(int[], int, byte[])},
+     * gravando os tiros inválidos nas suas coordenadas.
+     *
+     * @param cells       células dos tiros
+     * @param coordinates coordenadas (linha, coluna) de cada tiro, aos pares
+     * @param count       número de tiros
+     * @param results     destino do código de {@link ShotResult} de cada tiro
+     */
+    @Override
+    public void fireAll(int[] cells, int[] coordinates, int count, byte[] results) {
+        if (count > coordinates.length / 2)
+            throw new IllegalArgumentException("ERROR! invalid number of shots");
+        shootAll(cells, coordinates, count, results);
+    }
+
+    /**
+     * Implementação de {@link #fireAll(int[], int[], int, byte[])}.
+     * Com as métricas ou o Java Flight Recorder ativos, os tiros são disparados
+     * um a um por {@link #fire(int, int)}, para serem contabilizados individualmente.
+     *
+     * @param cells       células dos tiros
+     * @param coordinates coordenadas dos tiros, ou {@code null} para gravar os
+     *                    tiros inválidos sem coordenadas
+     * @param count       número de tiros
+     * @param results     destino do código de {@link ShotResult} de cada tiro
+     */
+    private void shootAll(int[] cells, int[] coordinates, int count, byte[] results) {
+        if (count < 0 || count > cells.length || count > results.length)
+            throw new IllegalArgumentException("ERROR! invalid number of shots");
+        if (GameMetrics.ENABLED || new ShotFiredEvent().isEnabled()) {
+            for (int i = 0; i < count; i++) {
+                int hits = countHits;
+                int invalid = countInvalidShots;
+                int repeated = countRepeatedShots;
+                int cell = cells[i];
+                IShip sunk = cell >= 0 && cell < config.getCells()
+                        ? fire(config.rowOf(cell), config.columnOf(cell))
+                        : coordinates != null ? fire(coordinates[2 * i], coordinates[2 * i + 1]) : fireUnplaced();
+                results[i] = (byte) ShotResult.of(sunk, hits, invalid, repeated, this).ordinal();
+            }
+            return;
+        }
+
+        boolean recording = snapshotCount > 0 || recorder != null;
+        int invalid = 0;
+        int repeated = 0;
+        int hits = 0;
+        int sinks = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                int cell = cells[i];
+                byte result;
+                if (cell < 0 || cell >= config.getCells()) {
+                    invalid++;
+                    result = ShotResult.INVALID_CODE;
+                } else if (shotCells.get(cell)) {
+                    repeated++;
+                    result = ShotResult.REPEATED_CODE;
+                } else {
+                    Cell pos = config.positionAt(cell);
+                    shots.add(pos);
+                    shotCells.set(cell);
+                    IShip s = fleet.shipAt(pos.getRow(), pos.getColumn());
+                    if (s == null) {
+                        result = ShotResult.MISS_CODE;
+                    } else {
+                        s.shoot(pos);
+                        hits++;
+                        if (s.stillFloating()) {
+                            result = ShotResult.HIT_CODE;
+                        } else {
+                            sinks++;
+                            result = ShotResult.SUNK_CODE;
+                        }
+                    }
+                }
+                results[i] = result;
+                if (recording) {
+                    if (result == ShotResult.INVALID_CODE && coordinates != null)
+                        record(coordinates[2 * i], coordinates[2 * i + 1], ShotResult.INVALID);
+                    else if (result == ShotResult.INVALID_CODE)
+                        recordUnplaced();
+                    else
+                        record(config.rowOf(cell), config.columnOf(cell), RESULTS[result]);
+                }
+            }
+        } finally {
+            countInvalidShots += invalid;
+            countRepeatedShots += repeated;
+            countHits += hits;
+            countSinks += sinks;
+        }
+    }
+
+    /**
+     * Dispara um tiro, sem métricas nem eventos.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return o navio afundado se o tiro o tiver afundado, {@code null} caso contrário
+     */
+    private IShip shoot(int row, int column) {
+        if (!validShot(row, column)) {
             countInvalidShots++;
-        else {
-            if (repeatedShot(pos))
+            record(row, column, ShotResult.INVALID);
+        } else {
+            if (repeatedShot(row, column)) {
                 countRepeatedShots++;
-            else {
+                record(row, column, ShotResult.REPEATED);
+            } else {
+                Cell pos = config.positionAt(row, column);
                 shots.add(pos);
-                IShip s = fleet.shipAt(pos);
+                shotCells.set(config.cellOf(row, column));
+                IShip s = fleet.shipAt(row, column);
                 if (s != null) {
                     s.shoot(pos);
                     countHits++;
                     if (!s.stillFloating()) {
                         countSinks++;
+                        record(row, column, ShotResult.SUNK);
                         return s;
                     }
+                    record(row, column, ShotResult.HIT);
+                } else {
+                    record(row, column, ShotResult.MISS);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * Passa a gravar este jogo: grava de imediato a frota e, a seguir, cada
+     * tiro disparado com o seu resultado. O fim do jogo ({@link GameRecordWriter#endGame()})
+     * fica a cargo de quem criou o gravador, que pode ser partilhado por vários jogos.
+     * Se a frota não puder ser gravada, o jogo continua com o gravador anterior.
+     *
+     * @param recorder destino dos registos, ou {@code null} para deixar de gravar
+     * @throws IllegalArgumentException se a configuração do gravador não for a
+     *                                  do jogo, já que os tiros são gravados pela
+     *                                  célula do tabuleiro do gravador
+     * @throws UncheckedIOException     se não for possível gravar a frota
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        if (recorder != null) {
+            BoardConfig other = recorder.getBoardConfig();
+            if (other.getRows() != config.getRows() || other.getColumns() != config.getColumns()
+                    || other.getFleetSize() != config.getFleetSize() || !other.getQuotas().equals(config.getQuotas()))
+                throw new IllegalArgumentException("ERROR! recorder board " + other + " is not the game board " + config);
+            try {
+                recorder.fleet(fleet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.recorder = recorder;
+    }
+
+    /**
+     * Regista um tiro no diário, se houver snapshots, e grava-o, se o jogo
+     * estiver a ser gravado.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @param result resultado do tiro
+     * @throws UncheckedIOException se não for possível gravar
+     */
+    private void record(int row, int column, ShotResult result) {
+        if (snapshotCount > 0)
+            journal(result == ShotResult.INVALID ? 0 : config.cellOf(row, column), result);
+        if (recorder == null)
+            return;
+        try {
+            recorder.shot(row, column, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Regista e grava, como {@link #record(int, int, ShotResult)}, um tiro fora
+     * do tabuleiro cujas coordenadas não são conhecidas.
+     *
+     * @throws UncheckedIOException se não for possível gravar
+     */
+    private void recordUnplaced() {
+        if (snapshotCount > 0)
+            journal(0, ShotResult.INVALID);
+        if (recorder == null)
+            return;
+        try {
+            recorder.unplacedShot();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Acrescenta uma entrada ao diário dos tiros.
+     *
+     * @param cell   célula do tiro ({@code 0} para tiros inválidos)
+     * @param result resultado do tiro
+     */
+    private void journal(int cell, ShotResult result) {
+        if (journalSize == journal.length)
+            journal = Arrays.copyOf(journal, journalSize * 2);
+        journal[journalSize++] = cell << 3 | result.ordinal();
+    }
+
+    /**
+     * Marca o estado atual do jogo, para lhe voltar com {@link #restore(int)}.
+     * <p>
+     * O estado dos navios está nas suas posições ({@link Ship}), pelo que não
+     * é copiado: o snapshot é apenas a posição atual no diário de tiros. Cada
+     * tiro disparado enquanto houver snapshots por libertar acrescenta uma
+     * entrada de um {@code int} ao diário, e {@link #restore(int)} desfaz os
+     * tiros por ordem inversa com {@link Ship#unshoot(ICoordinate)}. Por isso,
+     * todos os navios da frota têm de ser {@link Ship}, o que é verificado no
+     * primeiro snapshot.
+     * </p>
+     * <p>
+     * Os snapshots podem ser encaixados (como numa pesquisa em árvore): restaurar
+     * um snapshot invalida os snapshots tirados depois dele com tiros pelo meio,
+     * já que dois snapshots sem tiros entre eles têm a mesma marca e o mesmo
+     * estado. Cada snapshot deve ser
+     * libertado com {@link #release(int)} quando deixar de ser preciso; quando
+     * não houver nenhum por libertar, o diário é esvaziado e os tiros seguintes
+     * deixam de ser registados nele.
+     * </p>
+     *
+     * @return marca do estado atual
+     * @throws IllegalStateException se a frota tiver navios que não sejam {@link Ship}
+     */
+    public int snapshot() {
+        if (journal == null) {
+            for (IShip s : fleet.getShips())
+                if (!(s instanceof Ship))
+                    throw new IllegalStateException("ERROR! snapshots need a fleet of Ship objects: " + s);
+            journal = new int[64];
+            snapshots = new int[8];
+        }
+        if (snapshotCount == snapshots.length)
+            snapshots = Arrays.copyOf(snapshots, snapshotCount * 2);
+        snapshots[snapshotCount++] = journalSize;
+        return journalSize;
+    }
+
+    /**
+     * Repõe o jogo no estado marcado por {@link #snapshot()}, desfazendo os
+     * tiros disparados desde então: contadores, tiros registados, posições
+     * atingidas dos navios e navios afundados. Os snapshots com marcas maiores
+     * deixam de ser válidos; este continua por libertar. Os tiros já
+     * gravados por um {@link GameRecordWriter} não são apagados da gravação.
+     *
+     * @param mark marca devolvida por {@link #snapshot()}
+     * @throws IllegalArgumentException se a marca não corresponder a um snapshot por libertar
+     */
+    public void restore(int mark) {
+        if (!isOpen(mark))
+            throw new IllegalArgumentException("ERROR! invalid snapshot " + mark);
+        while (snapshots[snapshotCount - 1] > mark)
+            snapshotCount--;
+        while (journalSize > mark) {
+            int entry = journal[--journalSize];
+            int cell = entry >>> 3;
+            ShotResult result = RESULTS[entry & 7];
+            if (result == ShotResult.INVALID)
+                countInvalidShots--;
+            else if (result == ShotResult.REPEATED)
+                countRepeatedShots--;
+            else {
+                shots.remove(shots.size() - 1);
+                shotCells.clear(cell);
+                if (result.isHit()) {
+                    // snapshot() verificou que todos os navios são Ship
+                    Cell pos = config.positionAt(cell);
+                    ((Ship) fleet.shipAt(pos)).unshoot(pos);
+                    countHits--;
+                    if (result == ShotResult.SUNK)
+                        countSinks--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Liberta um snapshot e todos os tirados depois dele, que deixam de poder
+     * ser restaurados. Quando não resta nenhum snapshot por libertar, o diário
+     * é esvaziado, pelo que não cresce para além dos tiros disparados durante
+     * os snapshots.
+     *
+     * @param mark marca devolvida por {@link #snapshot()}
+     * @throws IllegalArgumentException se a marca não corresponder a um snapshot por libertar
+     */
+    public void release(int mark) {
+        if (!isOpen(mark))
+            throw new IllegalArgumentException("ERROR! invalid snapshot " + mark);
+        while (snapshotCount > 0 && snapshots[snapshotCount - 1] >= mark) {
+            snapshotCount--;
+            if (snapshots[snapshotCount] == mark)
+                break;
+        }
+        if (snapshotCount == 0)
+            journalSize = 0;
+    }
+
+    /**
+     * Verifica se uma marca corresponde a um snapshot por libertar e ainda válido.
+     *
+     * @param mark marca a verificar
+     * @return {@code true} se o snapshot puder ser restaurado ou libertado
+     */
+    private boolean isOpen(int mark) {
+        if (mark > journalSize)
+            return false;
+        for (int i = snapshotCount - 1; i >= 0 && snapshots[i] >= mark; i--)
+            if (snapshots[i] == mark)
+                return true;
+        return false;
+    }
+
     @Override
-    public List<IPosition> getShots() {
+    public List<ICoordinate> getShots() {
         return shots;
     }
 
@@ -106,52 +554,52 @@ public class Game implements IGame {
         return countSinks;
     }
 
+    @Override
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
     @Override
     public int getRemainingShips() {
-        return fleet.getFloatingShips().size();
+        return fleet.countFloatingShips();
     }
 
     /**
      * Verifica se a posição fornecida é válida, ou seja,
      * se está dentro dos limites do tabuleiro.
      *
-     * @param pos a posição a verificar
+     * @param row    linha a verificar
+     * @param column coluna a verificar
      * @return {@code true} se a posição for válida, {@code false} caso contrário
      */
-    private boolean validShot(IPosition pos) {
-        return (pos.getRow() >= 0 && pos.getRow() < Fleet.BOARD_SIZE
-                && pos.getColumn() >= 0 && pos.getColumn() < Fleet.BOARD_SIZE);
+    private boolean validShot(int row, int column) {
+        return config.isInside(row, column);
     }
 
     /**
      * Verifica se a posição fornecida já foi alvo de um tiro anteriormente.
      *
-     * @param pos a posição a verificar
+     * @param row    linha a verificar
+     * @param column coluna a verificar
      * @return {@code true} se o tiro for repetido, {@code false} caso contrário
      */
-    private boolean repeatedShot(IPosition pos) {
-        return shots.contains(pos);
+    private boolean repeatedShot(int row, int column) {
+        return shotCells.get(config.cellOf(row, column));
     }
 
     /**
-     * Imprime no ecrã um tabuleiro 10x10 marcando as posições fornecidas
+     * Imprime no ecrã o tabuleiro marcando as posições fornecidas
      * com o caráter indicado. As restantes posições são marcadas com '.'.
+     * O tabuleiro é desenhado num buffer reutilizado e escrito de uma só vez.
      *
      * @param positions lista de posições a marcar no tabuleiro
      * @param marker    caráter usado para marcar as posições
      */
-    public void printBoard(List<IPosition> positions, Character marker) {
-        char[][] map = new char[Fleet.BOARD_SIZE][Fleet.BOARD_SIZE];
-        for (int r = 0; r < Fleet.BOARD_SIZE; r++)
-            for (int c = 0; c < Fleet.BOARD_SIZE; c++)
-                map[r][c] = '.';
-        for (IPosition pos : positions)
-            map[pos.getRow()][pos.getColumn()] = marker;
-        for (int row = 0; row < Fleet.BOARD_SIZE; row++) {
-            for (int col = 0; col < Fleet.BOARD_SIZE; col++)
-                System.out.print(map[row][col]);
-            System.out.println();
-        }
+    public void printBoard(List<? extends ICoordinate> positions, Character marker) {
+        BoardRenderer board = renderer();
+        for (ICoordinate pos : positions)
+            board.mark(pos.getRow(), pos.getColumn(), marker);
+        board.print(System.out);
     }
 
     /**
@@ -167,9 +615,24 @@ public class Game implements IGame {
      * marcadas com o caráter '#'.
      */
     public void printFleet() {
-        List<IPosition> shipPositions = new ArrayList<>();
-        for (IShip s : fleet.getShips())
-            shipPositions.addAll(s.getPositions());
-        printBoard(shipPositions, '#');
+        BoardRenderer board = renderer();
+        for (int row = 0; row < config.getRows(); row++)
+            for (int col = 0; col < config.getColumns(); col++) {
+                if (fleet.shipAt(row, col) != null)
+                    board.mark(row, col, '#');
+            }
+        board.print(System.out);
+    }
+
+    /**
+     * Devolve o buffer de desenho do tabuleiro, com todas as células a '.'.
+     *
+     * @return buffer de desenho deste jogo
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(config);
+        renderer.clear();
+        return renderer;
     }
-}
\ No newline at end of file
+}
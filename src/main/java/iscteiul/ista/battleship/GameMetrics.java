@@ -0,0 +1,289 @@
+/**
+ * Métricas agregadas dos jogos e das frotas em curso.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores e histogramas partilhados pelos jogos {@link Game} e pelas
+ * frotas {@link Fleet} e {@link BitboardFleet} da máquina virtual: tiros por
+ * resultado, latência de {@link Game#fire(int, int)}, navios afundados por
+ * categoria e navios colocados ou recusados por motivo. Os tiros dos outros
+ * jogos ({@link BitboardGame}, {@link LayoutGame}, {@link ConcurrentGame})
+ * não são contabilizados.
+ * <p>
+ * As métricas só são recolhidas com a propriedade de sistema
+ * {@code -Dbattleship.metrics=true}. O interruptor é uma constante
+ * ({@link #ENABLED}), pelo que, sem a propriedade, o compilador JIT elimina
+ * as chamadas e o caminho do tiro fica igual ao original. Com a propriedade,
+ * cada tiro custa duas leituras do relógio e alguns incrementos sem locks
+ * ({@link LongAdder} e {@link LogHistogram}).
+ * </p>
+ * <p>
+ * Com as métricas ativas, são publicadas por JMX em {@value #OBJECT_NAME} e
+ * registadas no log a cada {@code battleship.metrics.interval} segundos
+ * (60 por omissão; 0 para não registar).
+ * </p>
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+
+    /** Indica se as métricas são recolhidas. */
+    public static final boolean ENABLED = Boolean.getBoolean("battleship.metrics");
+
+    /** Nome JMX das métricas. */
+    public static final String OBJECT_NAME = "iscteiul.ista.battleship:type=GameMetrics";
+
+    /** Resultados dos tiros, indexados pelo ordinal. */
+    private static final ShotResult[] SHOT_RESULTS = ShotResult.values();
+
+    /** Resultados da colocação de navios, indexados pelo ordinal. */
+    private static final PlacementResult[] PLACEMENT_RESULTS = PlacementResult.values();
+
+    /** Instância única, publicada por JMX. */
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    /** Tiros por resultado, indexados pelo ordinal de {@link ShotResult}. */
+    private final LongAdder[] shots = adders(SHOT_RESULTS.length);
+
+    /** Navios colocados ou recusados, indexados pelo ordinal de {@link PlacementResult}. */
+    private final LongAdder[] placements = adders(PLACEMENT_RESULTS.length);
+
+    /** Navios afundados por tipo de navio ({@link ShapeTable}). */
+    private final LongAdder[] sinks = adders(ShapeTable.KINDS);
+
+    /** Latência dos tiros, em nanossegundos. */
+    private final LogHistogram fireLatency = new LogHistogram();
+
+    static {
+        if (ENABLED)
+            INSTANCE.publish();
+    }
+
+    /**
+     * Construtor privado: as métricas são únicas na máquina virtual.
+     */
+    private GameMetrics() {
+    }
+
+    /**
+     * Devolve as métricas. Sem a propriedade {@code battleship.metrics} estão sempre a zero.
+     *
+     * @return a instância única
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Cria contadores.
+     *
+     * @param count número de contadores
+     * @return os contadores, a zero
+     */
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++)
+            adders[i] = new LongAdder();
+        return adders;
+    }
+
+    /**
+     * Regista as métricas no servidor JMX da plataforma e agenda o registo
+     * periódico no log.
+     */
+    private void publish() {
+        // o log só é carregado com as métricas ativas
+        Logger logger = LogManager.getLogger(GameMetrics.class);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            logger.warn("Não foi possível publicar as métricas por JMX: {}", e.toString());
+        }
+        long interval = Long.getLong("battleship.metrics.interval", 60);
+        if (interval > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "battleship-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> logger.info("Métricas:{}{}", System.lineSeparator(), getReport()),
+                    interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Regista um tiro e a sua latência.
+     *
+     * @param result  resultado do tiro
+     * @param latency duração do tiro, em nanossegundos
+     */
+    static void shot(ShotResult result, long latency) {
+        INSTANCE.shots[result.ordinal()].increment();
+        INSTANCE.fireLatency.record(latency);
+    }
+
+    /**
+     * Regista um navio afundado.
+     *
+     * @param ship navio afundado
+     */
+    static void sunk(IShip ship) {
+        int kind = ShapeTable.kindOf(ship.getCategory());
+        if (kind >= 0)
+            INSTANCE.sinks[kind].increment();
+    }
+
+    /**
+     * Regista uma tentativa de colocar um navio numa frota.
+     *
+     * @param result resultado da colocação
+     */
+    static void placement(PlacementResult result) {
+        INSTANCE.placements[result.ordinal()].increment();
+    }
+
+    /**
+     * Devolve o número de tiros com um dado resultado.
+     *
+     * @param result resultado dos tiros
+     * @return número de tiros
+     */
+    public long getShots(ShotResult result) {
+        return shots[result.ordinal()].sum();
+    }
+
+    /**
+     * Devolve o número de tentativas de colocação com um dado resultado.
+     *
+     * @param result resultado da colocação
+     * @return número de navios
+     */
+    public long getPlacements(PlacementResult result) {
+        return placements[result.ordinal()].sum();
+    }
+
+    @Override
+    public long getShots() {
+        long total = 0;
+        for (LongAdder adder : shots)
+            total += adder.sum();
+        return total;
+    }
+
+    @Override
+    public long getMisses() {
+        return getShots(ShotResult.MISS);
+    }
+
+    @Override
+    public long getHits() {
+        return getShots(ShotResult.HIT) + getShots(ShotResult.SUNK);
+    }
+
+    @Override
+    public long getSinks() {
+        return getShots(ShotResult.SUNK);
+    }
+
+    @Override
+    public long getRepeatedShots() {
+        return getShots(ShotResult.REPEATED);
+    }
+
+    @Override
+    public long getInvalidShots() {
+        return getShots(ShotResult.INVALID);
+    }
+
+    @Override
+    public Map<String, Long> getSinksByCategory() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int kind = 0; kind < ShapeTable.KINDS; kind++)
+            result.put(ShapeTable.categoryOf(kind), sinks[kind].sum());
+        return result;
+    }
+
+    @Override
+    public long getShipsPlaced() {
+        return getPlacements(PlacementResult.ACCEPTED);
+    }
+
+    @Override
+    public Map<String, Long> getPlacementsRejected() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (PlacementResult reason : PLACEMENT_RESULTS)
+            if (!reason.isAccepted())
+                result.put(reason.name(), getPlacements(reason));
+        return result;
+    }
+
+    @Override
+    public double getFireLatencyMean() {
+        return fireLatency.getMean();
+    }
+
+    @Override
+    public long getFireLatencyP50() {
+        return fireLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getFireLatencyP99() {
+        return fireLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getFireLatencyP999() {
+        return fireLatency.getPercentile(99.9);
+    }
+
+    @Override
+    public long getFireLatencyMax() {
+        return fireLatency.getMax();
+    }
+
+    @Override
+    public String getReport() {
+        String newLine = System.lineSeparator();
+        return new StringBuilder()
+                .append("Tiros: ").append(getShots())
+                .append(" (agua ").append(getMisses())
+                .append(", acertos ").append(getHits())
+                .append(", repetidos ").append(getRepeatedShots())
+                .append(", invalidos ").append(getInvalidShots()).append(')').append(newLine)
+                .append("Afundados: ").append(getSinks()).append(' ').append(getSinksByCategory()).append(newLine)
+                .append("Navios colocados: ").append(getShipsPlaced())
+                .append(" recusados: ").append(getPlacementsRejected()).append(newLine)
+                .append("Latencia do tiro (ns): media ").append(Math.round(getFireLatencyMean()))
+                .append(" p50 ").append(getFireLatencyP50())
+                .append(" p99 ").append(getFireLatencyP99())
+                .append(" p99.9 ").append(getFireLatencyP999())
+                .append(" max ").append(getFireLatencyMax()).append(newLine)
+                .toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : shots)
+            adder.reset();
+        for (LongAdder adder : placements)
+            adder.reset();
+        for (LongAdder adder : sinks)
+            adder.reset();
+        fireLatency.reset();
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Interface de gestão das métricas do jogo.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Map;
+
+/**
+ * Métricas agregadas dos jogos {@link Game} e das frotas {@link Fleet} e
+ * {@link BitboardFleet} da máquina virtual, expostas por JMX em
+ * {@value GameMetrics#OBJECT_NAME} quando as métricas estão ativas (ver
+ * {@link GameMetrics}). As latências são em nanossegundos.
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * Devolve o número de tiros disparados.
+     *
+     * @return tiros disparados
+     */
+    long getShots();
+
+    /**
+     * Devolve o número de tiros na água.
+     *
+     * @return tiros na água
+     */
+    long getMisses();
+
+    /**
+     * Devolve o número de tiros que atingiram um navio, afundando-o ou não.
+     *
+     * @return tiros certeiros
+     */
+    long getHits();
+
+    /**
+     * Devolve o número de navios afundados.
+     *
+     * @return navios afundados
+     */
+    long getSinks();
+
+    /**
+     * Devolve o número de tiros repetidos.
+     *
+     * @return tiros repetidos
+     */
+    long getRepeatedShots();
+
+    /**
+     * Devolve o número de tiros fora do tabuleiro.
+     *
+     * @return tiros inválidos
+     */
+    long getInvalidShots();
+
+    /**
+     * Devolve o número de navios afundados por categoria.
+     *
+     * @return navios afundados, indexados pela categoria
+     */
+    Map<String, Long> getSinksByCategory();
+
+    /**
+     * Devolve o número de navios colocados nas frotas.
+     *
+     * @return navios colocados
+     */
+    long getShipsPlaced();
+
+    /**
+     * Devolve o número de navios recusados por cada motivo.
+     *
+     * @return navios recusados, indexados pelo nome de {@link PlacementResult}
+     */
+    Map<String, Long> getPlacementsRejected();
+
+    /**
+     * Devolve a latência média de um tiro.
+     *
+     * @return média, em nanossegundos
+     */
+    double getFireLatencyMean();
+
+    /**
+     * Devolve a mediana da latência de um tiro.
+     *
+     * @return percentil 50, em nanossegundos
+     */
+    long getFireLatencyP50();
+
+    /**
+     * Devolve o percentil 99 da latência de um tiro.
+     *
+     * @return percentil 99, em nanossegundos
+     */
+    long getFireLatencyP99();
+
+    /**
+     * Devolve o percentil 99,9 da latência de um tiro.
+     *
+     * @return percentil 99,9, em nanossegundos
+     */
+    long getFireLatencyP999();
+
+    /**
+     * Devolve a maior latência de um tiro.
+     *
+     * @return máximo, em nanossegundos
+     */
+    long getFireLatencyMax();
+
+    /**
+     * Devolve todas as métricas num texto de várias linhas.
+     *
+     * @return relatório das métricas
+     */
+    String getReport();
+
+    /**
+     * Apaga todas as métricas.
+     */
+    void reset();
+}
@@ -0,0 +1,366 @@
+/**
+ * Leitor sequencial de registos binários de jogos.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lê, registo a registo, o formato gravado por {@link GameRecordWriter}.
+ * <p>
+ * {@link #next()} avança para o registo seguinte e devolve o seu tipo; os
+ * dados do registo corrente ficam disponíveis nos restantes métodos até à
+ * chamada seguinte. Cada instância deve ser usada por uma única thread.
+ * </p>
+ */
+public final class GameRecordReader implements Closeable {
+
+    /** Registo de frota: início de um jogo. */
+    public static final int FLEET = 0;
+
+    /** Registo de tiro. */
+    public static final int SHOT = 1;
+
+    /** Registo de fim de jogo. */
+    public static final int END = 2;
+
+    /** Fim do ficheiro. */
+    public static final int EOF = -1;
+
+    /** Dimensão do buffer interno. */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /** Resultados indexados pelo tipo de registo. */
+    private static final ShotResult[] RESULTS = ShotResult.values();
+
+    /** Orientações indexadas pelo ordinal. */
+    private static final Compass[] BEARINGS = Compass.values();
+
+    /** Fluxo de entrada. */
+    private final InputStream in;
+
+    /** Configuração do tabuleiro gravada no cabeçalho. */
+    private final BoardConfig config;
+
+    /** Bytes lidos e ainda não consumidos, entre {@link #position} e {@link #limit}. */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** Posição do próximo byte a consumir. */
+    private int position;
+
+    /** Fim dos bytes válidos do buffer. */
+    private int limit;
+
+    /** Linha do tiro corrente. */
+    private int row;
+
+    /** Coluna do tiro corrente. */
+    private int column;
+
+    /** Resultado do tiro corrente. */
+    private ShotResult result;
+
+    /** Indica se o tiro corrente tem coordenadas. */
+    private boolean placed;
+
+    /** Número de navios da frota corrente. */
+    private int shipCount;
+
+    /** Tipo de cada navio da frota corrente. */
+    private int[] shipKinds = new int[16];
+
+    /** Orientação de cada navio da frota corrente. */
+    private Compass[] shipBearings = new Compass[16];
+
+    /** Célula da posição de cada navio da frota corrente. */
+    private int[] shipCells = new int[16];
+
+    /**
+     * Cria um leitor e lê o cabeçalho.
+     *
+     * @param in fluxo de entrada
+     * @throws IOException se o cabeçalho não puder ser lido ou não for deste formato
+     */
+    public GameRecordReader(InputStream in) throws IOException {
+        this.in = in;
+        for (byte b : GameRecordWriter.MAGIC)
+            if (readByte() != (b & 0xFF))
+                throw new IOException("ERROR! not a game record");
+        int version = readByte();
+        if (version != GameRecordWriter.VERSION)
+            throw new IOException("ERROR! unsupported game record version " + version);
+        int rows = readVarint();
+        int columns = readVarint();
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IOException("ERROR! corrupted game record: board " + rows + "x" + columns);
+        int fleetSize = readVarint();
+        int quotaCount = readVarint();
+        if (fleetSize < 0 || quotaCount < 0 || quotaCount > ShapeTable.KINDS)
+            throw new IOException("ERROR! corrupted game record: fleet " + fleetSize + " " + quotaCount);
+        Map<String, Integer> quotas = new LinkedHashMap<>();
+        for (int i = 0; i < quotaCount; i++) {
+            int kind = readByte();
+            int quota = readVarint();
+            if (kind >= ShapeTable.KINDS || quota < 0)
+                throw new IOException("ERROR! corrupted game record: quota " + kind + " " + quota);
+            quotas.put(ShapeTable.categoryOf(kind), quota);
+        }
+        this.config = new BoardConfig(rows, columns, fleetSize, quotas);
+    }
+
+    /**
+     * Devolve a configuração do tabuleiro gravada no cabeçalho.
+     *
+     * @return configuração do tabuleiro
+     */
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    /**
+     * Avança para o registo seguinte.
+     *
+     * @return {@link #FLEET}, {@link #SHOT}, {@link #END} ou {@link #EOF}
+     * @throws IOException se não for possível ler ou o registo estiver incompleto ou corrompido
+     */
+    public int next() throws IOException {
+        if (position == limit && !fill())
+            return EOF;
+        int value = readVarint();
+        int tag = value & GameRecordWriter.TAG_MASK;
+        switch (tag) {
+            case GameRecordWriter.TAG_FLEET:
+                readFleet();
+                return FLEET;
+            case GameRecordWriter.TAG_END:
+                return END;
+            case GameRecordWriter.TAG_UNPLACED:
+                result = ShotResult.INVALID;
+                placed = false;
+                return SHOT;
+            default:
+                if (tag >= RESULTS.length)
+                    throw new IOException("ERROR! corrupted game record: tag " + tag);
+                result = RESULTS[tag];
+                placed = true;
+                if (result == ShotResult.INVALID) {
+                    row = unzigzag(readVarint());
+                    column = unzigzag(readVarint());
+                } else {
+                    int cell = value >>> GameRecordWriter.TAG_BITS;
+                    if (cell >= config.getCells())
+                        throw new IOException("ERROR! corrupted game record: cell " + cell);
+                    row = config.rowOf(cell);
+                    column = config.columnOf(cell);
+                }
+                return SHOT;
+        }
+    }
+
+    /**
+     * Lê os navios de um registo de frota.
+     *
+     * @throws IOException se não for possível ler
+     */
+    private void readFleet() throws IOException {
+        shipCount = readVarint();
+        if (shipCount < 0 || shipCount > config.getCells())
+            throw new IOException("ERROR! corrupted game record: " + shipCount + " ships");
+        if (shipCount > shipKinds.length) {
+            shipKinds = new int[shipCount];
+            shipBearings = new Compass[shipCount];
+            shipCells = new int[shipCount];
+        }
+        for (int i = 0; i < shipCount; i++) {
+            int b = readByte();
+            int kind = b >>> GameRecordWriter.TAG_BITS;
+            int bearing = b & GameRecordWriter.TAG_MASK;
+            if (kind >= ShapeTable.KINDS || bearing >= BEARINGS.length)
+                throw new IOException("ERROR! corrupted game record: ship " + b);
+            shipKinds[i] = kind;
+            shipBearings[i] = BEARINGS[bearing];
+            shipCells[i] = readVarint();
+            if (shipCells[i] < 0 || shipCells[i] >= config.getCells())
+                throw new IOException("ERROR! corrupted game record: cell " + shipCells[i]);
+        }
+    }
+
+    /**
+     * Indica se o tiro corrente tem coordenadas. Só os tiros fora do tabuleiro
+     * disparados pela sua célula ({@link GameRecordWriter#unplacedShot()}) não
+     * as têm.
+     *
+     * @return {@code true} se {@link #row()} e {@link #column()} forem conhecidas
+     */
+    public boolean isPlaced() {
+        return placed;
+    }
+
+    /**
+     * Devolve a linha do tiro corrente.
+     *
+     * @return linha
+     * @throws IllegalStateException se o tiro não tiver coordenadas
+     */
+    public int row() {
+        if (!placed)
+            throw new IllegalStateException("ERROR! shot without coordinates");
+        return row;
+    }
+
+    /**
+     * Devolve a coluna do tiro corrente.
+     *
+     * @return coluna
+     * @throws IllegalStateException se o tiro não tiver coordenadas
+     */
+    public int column() {
+        if (!placed)
+            throw new IllegalStateException("ERROR! shot without coordinates");
+        return column;
+    }
+
+    /**
+     * Devolve o resultado do tiro corrente.
+     *
+     * @return resultado
+     */
+    public ShotResult result() {
+        return result;
+    }
+
+    /**
+     * Devolve o número de navios da frota corrente.
+     *
+     * @return número de navios
+     */
+    public int shipCount() {
+        return shipCount;
+    }
+
+    /**
+     * Devolve o tipo de um navio da frota corrente.
+     *
+     * @param i índice do navio
+     * @return índice do tipo ({@link ShapeTable})
+     */
+    public int shipKind(int i) {
+        return shipKinds[i];
+    }
+
+    /**
+     * Devolve a orientação de um navio da frota corrente.
+     *
+     * @param i índice do navio
+     * @return orientação
+     */
+    public Compass shipBearing(int i) {
+        return shipBearings[i];
+    }
+
+    /**
+     * Devolve a linha da posição de um navio da frota corrente.
+     *
+     * @param i índice do navio
+     * @return linha
+     */
+    public int shipRow(int i) {
+        return config.rowOf(shipCells[i]);
+    }
+
+    /**
+     * Devolve a coluna da posição de um navio da frota corrente.
+     *
+     * @param i índice do navio
+     * @return coluna
+     */
+    public int shipColumn(int i) {
+        return config.columnOf(shipCells[i]);
+    }
+
+    /**
+     * Reconstrói a frota corrente com objetos {@link Fleet} e {@link Ship}.
+     *
+     * @return nova frota com os navios do registo
+     * @throws IOException se algum navio do registo não puder ser colocado na frota
+     */
+    public Fleet buildFleet() throws IOException {
+        Fleet fleet = new Fleet(config);
+        for (int i = 0; i < shipCount; i++) {
+            Ship s = Ship.buildShip(shipKinds[i], shipBearings[i], new Position(shipRow(i), shipColumn(i)));
+            if (!fleet.addShip(s))
+                throw new IOException("ERROR! corrupted game record: ship " + s + " rejected");
+        }
+        return fleet;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Descodifica um inteiro gravado com {@link GameRecordWriter#zigzag(int)}.
+     *
+     * @param value valor codificado
+     * @return valor original
+     */
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Lê um inteiro sem sinal em varint.
+     *
+     * @return valor lido
+     * @throws IOException se não for possível ler ou o valor exceder 32 bits
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("ERROR! corrupted game record: varint too long");
+    }
+
+    /**
+     * Lê um byte.
+     *
+     * @return o byte, entre 0 e 255
+     * @throws IOException se não for possível ler ou o ficheiro terminar
+     */
+    private int readByte() throws IOException {
+        if (position == limit && !fill())
+            throw new EOFException("ERROR! truncated game record");
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Enche o buffer com mais bytes do fluxo de entrada.
+     *
+     * @return {@code false} no fim do fluxo
+     * @throws IOException se não for possível ler
+     */
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0)
+            return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Escritor sequencial de registos binários de jogos.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Grava frotas e sequências de tiros num formato binário compacto, lido por
+ * {@link GameRecordReader}.
+ * <p>
+ * O ficheiro começa pelos bytes {@code "BSGR"}, a versão do formato e a
+ * configuração do tabuleiro: linhas, colunas, limite de navios da frota e
+ * número de limites por categoria em varint, seguidos, por limite, de um byte
+ * com o tipo ({@link ShapeTable}) e do número máximo de navios em varint.
+ * Segue-se uma sequência de registos, cada um iniciado
+ * por um inteiro sem sinal em formato varint (7 bits por byte) cujos 3 bits
+ * mais baixos indicam o tipo de registo:
+ * </p>
+ * <ul>
+ *     <li>0 a 3 ({@link ShotResult#MISS}, {@link ShotResult#HIT},
+ *     {@link ShotResult#SUNK}, {@link ShotResult#REPEATED}): um tiro dentro do
+ *     tabuleiro, com a célula nos restantes bits; no tabuleiro 10x10 as
+ *     primeiras 16 células ocupam 1 byte e as restantes 2;</li>
+ *     <li>4 ({@link ShotResult#INVALID}): um tiro fora do tabuleiro, seguido da
+ *     linha e da coluna em varint com codificação zigzag;</li>
+ *     <li>5: um tiro fora do tabuleiro sem coordenadas, disparado pela sua
+ *     célula ({@link IGame#fireAll(int[], int, byte[])});</li>
+ *     <li>6: fim de um jogo;</li>
+ *     <li>7: início de um jogo, seguido do número de navios e, por navio, de um
+ *     byte com o tipo ({@link ShapeTable}) e a orientação e da célula da sua
+ *     posição em varint. Uma barca sem orientação é gravada virada a norte,
+ *     a forma que {@link Barge} lhe dá.</li>
+ * </ul>
+ * <p>
+ * A escrita é feita num buffer interno, despejado no fluxo de saída quando
+ * enche, em {@link #flush()} e em {@link #close()}. Cada instância deve ser
+ * usada por uma única thread.
+ * </p>
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+
+    /** Identificação do formato. */
+    static final byte[] MAGIC = {'B', 'S', 'G', 'R'};
+
+    /** Versão do formato. */
+    static final int VERSION = 2;
+
+    /** Número de bits do tipo de registo. */
+    static final int TAG_BITS = 3;
+
+    /** Máscara do tipo de registo. */
+    static final int TAG_MASK = (1 << TAG_BITS) - 1;
+
+    /** Tipo do registo de um tiro fora do tabuleiro sem coordenadas. */
+    static final int TAG_UNPLACED = 5;
+
+    /** Tipo do registo de fim de jogo. */
+    static final int TAG_END = 6;
+
+    /** Tipo do registo de frota (início de jogo). */
+    static final int TAG_FLEET = 7;
+
+    /** Dimensão do buffer interno. */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /** Fluxo de saída. */
+    private final OutputStream out;
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Bytes ainda não despejados. */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** Número de bytes em {@link #buffer}. */
+    private int count;
+
+    /**
+     * Cria um escritor e grava o cabeçalho.
+     *
+     * Os limites de categorias que não são tipos de {@link ShapeTable} não são
+     * gravados, já que nenhum navio dessas categorias pode ser gravado.
+     *
+     * @param out    fluxo de saída
+     * @param config configuração do tabuleiro
+     * @throws IOException se não for possível escrever
+     */
+    public GameRecordWriter(OutputStream out, BoardConfig config) throws IOException {
+        this.out = out;
+        this.config = config;
+        for (byte b : MAGIC)
+            writeByte(b);
+        writeByte(VERSION);
+        writeVarint(config.getRows());
+        writeVarint(config.getColumns());
+        writeVarint(config.getFleetSize());
+        Map<String, Integer> quotas = config.getQuotas();
+        int known = 0;
+        for (String category : quotas.keySet())
+            if (ShapeTable.kindOf(category) >= 0)
+                known++;
+        writeVarint(known);
+        for (Map.Entry<String, Integer> quota : quotas.entrySet()) {
+            int kind = ShapeTable.kindOf(quota.getKey());
+            if (kind >= 0) {
+                writeByte(kind);
+                writeVarint(quota.getValue());
+            }
+        }
+    }
+
+    /**
+     * Devolve a configuração do tabuleiro.
+     *
+     * @return configuração do tabuleiro
+     */
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    /**
+     * Grava o início de um jogo com a frota indicada.
+     *
+     * @param fleet frota do jogo
+     * @throws IOException              se não for possível escrever
+     * @throws IllegalArgumentException se a frota tiver navios de categoria
+     *                                  desconhecida ou, exceto barcas, sem orientação;
+     *                                  nesse caso nada é gravado
+     */
+    public void fleet(IFleet fleet) throws IOException {
+        for (IShip s : fleet.getShips()) {
+            int kind = ShapeTable.kindOf(s.getCategory());
+            if (kind < 0)
+                throw new IllegalArgumentException("ERROR! unknown ship category " + s.getCategory());
+            if (s.getBearing() == null && kind != ShapeTable.BARCA)
+                throw new IllegalArgumentException("ERROR! ship without bearing " + s.getCategory());
+        }
+        writeVarint(TAG_FLEET);
+        writeVarint(fleet.getShips().size());
+        for (IShip s : fleet.getShips()) {
+            Compass bearing = s.getBearing() == null ? Compass.NORTH : s.getBearing();
+            writeByte(ShapeTable.kindOf(s.getCategory()) << TAG_BITS | bearing.ordinal());
+            writeVarint(config.cellOf(s.getPosition().getRow(), s.getPosition().getColumn()));
+        }
+    }
+
+    /**
+     * Grava um tiro.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @param result resultado do tiro
+     * @throws IOException se não for possível escrever
+     */
+    public void shot(int row, int column, ShotResult result) throws IOException {
+        if (result == ShotResult.INVALID) {
+            writeVarint(result.ordinal());
+            writeVarint(zigzag(row));
+            writeVarint(zigzag(column));
+        } else {
+            writeVarint(config.cellOf(row, column) << TAG_BITS | result.ordinal());
+        }
+    }
+
+    /**
+     * Grava um tiro fora do tabuleiro cujas coordenadas não são conhecidas,
+     * por ter sido disparado apenas pela sua célula.
+     *
+     * @throws IOException se não for possível escrever
+     */
+    public void unplacedShot() throws IOException {
+        writeVarint(TAG_UNPLACED);
+    }
+
+    /**
+     * Grava o fim do jogo corrente.
+     *
+     * @throws IOException se não for possível escrever
+     */
+    public void endGame() throws IOException {
+        writeVarint(TAG_END);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Codifica um inteiro com sinal de forma a que valores pequenos em valor
+     * absoluto ocupem poucos bytes em varint.
+     *
+     * @param value valor a codificar
+     * @return valor codificado, sem sinal
+     */
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Escreve um inteiro sem sinal em varint: 7 bits por byte, do menos para
+     * o mais significativo, com o bit mais alto a indicar que há mais bytes.
+     *
+     * @param value valor a escrever (interpretado sem sinal)
+     * @throws IOException se não for possível escrever
+     */
+    private void writeVarint(int value) throws IOException {
+        if (count + 5 > buffer.length)
+            drain();
+        while ((value & ~0x7F) != 0) {
+            buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    /**
+     * Escreve um byte.
+     *
+     * @param value byte a escrever
+     * @throws IOException se não for possível escrever
+     */
+    private void writeByte(int value) throws IOException {
+        if (count == buffer.length)
+            drain();
+        buffer[count++] = (byte) value;
+    }
+
+    /**
+     * Despeja o buffer no fluxo de saída.
+     *
+     * @throws IOException se não for possível escrever
+     */
+    private void drain() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+}
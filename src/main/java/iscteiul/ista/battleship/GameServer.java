@@ -0,0 +1,235 @@
+/**
+ * Servidor TCP embebido para vários jogos em simultâneo.
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor em que cada cliente TCP tem a sua própria sessão de jogo
+ * ({@link GameSession}), com a gramática de comandos de {@link Tasks#taskD()}.
+ * <p>
+ * Cada sessão corre na sua própria thread e usa E/S bloqueante simples. Se a
+ * máquina virtual suportar threads virtuais (Java 21 ou posterior), cada sessão
+ * corre numa thread virtual, pelo que uma sessão inativa ocupa apenas a sua
+ * pilha, a ligação, um buffer de leitura de {@value GameSession#BUFFER_SIZE}
+ * bytes e, depois do primeiro {@code nova}, a sua frota e o seu jogo. Caso
+ * contrário, as sessões correm num conjunto de threads de plataforma criadas
+ * a pedido, com pilhas pequenas, o que limita o número de sessões simultâneas
+ * ao número de threads que o sistema operativo permite.
+ * </p>
+ */
+public class GameServer implements Closeable {
+
+    /** Logger utilizado para registo de informação */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** Número máximo de ligações à espera de serem aceites. */
+    private static final int BACKLOG = 1024;
+
+    /** Dimensão da pilha pedida para as threads de plataforma das sessões. */
+    private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+    /** Socket de escuta. */
+    private final ServerSocket server;
+
+    /** Executor das sessões: uma thread (virtual, se possível) por sessão. */
+    private final ExecutorService sessions;
+
+    /** Indica se as sessões correm em threads virtuais. */
+    private final boolean virtualThreads;
+
+    /** Ligações abertas, fechadas em {@link #close()}. */
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+    /** Thread que aceita as ligações. */
+    private final Thread acceptor;
+
+    /**
+     * Cria um servidor à escuta em todas as interfaces, na porta indicada.
+     * As ligações só são aceites depois de {@link #start()}.
+     *
+     * @param port porta, ou {@code 0} para uma porta livre qualquer
+     * @throws IOException se não for possível abrir a porta
+     */
+    public GameServer(int port) throws IOException {
+        this(new InetSocketAddress(port));
+    }
+
+    /**
+     * Cria um servidor à escuta no endereço indicado.
+     * As ligações só são aceites depois de {@link #start()}.
+     *
+     * @param address endereço e porta de escuta
+     * @throws IOException se não for possível abrir a porta
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        server = new ServerSocket();
+        server.bind(address, BACKLOG);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        sessions = virtualThreads ? virtual : Executors.newCachedThreadPool(new SessionThreads());
+        acceptor = new Thread(this::accept, "battleship-accept");
+    }
+
+    /**
+     * Cria, se a máquina virtual o permitir, um executor com uma thread
+     * virtual por tarefa ({@code Executors.newVirtualThreadPerTaskExecutor()},
+     * obtido por reflexão para o código continuar a compilar para Java 17).
+     *
+     * @return o executor, ou {@code null} se não houver threads virtuais
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Começa a aceitar ligações.
+     */
+    public void start() {
+        acceptor.start();
+        LOGGER.info("Servidor a escutar na porta {} ({})", getPort(),
+                virtualThreads ? "threads virtuais" : "threads de plataforma");
+    }
+
+    /**
+     * Devolve a porta de escuta.
+     *
+     * @return porta local
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Indica se as sessões correm em threads virtuais.
+     *
+     * @return {@code true} se houver uma thread virtual por sessão
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Devolve o número de ligações abertas.
+     *
+     * @return número de sessões em curso
+     */
+    public int getSessionCount() {
+        return clients.size();
+    }
+
+    /**
+     * Espera que o servidor seja fechado.
+     *
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Aceita ligações até o socket de escuta ser fechado, entregando cada uma
+     * a uma nova sessão.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (!server.isClosed())
+                    LOGGER.warn("Falha ao aceitar ligação: {}", e.toString());
+                continue;
+            }
+            clients.add(socket);
+            try {
+                sessions.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                disconnect(socket);
+            }
+        }
+    }
+
+    /**
+     * Corre a sessão de um cliente e fecha a ligação no fim.
+     *
+     * @param socket ligação do cliente
+     */
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            new GameSession().run(new TokenReader(socket.getInputStream(), GameSession.BUFFER_SIZE),
+                    socket.getOutputStream());
+        } catch (IOException | RuntimeException e) {
+            if (!server.isClosed())
+                LOGGER.debug("Sessão {} terminada: {}", socket.getRemoteSocketAddress(), e.toString());
+        } finally {
+            disconnect(socket);
+        }
+    }
+
+    /**
+     * Fecha a ligação de um cliente.
+     *
+     * @param socket ligação do cliente
+     */
+    private void disconnect(Socket socket) {
+        clients.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // a ligação já estava fechada
+        }
+    }
+
+    /**
+     * Deixa de aceitar ligações e fecha todas as sessões em curso.
+     *
+     * @throws IOException se não for possível fechar o socket de escuta
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        sessions.shutdownNow();
+        for (Socket socket : clients)
+            disconnect(socket);
+    }
+
+    /**
+     * Fábrica das threads de plataforma das sessões, usada quando não há
+     * threads virtuais: threads daemon, numeradas, com pilhas pequenas.
+     */
+    private static class SessionThreads implements ThreadFactory {
+
+        /** Número da próxima thread. */
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(null, task, "battleship-session-" + next.incrementAndGet(), PLATFORM_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
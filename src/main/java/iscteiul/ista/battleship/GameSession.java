@@ -0,0 +1,225 @@
+/**
+ * Sessão de jogo de um cliente ligado ao servidor.
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Interpreta os comandos de um cliente com a gramática de {@link Tasks#taskD()}
+ * e envia as respostas, em texto, para o fluxo de saída do cliente.
+ * <p>
+ * As mensagens são as que a tarefa D regista no log, sem o prefixo do log;
+ * os tabuleiros e o estado da frota são os que a tarefa D imprime na consola.
+ * A resposta a cada comando é preparada num buffer da sessão e enviada numa
+ * única escrita. A frota e o jogo só são criados no primeiro {@code nova}, pelo
+ * que uma sessão inativa ocupa pouca memória.
+ * </p>
+ */
+final class GameSession {
+
+    /** Dimensão do buffer de leitura dos comandos. */
+    static final int BUFFER_SIZE = 512;
+
+    /** Resposta a um comando desconhecido. */
+    static final String UNKNOWN_COMMAND = "Que comando é esse??? Repete ...";
+
+    /** Resposta quando falta um número num comando; a sessão termina. */
+    static final String NUMBER_EXPECTED = "ERRO numero esperado";
+
+    /** Resposta ao comando corrente. */
+    private final StringBuilder reply = new StringBuilder();
+
+    /** Frota do jogo corrente, ou {@code null} antes do primeiro {@code nova}. */
+    private Fleet fleet;
+
+    /** Jogo corrente, ou {@code null} antes do primeiro {@code nova}. */
+    private Game game;
+
+    /** Buffer de desenho do tabuleiro, criado no primeiro desenho. */
+    private BoardRenderer renderer;
+
+    /** Células dos tiros da rajada corrente. */
+    private final int[] cells = new int[Tasks.NUMBER_SHOTS];
+
+    /** Coordenadas dos tiros da rajada corrente, aos pares (linha, coluna). */
+    private final int[] coordinates = new int[2 * Tasks.NUMBER_SHOTS];
+
+    /** Resultados dos tiros da rajada corrente. */
+    private final byte[] results = new byte[Tasks.NUMBER_SHOTS];
+
+    /**
+     * Interpreta comandos até {@code desisto} ou até o cliente fechar a ligação,
+     * enviando a resposta a cada comando numa única escrita.
+     *
+     * @param in  leitor dos comandos do cliente
+     * @param out fluxo de saída do cliente
+     * @throws IOException se não for possível responder ao cliente
+     */
+    void run(TokenReader in, OutputStream out) throws IOException {
+        try {
+            while (in.hasNext()) {
+                boolean more = execute(in.next(), in);
+                send(out);
+                if (!more)
+                    return;
+            }
+        } catch (InputMismatchException e) {
+            reply.setLength(0);
+            line(NUMBER_EXPECTED);
+            send(out);
+        } catch (NoSuchElementException e) {
+            // o cliente fechou a ligação a meio de um comando
+        }
+    }
+
+    /**
+     * Executa um comando, acrescentando a sua resposta a {@link #reply()}.
+     *
+     * @param command palavra do comando
+     * @param in      leitor dos argumentos do comando
+     * @return {@code false} se a sessão deve terminar
+     * @throws NoSuchElementException se os argumentos do comando terminarem a meio
+     * @throws InputMismatchException se faltar um número num argumento
+     */
+    boolean execute(String command, TokenReader in) {
+        switch (command) {
+            case Tasks.NOVAFROTA:
+                newFleet(Tasks.buildFleet(in, false));
+                break;
+            case Tasks.STATUS:
+                if (fleet != null)
+                    fleet.appendStatus(reply);
+                break;
+            case Tasks.BATOTA:
+                if (game != null) {
+                    BoardRenderer board = renderer();
+                    for (int row = 0; row < fleet.getBoardConfig().getRows(); row++)
+                        for (int col = 0; col < fleet.getBoardConfig().getColumns(); col++)
+                            if (fleet.shipAt(row, col) != null)
+                                board.mark(row, col, '#');
+                    board.appendTo(reply);
+                }
+                break;
+            case Tasks.RAJADA:
+                if (game != null)
+                    volley(in);
+                break;
+            case Tasks.VERTIROS:
+                if (game != null) {
+                    BoardRenderer board = renderer();
+                    for (ICoordinate pos : game.getShots())
+                        board.mark(pos.getRow(), pos.getColumn(), 'X');
+                    board.appendTo(reply);
+                }
+                break;
+            case Tasks.DESISTIR:
+                line(Tasks.GOODBYE_MESSAGE);
+                return false;
+            default:
+                line(UNKNOWN_COMMAND);
+        }
+        return true;
+    }
+
+    /**
+     * Começa um jogo novo com a frota lida pelo comando {@code nova}.
+     *
+     * @param fleet frota completa
+     */
+    void newFleet(Fleet fleet) {
+        this.fleet = fleet;
+        game = new Game(fleet);
+        line(fleet.getShips().size() + " navios adicionados com sucesso!");
+    }
+
+    /**
+     * Dispara uma rajada e responde com os navios afundados e os contadores.
+     *
+     * @param in leitor das coordenadas dos tiros
+     */
+    private void volley(TokenReader in) {
+        Tasks.firingRound(in, game, cells, coordinates, results);
+        BoardConfig config = fleet.getBoardConfig();
+        for (int i = 0; i < Tasks.NUMBER_SHOTS; i++)
+            if (results[i] == ShotResult.SUNK_CODE)
+                line("Mas... mas... " + fleet.shipAt(config.rowOf(cells[i]), config.columnOf(cells[i])).getCategory()
+                        + "s nao sao a prova de bala? :-(");
+        reply.append("Hits: ").append(game.getHits())
+                .append(" Inv: ").append(game.getInvalidShots())
+                .append(" Rep: ").append(game.getRepeatedShots())
+                .append(" Restam ").append(game.getRemainingShips()).append(" navios.")
+                .append(System.lineSeparator());
+        if (game.getRemainingShips() == 0)
+            line("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...");
+    }
+
+    /**
+     * Devolve o jogo corrente.
+     *
+     * @return o jogo, ou {@code null} antes do primeiro {@code nova}
+     */
+    Game getGame() {
+        return game;
+    }
+
+    /**
+     * Devolve a frota do jogo corrente.
+     *
+     * @return a frota, ou {@code null} antes do primeiro {@code nova}
+     */
+    Fleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Devolve o buffer da resposta ao comando corrente. Depois de enviada, a
+     * resposta deve ser apagada ({@code setLength(0)}).
+     *
+     * @return buffer da resposta
+     */
+    StringBuilder reply() {
+        return reply;
+    }
+
+    /**
+     * Acrescenta uma linha à resposta.
+     *
+     * @param text texto da linha
+     */
+    private void line(String text) {
+        reply.append(text).append(System.lineSeparator());
+    }
+
+    /**
+     * Envia a resposta preparada numa única escrita.
+     *
+     * @param out fluxo de saída do cliente
+     * @throws IOException se não for possível escrever
+     */
+    private void send(OutputStream out) throws IOException {
+        if (reply.length() == 0)
+            return;
+        out.write(reply.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        reply.setLength(0);
+    }
+
+    /**
+     * Devolve o buffer de desenho do tabuleiro, com todas as células a '.'.
+     *
+     * @return buffer de desenho desta sessão
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(fleet.getBoardConfig());
+        renderer.clear();
+        return renderer;
+    }
+}
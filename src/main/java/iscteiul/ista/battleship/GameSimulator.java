@@ -0,0 +1,179 @@
+/**
+ * Simulador de jogos completos, sem consola, para estudos de Monte Carlo.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+
+/**
+ * Joga N partidas completas em paralelo: para cada partida é gerada uma frota
+ * aleatória ({@link RandomFleetGenerator}) e um jogador automático
+ * ({@link IShooter}) dispara sobre ela através de {@link Game#fire(ICoordinate)}
+ * até afundar todos os navios ou esgotar o limite de tiros.
+ * <p>
+ * As partidas são repartidas por um {@link ForkJoinPool}. Cada partida usa um
+ * gerador de números aleatórios derivado apenas da semente global e do seu
+ * índice, pelo que os resultados são reprodutíveis independentemente do
+ * número de threads.
+ * </p>
+ */
+public class GameSimulator {
+
+    /** Número de partidas a partir do qual uma tarefa é dividida em duas. */
+    private static final int THRESHOLD = 256;
+
+    /** Colocações legais do tabuleiro, partilhadas por todas as partidas. */
+    private final PlacementTable table;
+
+    /** Composição da frota (navios por categoria). */
+    private final Map<String, Integer> composition;
+
+    /** Fábrica de jogadores: recebe o tabuleiro e o gerador de números aleatórios da partida. */
+    private final BiFunction<BoardConfig, SplittableRandom, IShooter> shooters;
+
+    /** Número máximo de tiros por partida. */
+    private final int maxShots;
+
+    /**
+     * Cria um simulador para o tabuleiro e a composição da configuração indicada.
+     * O limite de tiros por partida é o número de células do tabuleiro.
+     *
+     * @param config   dimensões do tabuleiro e composição da frota (os limites por
+     *                 categoria, ex: {@link BoardConfig#STANDARD})
+     * @param shooters fábrica de jogadores (ex: {@code RandomShooter::new})
+     */
+    public GameSimulator(BoardConfig config, BiFunction<BoardConfig, SplittableRandom, IShooter> shooters) {
+        this(new PlacementTable(config), config.getQuotas(), shooters, config.getCells());
+    }
+
+    /**
+     * Cria um simulador.
+     *
+     * @param table       colocações legais do tabuleiro
+     * @param composition número de navios de cada categoria
+     * @param shooters    fábrica de jogadores
+     * @param maxShots    número máximo de tiros por partida
+     */
+    public GameSimulator(PlacementTable table, Map<String, Integer> composition,
+                         BiFunction<BoardConfig, SplittableRandom, IShooter> shooters, int maxShots) {
+        this.table = table;
+        this.composition = composition;
+        this.shooters = shooters;
+        this.maxShots = maxShots;
+    }
+
+    /**
+     * Joga as partidas no {@link ForkJoinPool#commonPool()}.
+     *
+     * @param games número de partidas
+     * @param seed  semente global
+     * @return estatísticas agregadas
+     */
+    public SimulationResult run(long games, long seed) {
+        return run(games, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Joga as partidas no {@link ForkJoinPool} indicado.
+     *
+     * @param games número de partidas
+     * @param seed  semente global
+     * @param pool  conjunto de threads onde correm as partidas
+     * @return estatísticas agregadas
+     */
+    public SimulationResult run(long games, long seed, ForkJoinPool pool) {
+        return pool.invoke(new Batch(0, games, seed));
+    }
+
+    /**
+     * Joga uma partida e regista-a no resultado indicado.
+     *
+     * @param index  índice da partida
+     * @param seed   semente global
+     * @param result resultado onde a partida é registada
+     */
+    void play(long index, long seed, SimulationResult result) {
+        SplittableRandom random = new SplittableRandom(mix64(seed + index * 0x9E3779B97F4A7C15L));
+        Fleet fleet = new RandomFleetGenerator(table, composition, random).nextFleet();
+        Game game = new Game(fleet);
+        IShooter shooter = shooters.apply(table.getBoardConfig(), random.split());
+
+        int fired = 0;
+        while (fleet.countFloatingShips() > 0 && fired < maxShots) {
+            ICoordinate shot = shooter.nextShot();
+            int hits = game.getHits();
+            int repeated = game.getRepeatedShots();
+            int invalid = game.getInvalidShots();
+            IShip sunk = game.fire(shot);
+            fired++;
+            shooter.shotResult(shot, ShotResult.of(sunk, hits, invalid, repeated, game), sunk);
+        }
+        result.record(game, fired);
+    }
+
+    /**
+     * Função de mistura de 64 bits (finalizador do MurmurHash3), usada para
+     * obter sementes independentes a partir da semente global e do índice da partida.
+     *
+     * @param z valor a misturar
+     * @return valor misturado
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Tarefa que joga as partidas com índices em {@code [from, to)},
+     * dividindo-se em duas enquanto tiver mais de {@link #THRESHOLD} partidas.
+     */
+    private class Batch extends RecursiveTask<SimulationResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Índice da primeira partida. */
+        private final long from;
+
+        /** Índice seguinte ao da última partida. */
+        private final long to;
+
+        /** Semente global. */
+        private final long seed;
+
+        /**
+         * Cria a tarefa para as partidas {@code [from, to)}.
+         *
+         * @param from índice da primeira partida
+         * @param to   índice seguinte ao da última partida
+         * @param seed semente global
+         */
+        Batch(long from, long to, long seed) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from <= THRESHOLD) {
+                SimulationResult result = new SimulationResult(maxShots);
+                for (long i = from; i < to; i++)
+                    play(i, seed, result);
+                return result;
+            }
+            long middle = (from + to) >>> 1;
+            Batch left = new Batch(from, middle, seed);
+            left.fork();
+            SimulationResult right = new Batch(middle, to, seed).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Interface que define as coordenadas de uma célula do tabuleiro
+ * do jogo de Batalha Naval, apenas para leitura.
+ * Serve para identificar uma célula (por exemplo, o alvo de um tiro)
+ * sem qualquer estado associado.
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+public interface ICoordinate {
+
+    /**
+     * Devolve o índice da linha desta posição no tabuleiro.
+     *
+     * @return índice da linha, entre 0 e {@code BOARD_SIZE - 1}
+     */
+    int getRow();
+
+    /**
+     * Devolve o índice da coluna desta posição no tabuleiro.
+     *
+     * @return índice da coluna, entre 0 e {@code BOARD_SIZE - 1}
+     */
+    int getColumn();
+}
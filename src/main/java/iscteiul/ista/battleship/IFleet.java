@@ -12,12 +12,19 @@ import java.util.List;
 
 public interface IFleet {
 
-    /** Dimensão do tabuleiro de jogo (10x10). */
+    /** Dimensão do tabuleiro de jogo por omissão (10x10), ver {@link BoardConfig#DEFAULT}. */
     Integer BOARD_SIZE = 10;
 
-    /** Número total de navios que compõem a frota. */
+    /** Número total de navios que compõem a frota por omissão, ver {@link BoardConfig#DEFAULT}. */
     Integer FLEET_SIZE = 10;
 
+    /**
+     * Devolve a configuração do tabuleiro (dimensões e composição) usada pela frota.
+     *
+     * @return configuração do tabuleiro
+     */
+    BoardConfig getBoardConfig();
+
     /**
      * Devolve a lista de todos os navios da frota.
      *
@@ -50,13 +57,30 @@ public interface IFleet {
      */
     List<IShip> getFloatingShips();
 
+    /**
+     * Devolve o número de navios da frota que ainda não foram afundados,
+     * sem construir nenhuma lista.
+     *
+     * @return número de navios ainda a flutuar
+     */
+    int countFloatingShips();
+
     /**
      * Devolve o navio que ocupa a posição indicada no tabuleiro.
      *
      * @param pos a posição a verificar
      * @return o navio que ocupa a posição, ou {@code null} se a posição estiver vazia
      */
-    IShip shipAt(IPosition pos);
+    IShip shipAt(ICoordinate pos);
+
+    /**
+     * Devolve o navio que ocupa a posição (linha, coluna) do tabuleiro.
+     *
+     * @param row    linha a verificar
+     * @param column coluna a verificar
+     * @return o navio que ocupa a posição, ou {@code null} se a posição estiver vazia
+     */
+    IShip shipAt(int row, int column);
 
     /**
      * Imprime no ecrã o estado atual da frota, indicando para cada navio
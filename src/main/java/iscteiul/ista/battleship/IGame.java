@@ -18,14 +18,85 @@ public interface IGame {
      * @return o navio atingido se houver acerto, {@code null} se for água,
      *         tiro repetido ou posição inválida
      */
-    IShip fire(IPosition pos);
+    IShip fire(ICoordinate pos);
+
+    /**
+     * Dispara um tiro na posição (linha, coluna) do tabuleiro adversário,
+     * sem necessidade de criar um objeto {@link IPosition}.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return o navio afundado se o tiro o tiver afundado, {@code null} caso contrário
+     */
+    IShip fire(int row, int column);
+
+    /**
+     * Dispara uma sequência de tiros, pela ordem indicada, com o mesmo efeito
+     * que chamadas sucessivas a {@link #fire(int, int)}. Cada tiro é dado pelo
+     * identificador da célula ({@link BoardConfig#cellOf(int, int)}); uma célula
+     * fora de [0, {@link BoardConfig#getCells()}) é um tiro inválido (ver
+     * {@link BoardConfig#targetCell(int, int)}). Os contadores do jogo são
+     * atualizados uma única vez, no fim da sequência. Como a célula de um tiro
+     * inválido não guarda as suas coordenadas, os jogos que gravam os tiros
+     * gravam-no sem coordenadas; para o gravar onde foi disparado, use
+     * {@link #fireAll(int[], int[], int, byte[])}.
+     *
+     * @param cells   células dos tiros
+     * @param count   número de tiros, os primeiros de {@code cells}
+     * @param results destino do resultado de cada tiro: o código de {@link ShotResult}
+     *                ({@link ShotResult#MISS_CODE}, ...), igual ao seu ordinal
+     * @throws IllegalArgumentException se {@code count} for negativo ou exceder
+     *                                  o comprimento de {@code cells} ou de {@code results}
+     */
+    void fireAll(int[] cells, int count, byte[] results);
+
+    /**
+     * Dispara uma sequência de tiros como {@link #fireAll(int[], int, byte[])},
+     * indicando também as coordenadas de cada tiro. A célula de um tiro fora do
+     * tabuleiro não guarda as suas coordenadas; os jogos que gravam os tiros
+     * (ver {@link Game}) usam-nas para gravar os tiros inválidos onde foram
+     * disparados. Por omissão as coordenadas são ignoradas.
+     *
+     * @param cells       células dos tiros
+     * @param coordinates coordenadas dos tiros: o tiro {@code i} foi disparado em
+     *                    ({@code coordinates[2 * i]}, {@code coordinates[2 * i + 1]})
+     * @param count       número de tiros, os primeiros de {@code cells}
+     * @param results     destino do código de {@link ShotResult} de cada tiro
+     * @throws IllegalArgumentException se {@code count} for negativo ou exceder
+     *                                  o comprimento de {@code cells} ou de
+     *                                  {@code results}, ou se faltarem coordenadas
+     */
+    default void fireAll(int[] cells, int[] coordinates, int count, byte[] results) {
+        if (count > coordinates.length / 2)
+            throw new IllegalArgumentException("ERROR! invalid number of shots");
+        fireAll(cells, count, results);
+    }
+
+    /**
+     * Dispara todos os tiros indicados, como {@link #fireAll(int[], int, byte[])}.
+     *
+     * @param cells células dos tiros
+     * @return o código de {@link ShotResult} de cada tiro
+     */
+    default byte[] fireAll(int[] cells) {
+        byte[] results = new byte[cells.length];
+        fireAll(cells, cells.length, results);
+        return results;
+    }
+
+    /**
+     * Devolve as dimensões do tabuleiro do jogo.
+     *
+     * @return configuração do tabuleiro
+     */
+    BoardConfig getBoardConfig();
 
     /**
      * Devolve a lista de todas as posições onde foram disparados tiros válidos.
      *
      * @return lista de posições dos tiros válidos
      */
-    List<IPosition> getShots();
+    List<ICoordinate> getShots();
 
     /**
      * Devolve o número de tiros repetidos efetuados durante o jogo.
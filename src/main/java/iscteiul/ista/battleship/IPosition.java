@@ -3,27 +3,14 @@
  * do jogo de Batalha Naval.
  * Cada posição é identificada por uma linha e uma coluna,
  * podendo estar ocupada por um navio e/ou ter sido alvo de um tiro.
+ * Para identificar apenas uma célula, sem estado, ver {@link ICoordinate}.
  *
  * @author Tiago
  * @version 1.0
  */
 package iscteiul.ista.battleship;
 
-public interface IPosition {
-
-    /**
-     * Devolve o índice da linha desta posição no tabuleiro.
-     *
-     * @return índice da linha, entre 0 e {@code BOARD_SIZE - 1}
-     */
-    int getRow();
-
-    /**
-     * Devolve o índice da coluna desta posição no tabuleiro.
-     *
-     * @return índice da coluna, entre 0 e {@code BOARD_SIZE - 1}
-     */
-    int getColumn();
+public interface IPosition extends ICoordinate {
 
     /**
      * Verifica se esta posição é igual a outra, comparando
@@ -41,7 +28,7 @@ public interface IPosition {
      * @param other a posição a comparar
      * @return {@code true} se as posições forem adjacentes, {@code false} caso contrário
      */
-    boolean isAdjacentTo(IPosition other);
+    boolean isAdjacentTo(ICoordinate other);
 
     /**
      * Marca esta posição como ocupada por um navio.
@@ -8,7 +8,7 @@ import java.util.List;
 public interface IShip {
     String getCategory();
 
-    Integer getSize();
+    int getSize();
 
     List<IPosition> getPositions();
 
@@ -26,11 +26,11 @@ public interface IShip {
 
     int getRightMostPos();
 
-    boolean occupies(IPosition pos);
+    boolean occupies(ICoordinate pos);
 
     boolean tooCloseTo(IShip other);
 
-    boolean tooCloseTo(IPosition pos);
+    boolean tooCloseTo(ICoordinate pos);
 
-    void shoot(IPosition pos);
+    void shoot(ICoordinate pos);
 }
@@ -0,0 +1,28 @@
+/**
+ * Interface que define um jogador automático, que escolhe onde disparar
+ * e é informado do resultado de cada tiro.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+public interface IShooter {
+
+    /**
+     * Escolhe a posição do próximo tiro.
+     *
+     * @return a posição onde disparar
+     */
+    ICoordinate nextShot();
+
+    /**
+     * Informa o jogador do resultado do último tiro.
+     *
+     * @param shot   a posição onde o tiro foi disparado
+     * @param result o resultado do tiro
+     * @param sunk   o navio afundado, se {@code result} for {@link ShotResult#SUNK};
+     *               {@code null} caso contrário
+     */
+    void shotResult(ICoordinate shot, ShotResult result, IShip sunk);
+}
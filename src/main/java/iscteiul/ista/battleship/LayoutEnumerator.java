@@ -0,0 +1,576 @@
+/**
+ * Enumeração exata de todas as frotas legais de um tabuleiro.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Conta ou percorre todas as frotas aceites por {@link Fleet#addShip(IShip)}
+ * num tabuleiro com até 128 células e uma composição dada.
+ * <p>
+ * A contagem é uma pesquisa em profundidade sobre as colocações de um
+ * {@link PlacementTable}, com os navios colocados do maior para o menor e a
+ * zona proibida representada por uma máscara de bits. O número de maneiras de
+ * completar a frota depende só da profundidade e da zona proibida, pelo que
+ * estes estados são memorizados. Como o tabuleiro e as formas dos navios são
+ * invariantes pelas simetrias do tabuleiro (rotações e reflexões do grupo D4,
+ * ou só as de 180 graus num tabuleiro retangular), cada estado é guardado na sua
+ * forma canónica (a menor das suas imagens) e, no primeiro nível, só é contada
+ * uma colocação de cada órbita, multiplicada pelo tamanho da órbita. As
+ * colocações representantes são contadas em paralelo num {@link ForkJoinPool},
+ * partilhando a mesma memória de estados.
+ * </p>
+ * <p>
+ * A pesquisa conta sequências ordenadas de navios; navios do mesmo tipo são
+ * indistinguíveis, pelo que o número de frotas é essa contagem dividida por
+ * {@code n!} para cada tipo com {@code n} navios. O número de frotas em que cada
+ * célula está ocupada é obtido numa segunda passagem, nível a nível, pelos
+ * estados já memorizados: cada colocação escolhida a partir de um estado
+ * contribui para as suas células com o produto do número de maneiras de chegar
+ * ao estado pelo número de maneiras de completar a frota depois dela. Como os
+ * estados guardados são canónicos, as contribuições são no fim somadas sobre
+ * todas as simetrias e divididas pelo número de simetrias.
+ * </p>
+ * <p>
+ * As contagens usam aritmética exata em {@code long}: se uma contagem não
+ * couber, é lançada {@link ArithmeticException}. O número de estados cresce
+ * muito depressa com o número de navios: no tabuleiro 10x10 só composições
+ * parciais da frota (até cerca de cinco navios grandes) são práticas.
+ * </p>
+ */
+public class LayoutEnumerator {
+
+    /** Colocações legais do tabuleiro. */
+    private final PlacementTable table;
+
+    /** Tipo de cada navio da frota, do maior para o menor. */
+    private final int[] shipKinds;
+
+    /** Número de ordenações de cada frota ({@code n!} para cada tipo com {@code n} navios). */
+    private final long orderings;
+
+    /** Permutação das células por cada simetria do tabuleiro que preserva as colocações. */
+    private final int[][] cellMaps;
+
+    /** Permutação das colocações por cada simetria (mesma ordem que {@link #cellMaps}). */
+    private final int[][] placementMaps;
+
+    /** Número de completamentos de cada estado (profundidade e zona proibida canónica). */
+    private final ConcurrentHashMap<State, Long> memo = new ConcurrentHashMap<>();
+
+    /**
+     * Cria um enumerador para o tabuleiro e a composição da configuração indicada.
+     *
+     * @param config dimensões do tabuleiro e composição da frota (os limites por
+     *               categoria, ex: {@link BoardConfig#STANDARD})
+     */
+    public LayoutEnumerator(BoardConfig config) {
+        this(new PlacementTable(config), config.getQuotas());
+    }
+
+    /**
+     * Cria um enumerador.
+     *
+     * @param table       colocações legais do tabuleiro
+     * @param composition número de navios de cada categoria
+     * @throws IllegalArgumentException se a composição tiver categorias desconhecidas
+     */
+    public LayoutEnumerator(PlacementTable table, Map<String, Integer> composition) {
+        this.table = table;
+        this.shipKinds = RandomFleetGenerator.shipKinds(composition);
+        long n = 1;
+        for (int i = 1, run = 1; i < shipKinds.length; i++) {
+            run = shipKinds[i] == shipKinds[i - 1] ? run + 1 : 1;
+            n = Math.multiplyExact(n, run);
+        }
+        this.orderings = n;
+
+        List<int[]> cells = new ArrayList<>();
+        List<int[]> placements = new ArrayList<>();
+        for (int[] map : symmetries(table.getBoardConfig())) {
+            int[] placementMap = mapPlacements(map);
+            if (placementMap != null) {
+                cells.add(map);
+                placements.add(placementMap);
+            }
+        }
+        this.cellMaps = cells.toArray(new int[0][]);
+        this.placementMaps = placements.toArray(new int[0][]);
+    }
+
+    /**
+     * Devolve a permutação das células de cada simetria do tabuleiro: as oito
+     * do grupo D4 num tabuleiro quadrado, ou identidade, reflexões e rotação de
+     * 180 graus num tabuleiro retangular. A identidade é a primeira.
+     *
+     * @param config dimensões do tabuleiro
+     * @return para cada simetria, a célula imagem de cada célula
+     */
+    private static List<int[]> symmetries(BoardConfig config) {
+        int rows = config.getRows();
+        int columns = config.getColumns();
+        int variants = rows == columns ? 8 : 4;
+        List<int[]> maps = new ArrayList<>();
+        for (int s = 0; s < variants; s++) {
+            int[] map = new int[config.getCells()];
+            for (int r = 0; r < rows; r++)
+                for (int c = 0; c < columns; c++) {
+                    int rr = (s & 1) != 0 ? rows - 1 - r : r;
+                    int cc = (s & 2) != 0 ? columns - 1 - c : c;
+                    map[config.cellOf(r, c)] = (s & 4) != 0 ? config.cellOf(cc, rr) : config.cellOf(rr, cc);
+                }
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    /**
+     * Calcula a permutação das colocações induzida por uma permutação das células.
+     *
+     * @param cellMap imagem de cada célula
+     * @return imagem de cada colocação, ou {@code null} se alguma imagem não for
+     *         uma colocação do mesmo tipo
+     */
+    private int[] mapPlacements(int[] cellMap) {
+        Map<State, Integer> index = new HashMap<>();
+        for (int p = 0; p < table.size(); p++)
+            index.put(new State(table.kind(p), table.shipLo(p), table.shipHi(p)), p);
+        int[] map = new int[table.size()];
+        for (int p = 0; p < table.size(); p++) {
+            long lo = 0L;
+            long hi = 0L;
+            for (int cell : table.cells(p)) {
+                lo |= BitboardFleet.lo(cellMap[cell]);
+                hi |= BitboardFleet.hi(cellMap[cell]);
+            }
+            Integer image = index.get(new State(table.kind(p), lo, hi));
+            if (image == null)
+                return null;
+            map[p] = image;
+        }
+        return map;
+    }
+
+    /**
+     * Devolve o número de simetrias do tabuleiro usadas na redução.
+     *
+     * @return número de simetrias, incluindo a identidade
+     */
+    public int getSymmetries() {
+        return cellMaps.length;
+    }
+
+    /**
+     * Conta as frotas legais no {@link ForkJoinPool#commonPool()}.
+     *
+     * @return número de frotas
+     * @throws ArithmeticException se a contagem não couber num {@code long}
+     */
+    public long count() {
+        return count(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Conta as frotas legais no {@link ForkJoinPool} indicado.
+     *
+     * @param pool conjunto de threads onde corre a contagem
+     * @return número de frotas
+     * @throws ArithmeticException se a contagem não couber num {@code long}
+     */
+    public long count(ForkJoinPool pool) {
+        return pool.invoke(new Total()) / orderings;
+    }
+
+    /**
+     * Conta, para cada célula, as frotas legais em que essa célula está ocupada.
+     *
+     * @return número de frotas por célula, indexado pelo identificador da célula
+     * @throws ArithmeticException se alguma contagem não couber num {@code long}
+     */
+    public long[] cellCounts() {
+        return cellCounts(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Conta, para cada célula, as frotas legais em que essa célula está ocupada,
+     * no {@link ForkJoinPool} indicado.
+     *
+     * @param pool conjunto de threads onde corre a contagem
+     * @return número de frotas por célula, indexado pelo identificador da célula
+     * @throws ArithmeticException se alguma contagem não couber num {@code long}
+     */
+    public long[] cellCounts(ForkJoinPool pool) {
+        int cells = table.getBoardConfig().getCells();
+        long[] reduced = new long[cells];
+        if (shipKinds.length > 0 && pool.invoke(new Total()) > 0) {
+            Map<State, Long> level = new HashMap<>();
+            level.put(canonical(0, 0L, 0L), 1L);
+            for (int depth = 0; depth < shipKinds.length; depth++) {
+                ConcurrentHashMap<State, Long> next = new ConcurrentHashMap<>();
+                State[] states = level.keySet().toArray(new State[0]);
+                long[] ways = new long[states.length];
+                for (int i = 0; i < states.length; i++)
+                    ways[i] = level.get(states[i]);
+                long[] w = pool.invoke(new Level(states, ways, 0, states.length, next));
+                for (int cell = 0; cell < cells; cell++)
+                    reduced[cell] = Math.addExact(reduced[cell], w[cell]);
+                level = next;
+            }
+        }
+
+        long[] counts = new long[cells];
+        for (int[] map : cellMaps)
+            for (int cell = 0; cell < cells; cell++)
+                counts[map[cell]] = Math.addExact(counts[map[cell]], reduced[cell]);
+        for (int cell = 0; cell < cells; cell++)
+            counts[cell] = counts[cell] / cellMaps.length / orderings;
+        return counts;
+    }
+
+    /**
+     * Calcula a probabilidade exata de cada célula estar ocupada numa frota
+     * escolhida uniformemente entre todas as frotas legais.
+     *
+     * @return probabilidade por célula, ou zeros se não houver frotas legais
+     */
+    public double[] cellProbabilities() {
+        long[] counts = cellCounts();
+        long total = count();
+        double[] p = new double[counts.length];
+        if (total > 0)
+            for (int cell = 0; cell < counts.length; cell++)
+                p[cell] = (double) counts[cell] / total;
+        return p;
+    }
+
+    /**
+     * Percorre sequencialmente todas as frotas legais, cada uma uma única vez.
+     * Navios do mesmo tipo aparecem por ordem crescente de colocação.
+     *
+     * @param action recebe os índices das colocações ({@link PlacementTable}) de
+     *               cada frota; o array é reutilizado e não deve ser alterado
+     */
+    public void forEach(Consumer<int[]> action) {
+        forEach(0, 0L, 0L, new int[shipKinds.length], action);
+    }
+
+    /**
+     * Passo recursivo de {@link #forEach(Consumer)}.
+     *
+     * @param depth       número de navios já colocados
+     * @param forbiddenLo zona proibida (palavra baixa)
+     * @param forbiddenHi zona proibida (palavra alta)
+     * @param layout      colocações escolhidas até agora
+     * @param action      ação a aplicar a cada frota completa
+     */
+    private void forEach(int depth, long forbiddenLo, long forbiddenHi, int[] layout, Consumer<int[]> action) {
+        if (depth == shipKinds.length) {
+            action.accept(layout);
+            return;
+        }
+        int kind = shipKinds[depth];
+        int from = depth > 0 && shipKinds[depth - 1] == kind ? layout[depth - 1] + 1 : table.first(kind);
+        for (int p = from; p < table.end(kind); p++)
+            if (((table.shipLo(p) & forbiddenLo) | (table.shipHi(p) & forbiddenHi)) == 0) {
+                layout[depth] = p;
+                forEach(depth + 1, forbiddenLo | table.haloLo(p), forbiddenHi | table.haloHi(p), layout, action);
+            }
+    }
+
+    /**
+     * Conta as sequências ordenadas de navios que completam a frota a partir
+     * de um estado, consultando e atualizando a memória de estados.
+     *
+     * @param depth       número de navios já colocados
+     * @param forbiddenLo zona proibida (palavra baixa)
+     * @param forbiddenHi zona proibida (palavra alta)
+     * @return número de completamentos
+     */
+    private long completions(int depth, long forbiddenLo, long forbiddenHi) {
+        if (depth == shipKinds.length)
+            return 1;
+        int kind = shipKinds[depth];
+        if (depth == shipKinds.length - 1) {
+            long n = 0;
+            for (int p = table.first(kind); p < table.end(kind); p++)
+                if (((table.shipLo(p) & forbiddenLo) | (table.shipHi(p) & forbiddenHi)) == 0)
+                    n++;
+            return n;
+        }
+
+        State key = canonical(depth, forbiddenLo, forbiddenHi);
+        Long known = memo.get(key);
+        if (known != null)
+            return known;
+        long n = 0;
+        for (int p = table.first(kind); p < table.end(kind); p++)
+            if (((table.shipLo(p) & forbiddenLo) | (table.shipHi(p) & forbiddenHi)) == 0)
+                n = Math.addExact(n,
+                        completions(depth + 1, forbiddenLo | table.haloLo(p), forbiddenHi | table.haloHi(p)));
+        memo.put(key, n);
+        return n;
+    }
+
+    /**
+     * Devolve a forma canónica de um estado: a menor das imagens da zona
+     * proibida pelas simetrias do tabuleiro.
+     *
+     * @param depth       número de navios já colocados
+     * @param forbiddenLo zona proibida (palavra baixa)
+     * @param forbiddenHi zona proibida (palavra alta)
+     * @return chave do estado na memória
+     */
+    private State canonical(int depth, long forbiddenLo, long forbiddenHi) {
+        long bestLo = forbiddenLo;
+        long bestHi = forbiddenHi;
+        for (int s = 1; s < cellMaps.length; s++) {
+            int[] map = cellMaps[s];
+            long lo = 0L;
+            long hi = 0L;
+            for (long bits = forbiddenLo; bits != 0; bits &= bits - 1) {
+                int cell = map[Long.numberOfTrailingZeros(bits)];
+                lo |= BitboardFleet.lo(cell);
+                hi |= BitboardFleet.hi(cell);
+            }
+            for (long bits = forbiddenHi; bits != 0; bits &= bits - 1) {
+                int cell = map[64 + Long.numberOfTrailingZeros(bits)];
+                lo |= BitboardFleet.lo(cell);
+                hi |= BitboardFleet.hi(cell);
+            }
+            int cmp = Long.compareUnsigned(hi, bestHi);
+            if (cmp < 0 || cmp == 0 && Long.compareUnsigned(lo, bestLo) < 0) {
+                bestLo = lo;
+                bestHi = hi;
+            }
+        }
+        return new State(depth, bestLo, bestHi);
+    }
+
+    /**
+     * Devolve o representante da órbita de um elemento: a menor das suas imagens.
+     *
+     * @param maps permutações do grupo de simetrias
+     * @param x    célula ou colocação
+     * @return representante da órbita
+     */
+    private static int representative(int[][] maps, int x) {
+        int min = x;
+        for (int[] map : maps)
+            min = Math.min(min, map[x]);
+        return min;
+    }
+
+    /**
+     * Estado da pesquisa: profundidade e zona proibida. Também serve de chave
+     * (tipo e células) para procurar a imagem de uma colocação.
+     */
+    private static final class State {
+
+        /** Profundidade (ou tipo de navio). */
+        private final int depth;
+
+        /** Máscara (palavra baixa). */
+        private final long lo;
+
+        /** Máscara (palavra alta). */
+        private final long hi;
+
+        /**
+         * Cria um estado.
+         *
+         * @param depth profundidade
+         * @param lo    máscara (palavra baixa)
+         * @param hi    máscara (palavra alta)
+         */
+        State(int depth, long lo, long hi) {
+            this.depth = depth;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State))
+                return false;
+            State other = (State) o;
+            return depth == other.depth && lo == other.lo && hi == other.hi;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = lo * 0x9E3779B97F4A7C15L + hi * 0xC2B2AE3D27D4EB4FL + depth;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Tarefa que conta todas as sequências ordenadas de navios, dividindo-se
+     * por uma subtarefa por órbita das colocações do primeiro navio.
+     */
+    private class Total extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Long compute() {
+            if (shipKinds.length == 0)
+                return 1L;
+            int kind = shipKinds[0];
+            Map<Integer, Integer> orbits = new HashMap<>();
+            for (int p = table.first(kind); p < table.end(kind); p++)
+                orbits.merge(representative(placementMaps, p), 1, Integer::sum);
+
+            List<First> tasks = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> e : orbits.entrySet())
+                tasks.add(new First(e.getKey(), e.getValue()));
+            long n = 0;
+            for (First task : ForkJoinTask.invokeAll(tasks))
+                n = Math.addExact(n, task.join());
+            return n;
+        }
+    }
+
+    /**
+     * Tarefa que conta as sequências ordenadas que começam numa colocação,
+     * multiplicadas pelo tamanho da sua órbita.
+     */
+    private class First extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Colocação do primeiro navio. */
+        private final int placement;
+
+        /** Número de colocações na órbita. */
+        private final int orbit;
+
+        /**
+         * Cria a tarefa.
+         *
+         * @param placement colocação do primeiro navio
+         * @param orbit     número de colocações na sua órbita
+         */
+        First(int placement, int orbit) {
+            this.placement = placement;
+            this.orbit = orbit;
+        }
+
+        @Override
+        protected Long compute() {
+            return Math.multiplyExact(orbit, completions(1, table.haloLo(placement), table.haloHi(placement)));
+        }
+    }
+
+    /**
+     * Tarefa que processa uma fatia dos estados canónicos de um nível: para cada
+     * colocação possível a partir de cada estado, soma às suas células o número
+     * de frotas ordenadas que a usam nesse ponto e regista o estado seguinte.
+     */
+    private class Level extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Número de estados a partir do qual a tarefa é dividida em duas. */
+        private static final int THRESHOLD = 64;
+
+        /** Estados canónicos do nível. */
+        private final State[] states;
+
+        /** Número de maneiras de chegar à órbita de cada estado. */
+        private final long[] ways;
+
+        /** Primeiro estado da fatia. */
+        private final int from;
+
+        /** Estado seguinte ao último da fatia. */
+        private final int to;
+
+        /** Estados canónicos do nível seguinte e número de maneiras de lá chegar. */
+        private final ConcurrentHashMap<State, Long> next;
+
+        /**
+         * Cria a tarefa para os estados {@code [from, to)}.
+         *
+         * @param states estados canónicos do nível
+         * @param ways   número de maneiras de chegar a cada estado
+         * @param from   primeiro estado da fatia
+         * @param to     estado seguinte ao último da fatia
+         * @param next   estados do nível seguinte
+         */
+        Level(State[] states, long[] ways, int from, int to, ConcurrentHashMap<State, Long> next) {
+            this.states = states;
+            this.ways = ways;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Level left = new Level(states, ways, from, middle, next);
+                left.fork();
+                long[] right = new Level(states, ways, middle, to, next).compute();
+                long[] w = left.join();
+                for (int cell = 0; cell < w.length; cell++)
+                    w[cell] = Math.addExact(w[cell], right[cell]);
+                return w;
+            }
+
+            long[] w = new long[table.getBoardConfig().getCells()];
+            for (int i = from; i < to; i++) {
+                State state = states[i];
+                int depth = state.depth;
+                int kind = shipKinds[depth];
+                for (int p = table.first(kind); p < table.end(kind); p++) {
+                    if (((table.shipLo(p) & state.lo) | (table.shipHi(p) & state.hi)) != 0)
+                        continue;
+                    long lo = state.lo | table.haloLo(p);
+                    long hi = state.hi | table.haloHi(p);
+                    State key = depth + 2 < shipKinds.length ? canonical(depth + 1, lo, hi) : null;
+                    Long known = key != null ? memo.get(key) : null;
+                    long n = Math.multiplyExact(ways[i], known != null ? known : completions(depth + 1, lo, hi));
+                    if (n == 0)
+                        continue;
+                    for (int cell : table.cells(p))
+                        w[cell] = Math.addExact(w[cell], n);
+                    if (depth + 2 < shipKinds.length)
+                        next.merge(key, ways[i], Math::addExact);
+                    else if (depth + 2 == shipKinds.length)
+                        addLastShip(lo, hi, ways[i], w);
+                }
+            }
+            return w;
+        }
+
+        /**
+         * Soma diretamente as contribuições do último navio, sem passar por
+         * estados canónicos: cada colocação possível completa a frota uma vez.
+         *
+         * @param forbiddenLo zona proibida (palavra baixa)
+         * @param forbiddenHi zona proibida (palavra alta)
+         * @param n           número de maneiras de chegar a este estado
+         * @param w           contribuições por célula
+         */
+        private void addLastShip(long forbiddenLo, long forbiddenHi, long n, long[] w) {
+            int kind = shipKinds[shipKinds.length - 1];
+            for (int p = table.first(kind); p < table.end(kind); p++)
+                if (((table.shipLo(p) & forbiddenLo) | (table.shipHi(p) & forbiddenHi)) == 0)
+                    for (int cell : table.cells(p))
+                        w[cell] = Math.addExact(w[cell], n);
+        }
+    }
+}
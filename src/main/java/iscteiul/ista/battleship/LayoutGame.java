@@ -0,0 +1,288 @@
+/**
+ * Jogo sobre uma disposição de frota partilhada.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Jogo cujo estado é uma camada leve sobre uma {@link FleetLayout} imutável.
+ * <p>
+ * A disposição da frota não é copiada nem alterada: o jogo guarda apenas as
+ * células já alvo de tiros, a ordem dos tiros, o número de impactos em cada
+ * navio e os contadores, em arrays de tipos primitivos. Assim, vários jogos
+ * (por exemplo, em threads diferentes) podem decorrer sobre a mesma
+ * disposição sem reconstruir navios e posições para cada jogo. Cada jogo, em
+ * si, deve ser usado por uma única thread.
+ * </p>
+ * <p>
+ * Os resultados dos tiros são os de {@link Game}. O navio devolvido quando um
+ * tiro afunda um navio é a vista imutável do navio afundado
+ * ({@link FleetLayout#sunkShip(int)}), partilhada por todos os jogos sobre a
+ * mesma disposição; o estado dos restantes navios neste jogo é dado por
+ * {@link #isSunk(int)}.
+ * </p>
+ */
+public class LayoutGame implements IGame {
+
+    /** Disposição partilhada da frota adversária. */
+    private final FleetLayout layout;
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Células já alvo de tiros válidos. */
+    private final BitSet shotCells;
+
+    /** Dimensão inicial de {@link #shotOrder}. */
+    private static final int INITIAL_SHOTS = 16;
+
+    /**
+     * Células dos tiros válidos e não repetidos, pela ordem dos tiros; cresce
+     * à medida que são disparados tiros, como uma {@link ArrayList}.
+     */
+    private int[] shotOrder;
+
+    /** Número de entradas usadas de {@link #shotOrder}. */
+    private int shotCount;
+
+    /** Número de células atingidas de cada navio. */
+    private final int[] shipHits;
+
+    /** Número de navios ainda a flutuar. */
+    private int remaining;
+
+    /** Contador de tiros disparados para posições fora do tabuleiro. */
+    private int countInvalidShots;
+
+    /** Contador de tiros disparados para posições já anteriormente atingidas. */
+    private int countRepeatedShots;
+
+    /** Contador de tiros que acertaram num navio. */
+    private int countHits;
+
+    /** Contador de navios completamente afundados. */
+    private int countSinks;
+
+    /** Buffer de desenho do tabuleiro, criado no primeiro desenho. */
+    private BoardRenderer renderer;
+
+    /**
+     * Cria um novo jogo sobre a disposição indicada.
+     *
+     * @param layout disposição da frota adversária
+     */
+    public LayoutGame(FleetLayout layout) {
+        this.layout = layout;
+        this.config = layout.getBoardConfig();
+        this.shotCells = new BitSet(config.getCells());
+        this.shotOrder = new int[Math.min(INITIAL_SHOTS, config.getCells())];
+        this.shipHits = new int[layout.shipCount()];
+        this.remaining = layout.shipCount();
+    }
+
+    /**
+     * Devolve a disposição partilhada da frota.
+     *
+     * @return disposição da frota
+     */
+    public FleetLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public IShip fire(ICoordinate pos) {
+        return fire(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Dispara um tiro na posição (linha, coluna), sem criar objetos.
+     *
+     * @param row    linha do tiro
+     * @param column coluna do tiro
+     * @return o navio afundado ({@link FleetLayout#sunkShip(int)}) se o tiro o tiver afundado,
+     *         {@code null} caso contrário
+     */
+    @Override
+    public IShip fire(int row, int column) {
+        if (!config.isInside(row, column)) {
+            countInvalidShots++;
+            return null;
+        }
+        int cell = config.cellOf(row, column);
+        if (shotCells.get(cell)) {
+            countRepeatedShots++;
+            return null;
+        }
+        shotCells.set(cell);
+        addShot(cell);
+        int index = layout.shipIndexAt(cell);
+        if (index < 0)
+            return null;
+        countHits++;
+        if (++shipHits[index] < layout.shipSize(index))
+            return null;
+        remaining--;
+        countSinks++;
+        return layout.sunkShip(index);
+    }
+
+    /**
+     * Dispara uma sequência de tiros, com os contadores em variáveis locais
+     * até ao fim da sequência.
+     *
+     * @param cells   células dos tiros
+     * @param count   número de tiros
+     * @param results destino do código de {@link ShotResult} de cada tiro
+     */
+    @Override
+    public void fireAll(int[] cells, int count, byte[] results) {
+        if (count < 0 || count > cells.length || count > results.length)
+            throw new IllegalArgumentException("ERROR! invalid number of shots");
+        int invalid = 0;
+        int repeated = 0;
+        int hits = 0;
+        int sinks = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            byte result;
+            if (cell < 0 || cell >= config.getCells()) {
+                invalid++;
+                result = ShotResult.INVALID_CODE;
+            } else if (shotCells.get(cell)) {
+                repeated++;
+                result = ShotResult.REPEATED_CODE;
+            } else {
+                shotCells.set(cell);
+                addShot(cell);
+                int index = layout.shipIndexAt(cell);
+                if (index < 0) {
+                    result = ShotResult.MISS_CODE;
+                } else {
+                    hits++;
+                    if (++shipHits[index] < layout.shipSize(index)) {
+                        result = ShotResult.HIT_CODE;
+                    } else {
+                        sinks++;
+                        result = ShotResult.SUNK_CODE;
+                    }
+                }
+            }
+            results[i] = result;
+        }
+        countInvalidShots += invalid;
+        countRepeatedShots += repeated;
+        countHits += hits;
+        countSinks += sinks;
+        remaining -= sinks;
+    }
+
+    /**
+     * Acrescenta a célula de um tiro válido e não repetido a {@link #shotOrder},
+     * duplicando-o se estiver cheio.
+     *
+     * @param cell célula do tiro
+     */
+    private void addShot(int cell) {
+        if (shotCount == shotOrder.length)
+            shotOrder = Arrays.copyOf(shotOrder, Math.min(2 * shotCount, config.getCells()));
+        shotOrder[shotCount++] = cell;
+    }
+
+    /**
+     * Indica se um navio já foi afundado neste jogo.
+     *
+     * @param index índice do navio na disposição
+     * @return {@code true} se todas as células do navio já foram atingidas
+     */
+    public boolean isSunk(int index) {
+        return shipHits[index] == layout.shipSize(index);
+    }
+
+    /**
+     * Devolve as posições dos tiros válidos e não repetidos, pela ordem em que
+     * foram disparados, numa lista nova.
+     *
+     * @return posições dos tiros
+     */
+    @Override
+    public List<ICoordinate> getShots() {
+        List<ICoordinate> shots = new ArrayList<>(shotCount);
+        for (int i = 0; i < shotCount; i++)
+            shots.add(config.positionAt(config.rowOf(shotOrder[i]), config.columnOf(shotOrder[i])));
+        return shots;
+    }
+
+    @Override
+    public int getRepeatedShots() {
+        return countRepeatedShots;
+    }
+
+    @Override
+    public int getInvalidShots() {
+        return countInvalidShots;
+    }
+
+    @Override
+    public int getHits() {
+        return countHits;
+    }
+
+    @Override
+    public int getSunkShips() {
+        return countSinks;
+    }
+
+    @Override
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    @Override
+    public int getRemainingShips() {
+        return remaining;
+    }
+
+    /**
+     * Imprime no ecrã o tabuleiro com os tiros válidos efetuados,
+     * marcados com o caráter 'X'.
+     */
+    @Override
+    public void printValidShots() {
+        BoardRenderer board = renderer();
+        for (int i = 0; i < shotCount; i++)
+            board.mark(config.rowOf(shotOrder[i]), config.columnOf(shotOrder[i]), 'X');
+        board.print(System.out);
+    }
+
+    /**
+     * Imprime no ecrã o tabuleiro com as posições ocupadas pela frota,
+     * marcadas com o caráter '#'.
+     */
+    @Override
+    public void printFleet() {
+        BoardRenderer board = renderer();
+        for (int cell = 0; cell < config.getCells(); cell++)
+            if (layout.shipIndexAt(cell) >= 0)
+                board.mark(config.rowOf(cell), config.columnOf(cell), '#');
+        board.print(System.out);
+    }
+
+    /**
+     * Devolve o buffer de desenho do tabuleiro, com todas as células a '.'.
+     *
+     * @return buffer de desenho deste jogo
+     */
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer(config);
+        renderer.clear();
+        return renderer;
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Histograma logarítmico de latências, partilhado entre threads.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores não negativos (por exemplo, latências em nanossegundos)
+ * com erro relativo limitado, ao estilo do HdrHistogram.
+ * <p>
+ * Os valores abaixo de {@value #SUB_BUCKETS} têm um contador cada. Cada potência
+ * de dois acima disso é dividida em {@value #SUB_BUCKETS} contadores iguais,
+ * pelo que o valor devolvido para um percentil tem um erro relativo inferior a
+ * 1/{@value #SUB_BUCKETS}. Os contadores são fixos e preenchidos sem locks:
+ * registar um valor custa um incremento atómico e não cria objetos. As
+ * leituras podem ser feitas a qualquer momento, em concorrência com os
+ * registos, e refletem os valores registados até então.
+ * </p>
+ */
+final class LogHistogram {
+
+    /** Bits de cada potência de dois usados para escolher o contador. */
+    private static final int SUB_BITS = 4;
+
+    /** Número de contadores por potência de dois. */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Número de contadores, suficiente para todos os valores {@code long} não negativos. */
+    static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    /** Número de valores registados em cada contador. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Número total de valores registados. */
+    private final LongAdder total = new LongAdder();
+
+    /** Soma dos valores registados. */
+    private final LongAdder sum = new LongAdder();
+
+    /** Maior valor registado. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Regista um valor; valores negativos contam como zero.
+     *
+     * @param value valor a registar
+     */
+    void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts.getAndIncrement(bucketOf(value));
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Devolve o contador de um valor.
+     *
+     * @param value valor não negativo
+     * @return índice do contador
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Devolve o menor valor contado num contador.
+     *
+     * @param bucket índice do contador
+     * @return limite inferior do contador
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket >> SUB_BITS) - 1;
+        return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+    }
+
+    /**
+     * Devolve o número de valores registados.
+     *
+     * @return número de valores
+     */
+    long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * Devolve a média dos valores registados.
+     *
+     * @return média, ou {@code 0} se não houver valores
+     */
+    double getMean() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Devolve o maior valor registado.
+     *
+     * @return máximo, ou {@code 0} se não houver valores
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Devolve o valor abaixo do qual está a percentagem indicada dos valores
+     * registados, arredondado para cima até ao limite do seu contador.
+     *
+     * @param percentile percentil, entre 0 e 100
+     * @return valor do percentil, ou {@code 0} se não houver valores
+     * @throws IllegalArgumentException se o percentil estiver fora de [0, 100]
+     */
+    long getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("ERROR! invalid percentile");
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+            count += counts.get(bucket);
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= target)
+                return Math.min(lowerBound(bucket + 1) - 1, getMax());
+        }
+        return 0;
+    }
+
+    /**
+     * Apaga todos os valores registados. Os valores registados em concorrência
+     * com esta operação podem ser apagados apenas em parte.
+     */
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+            counts.set(bucket, 0);
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+}
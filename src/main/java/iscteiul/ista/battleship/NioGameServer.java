@@ -0,0 +1,766 @@
+/**
+ * Servidor TCP não bloqueante para vários jogos em simultâneo.
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Servidor com a mesma gramática de comandos e as mesmas respostas de
+ * {@link GameServer}, mas em que todas as ligações são servidas por uma única
+ * thread, com canais não bloqueantes e um {@link Selector}.
+ * <p>
+ * O comando {@code rajada} é interpretado diretamente sobre os bytes recebidos,
+ * sem criar objetos. Todas as rajadas completas de uma leitura (um cliente pode
+ * enviar várias sem esperar pelas respostas) são primeiro interpretadas e só
+ * depois disparadas sobre o jogo numa única chamada a
+ * {@link Game#fireAll(int[], int[], int, byte[])}; as respostas são escritas em ASCII
+ * diretamente em buffers reutilizados. Os restantes comandos, pouco
+ * frequentes, são executados por {@link GameSession}. Um comando que chegue
+ * incompleto fica no buffer de leitura até chegarem os bytes que faltam, até um
+ * máximo de {@link #MAX_COMMAND_SIZE} bytes sem contar separadores repetidos. O comando {@code nova}, que não
+ * tem tamanho limitado (lê navios até a frota ficar completa), é interpretado
+ * um navio de cada vez.
+ * </p>
+ * <p>
+ * As respostas de cada ligação são acumuladas numa fila de buffers e enviadas
+ * com uma escrita agregada ({@code gathering write}). Enquanto o cliente não
+ * receber tudo o que lhe foi enviado, a ligação deixa de ser lida.
+ * </p>
+ */
+public class NioGameServer implements Closeable {
+
+    /** Logger utilizado para registo de informação */
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** Número máximo de ligações à espera de serem aceites. */
+    private static final int BACKLOG = 1024;
+
+    /** Dimensão do buffer de leitura de cada ligação. */
+    private static final int READ_BUFFER_SIZE = 2048;
+
+    /**
+     * Dimensão máxima de um comando incompleto (ou de um navio incompleto do
+     * comando {@code nova}); ligações com comandos maiores são fechadas, depois
+     * de enviadas as respostas aos comandos anteriores. Como
+     * um comando incompleto volta a ser interpretado desde o início a cada
+     * leitura, o limite mantém esse custo constante por leitura.
+     * Tem de ser menor do que {@link #READ_BUFFER_SIZE}, para o buffer de
+     * leitura nunca encher.
+     */
+    private static final int MAX_COMMAND_SIZE = 1 << 10;
+
+    /** Dimensão dos buffers de escrita das respostas às rajadas. */
+    private static final int WRITE_BUFFER_SIZE = 4096;
+
+    /** Espaço livre garantido antes de escrever uma linha de resposta. */
+    private static final int MAX_LINE = 128;
+
+    /** Número de coordenadas de uma rajada. */
+    private static final int VOLLEY = 2 * Tasks.NUMBER_SHOTS;
+
+    /** Bytes do comando {@code rajada}. */
+    private static final byte[] RAJADA = ascii(Tasks.RAJADA);
+
+    /** Bytes do comando {@code nova}. */
+    private static final byte[] NOVA = ascii(Tasks.NOVAFROTA);
+
+    /** Partes da linha de contadores de uma rajada. */
+    private static final byte[] HITS = ascii("Hits: ");
+    private static final byte[] INVALID = ascii(" Inv: ");
+    private static final byte[] REPEATED = ascii(" Rep: ");
+    private static final byte[] REMAINING = ascii(" Restam ");
+    private static final byte[] SHIPS = ascii(" navios." + System.lineSeparator());
+
+    /** Partes da linha de um navio afundado. */
+    private static final byte[] SUNK = ascii("Mas... mas... ");
+    private static final byte[] SUNK_END = ascii("s nao sao a prova de bala? :-(" + System.lineSeparator());
+
+    /** Linha do fim do jogo. */
+    private static final byte[] GAME_OVER =
+            ascii("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub..." + System.lineSeparator());
+
+    /** Resposta quando falta um número num comando. */
+    private static final byte[] NUMBER_EXPECTED = ascii(GameSession.NUMBER_EXPECTED + System.lineSeparator());
+
+    /** Seletor das ligações. */
+    private final Selector selector;
+
+    /** Canal de escuta. */
+    private final ServerSocketChannel server;
+
+    /** Thread que serve todas as ligações. */
+    private final Thread loop;
+
+    /** Indica se o servidor ainda não foi fechado. */
+    private volatile boolean running = true;
+
+    /** Número de ligações abertas. */
+    private volatile int sessions;
+
+    /**
+     * Cria um servidor à escuta em todas as interfaces, na porta indicada.
+     * As ligações só são aceites depois de {@link #start()}.
+     *
+     * @param port porta, ou {@code 0} para uma porta livre qualquer
+     * @throws IOException se não for possível abrir a porta
+     */
+    public NioGameServer(int port) throws IOException {
+        this(new InetSocketAddress(port));
+    }
+
+    /**
+     * Cria um servidor à escuta no endereço indicado.
+     * As ligações só são aceites depois de {@link #start()}.
+     *
+     * @param address endereço e porta de escuta
+     * @throws IOException se não for possível abrir a porta
+     */
+    public NioGameServer(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address, BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        loop = new Thread(this::serve, "battleship-nio");
+    }
+
+    /**
+     * Converte um texto ASCII em bytes.
+     *
+     * @param text texto
+     * @return bytes do texto
+     */
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Começa a aceitar e a servir ligações.
+     */
+    public void start() {
+        loop.start();
+        LOGGER.info("Servidor NIO a escutar na porta {}", getPort());
+    }
+
+    /**
+     * Devolve a porta de escuta.
+     *
+     * @return porta local
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Devolve o número de ligações abertas.
+     *
+     * @return número de sessões em curso
+     */
+    public int getSessionCount() {
+        return sessions;
+    }
+
+    /**
+     * Espera que o servidor seja fechado.
+     *
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public void join() throws InterruptedException {
+        loop.join();
+    }
+
+    /**
+     * Deixa de aceitar ligações e fecha todas as sessões em curso.
+     *
+     * @throws IOException se não for possível fechar o canal de escuta
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (loop.isAlive())
+            selector.wakeup();
+        else
+            shutdown();
+    }
+
+    /**
+     * Ciclo da thread do servidor: espera por ligações e dados e serve-os,
+     * até o servidor ser fechado.
+     */
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable())
+                            connection.read();
+                        if (key.isValid() && key.isWritable())
+                            connection.write();
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.debug("Sessão terminada: {}", e.toString());
+                        connection.disconnect();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Servidor NIO terminado: {}", e.toString());
+        } finally {
+            try {
+                shutdown();
+            } catch (IOException e) {
+                LOGGER.warn("Falha ao fechar o servidor NIO: {}", e.toString());
+            }
+        }
+    }
+
+    /**
+     * Fecha todas as ligações, o canal de escuta e o seletor.
+     *
+     * @throws IOException se não for possível fechar o canal de escuta
+     */
+    private void shutdown() throws IOException {
+        if (selector.isOpen()) {
+            for (SelectionKey key : selector.keys())
+                if (key.attachment() instanceof Connection)
+                    ((Connection) key.attachment()).disconnect();
+            selector.close();
+        }
+        server.close();
+    }
+
+    /**
+     * Aceita todas as ligações pendentes. Tal como em {@link GameServer}, uma
+     * falha ao aceitar (por exemplo, por falta de descritores de ficheiros) é
+     * registada e o servidor continua a servir as sessões abertas; se não for
+     * possível configurar ou registar uma ligação aceite, só essa é fechada.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                LOGGER.warn("Falha ao aceitar ligação: {}", e.toString());
+                return;
+            }
+            if (channel == null)
+                return;
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(key, channel));
+                sessions++;
+            } catch (IOException e) {
+                LOGGER.warn("Falha ao registar ligação: {}", e.toString());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // a ligação já estava fechada
+                }
+            }
+        }
+    }
+
+    /**
+     * Estado de uma ligação: a sessão de jogo, os bytes recebidos e ainda não
+     * interpretados, as rajadas por disparar e as respostas por enviar.
+     */
+    private final class Connection {
+
+        /** Chave da ligação no seletor. */
+        private final SelectionKey key;
+
+        /** Canal da ligação. */
+        private final SocketChannel channel;
+
+        /** Sessão de jogo do cliente. */
+        private final GameSession session = new GameSession();
+
+        /** Bytes recebidos e ainda não interpretados. */
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /** Células dos tiros das rajadas por disparar, {@link Tasks#NUMBER_SHOTS} por rajada. */
+        private int[] cells = new int[16 * Tasks.NUMBER_SHOTS];
+
+        /** Coordenadas (linha, coluna) dos tiros das rajadas por disparar, aos pares. */
+        private int[] coordinates = new int[2 * cells.length];
+
+        /** Resultados dos tiros das rajadas disparadas. */
+        private byte[] results = new byte[cells.length];
+
+        /** Número de rajadas por disparar. */
+        private int volleyCount;
+
+        /** Respostas prontas a enviar, pela ordem de envio. */
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+
+        /** Buffer onde estão a ser escritas as respostas às rajadas, ou {@code null}. */
+        private ByteBuffer current;
+
+        /** Buffer de escrita já enviado, reutilizado pelo próximo {@link #current}. */
+        private ByteBuffer spare;
+
+        /** Buffers de cada escrita agregada. */
+        private ByteBuffer[] gather = new ByteBuffer[4];
+
+        /** Frota a ser lida pelo comando {@code nova}, ou {@code null} fora desse comando. */
+        private Fleet building;
+
+        /** Indica se a sessão terminou e a ligação deve ser fechada depois de enviar as respostas. */
+        private boolean closing;
+
+        /**
+         * Cria o estado de uma ligação.
+         *
+         * @param key     chave da ligação no seletor
+         * @param channel canal da ligação
+         */
+        Connection(SelectionKey key, SocketChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+
+        /**
+         * Lê os bytes disponíveis, executa os comandos completos e envia as respostas.
+         *
+         * @throws IOException se não for possível ler ou escrever
+         */
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                disconnect();
+                return;
+            }
+            in.flip();
+            in.position(process(in.array(), in.position(), in.limit()));
+            in.limit(collapse(in.array(), in.position(), in.limit()));
+            if (in.remaining() > MAX_COMMAND_SIZE) {
+                // comando demasiado longo: envia as respostas já prontas e fecha
+                closing = true;
+                in.clear();
+            } else {
+                in.compact();
+            }
+            write();
+        }
+
+        /**
+         * Executa os comandos completos em {@code a[from, to)}.
+         *
+         * @param a    bytes recebidos
+         * @param from índice do primeiro byte por interpretar
+         * @param to   índice seguinte ao do último byte recebido
+         * @return índice do primeiro byte do primeiro comando incompleto; os
+         *         separadores antes dele são descartados
+         */
+        private int process(byte[] a, int from, int to) {
+            // só as palavras seguidas de um separador estão completas
+            int end = to;
+            while (end > from && !TokenReader.isWhitespace(a[end - 1]))
+                end--;
+
+            int pos = from;
+            while (!closing) {
+                int start = skipWhitespace(a, pos, end);
+                if (start == end) {
+                    pos = start;
+                    break;
+                }
+                if (building != null) {
+                    int next = addShip(a, start, end);
+                    if (next < 0) {
+                        pos = start;
+                        break;
+                    }
+                    pos = next;
+                } else if (isWord(a, start, NOVA)) {
+                    fireVolleys();
+                    building = new Fleet();
+                    pos = start + NOVA.length;
+                } else if (isWord(a, start, RAJADA)) {
+                    if (session.getGame() == null) {
+                        pos = start + RAJADA.length;
+                        continue;
+                    }
+                    int next = parseVolley(a, start + RAJADA.length, end);
+                    if (next == end + 1) {
+                        fireVolleys();
+                        put(NUMBER_EXPECTED);
+                        closing = true;
+                    }
+                    if (closing)
+                        break;
+                    if (next < 0) {
+                        pos = start;
+                        break;
+                    }
+                    pos = next;
+                } else {
+                    fireVolleys();
+                    TokenReader reader = new TokenReader(ByteBuffer.wrap(a, start, end - start));
+                    StringBuilder reply = session.reply();
+                    try {
+                        closing = !session.execute(reader.next(), reader);
+                        pos = reader.position();
+                    } catch (InputMismatchException e) {
+                        reply.setLength(0);
+                        reply.append(GameSession.NUMBER_EXPECTED).append(System.lineSeparator());
+                        closing = true;
+                    } catch (NoSuchElementException e) {
+                        // comando incompleto: espera pelos bytes que faltam
+                        reply.setLength(0);
+                        pos = start;
+                        break;
+                    }
+                    sendReply();
+                }
+            }
+            fireVolleys();
+            return closing ? to : pos;
+        }
+
+        /**
+         * Reduz cada sequência de separadores de um comando incompleto a um só
+         * separador, o que não altera as palavras do comando. Assim o limite
+         * {@link #MAX_COMMAND_SIZE} conta apenas as palavras e não os
+         * separadores entre elas.
+         *
+         * @param a    bytes recebidos
+         * @param from índice do primeiro byte do comando incompleto
+         * @param to   índice seguinte ao do último byte recebido
+         * @return índice seguinte ao último byte do comando reduzido
+         */
+        private int collapse(byte[] a, int from, int to) {
+            int w = from;
+            for (int r = from; r < to; r++)
+                if (!TokenReader.isWhitespace(a[r]) || w == from || !TokenReader.isWhitespace(a[w - 1]))
+                    a[w++] = a[r];
+            return w;
+        }
+
+        /**
+         * Lê um navio do comando {@code nova} e acrescenta-o à frota em
+         * construção; quando a frota fica completa, começa o jogo novo.
+         *
+         * @param a     bytes recebidos
+         * @param start índice do primeiro byte do navio
+         * @param end   índice seguinte ao último byte de palavras completas
+         * @return índice seguinte ao navio, ou {@code -1} se estiver incompleto
+         */
+        private int addShip(byte[] a, int start, int end) {
+            TokenReader reader = new TokenReader(ByteBuffer.wrap(a, start, end - start));
+            try {
+                if (Tasks.addShip(reader, building, false)) {
+                    session.newFleet(building);
+                    building = null;
+                    sendReply();
+                }
+            } catch (InputMismatchException e) {
+                session.reply().append(GameSession.NUMBER_EXPECTED).append(System.lineSeparator());
+                closing = true;
+                sendReply();
+            } catch (NoSuchElementException e) {
+                // navio incompleto: espera pelos bytes que faltam
+                return -1;
+            }
+            return reader.position();
+        }
+
+        /**
+         * Passa a resposta da sessão, se não estiver vazia, para a fila de envio.
+         */
+        private void sendReply() {
+            StringBuilder reply = session.reply();
+            if (reply.length() > 0) {
+                seal();
+                pending.add(ByteBuffer.wrap(reply.toString().getBytes(StandardCharsets.UTF_8))
+                        .asReadOnlyBuffer());
+                reply.setLength(0);
+            }
+        }
+
+        /**
+         * Indica se a palavra que começa em {@code start} é {@code word}.
+         * A palavra está completa, pelo que é seguida de um separador.
+         *
+         * @param a     bytes recebidos
+         * @param start índice do primeiro byte da palavra
+         * @param word  bytes da palavra procurada
+         * @return {@code true} se a palavra for {@code word}
+         */
+        private boolean isWord(byte[] a, int start, byte[] word) {
+            for (int i = 0; i < word.length; i++)
+                if (a[start + i] != word[i])
+                    return false;
+            return TokenReader.isWhitespace(a[start + word.length]);
+        }
+
+        /**
+         * Interpreta as coordenadas de uma rajada e, se estiverem todas
+         * completas, acrescenta-a às rajadas por disparar.
+         *
+         * @param a    bytes recebidos
+         * @param pos  índice seguinte à palavra {@code rajada}
+         * @param end  índice seguinte ao último byte de palavras completas
+         * @return índice seguinte à rajada, {@code -1} se estiver incompleta,
+         *         ou {@code end + 1} se uma coordenada não for um número
+         */
+        private int parseVolley(byte[] a, int pos, int end) {
+            if ((volleyCount + 1) * Tasks.NUMBER_SHOTS > cells.length) {
+                cells = Arrays.copyOf(cells, cells.length * 2);
+                coordinates = Arrays.copyOf(coordinates, 2 * cells.length);
+            }
+            BoardConfig config = session.getGame().getBoardConfig();
+            int base = volleyCount * Tasks.NUMBER_SHOTS;
+            int row = 0;
+            for (int i = 0; i < VOLLEY; i++) {
+                pos = skipWhitespace(a, pos, end);
+                if (pos == end)
+                    return -1;
+                boolean negative = a[pos] == '-';
+                if (negative || a[pos] == '+')
+                    pos++;
+                long value = 0;
+                int digits = 0;
+                for (; !TokenReader.isWhitespace(a[pos]); pos++, digits++) {
+                    int digit = a[pos] - '0';
+                    if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE)
+                        return end + 1;
+                    value = value * 10 + digit;
+                }
+                if (digits == 0 || value > (negative ? (long) Integer.MAX_VALUE + 1 : Integer.MAX_VALUE))
+                    return end + 1;
+                int coordinate = (int) (negative ? -value : value);
+                if (i % 2 == 0) {
+                    row = coordinate;
+                } else {
+                    cells[base + i / 2] = config.targetCell(row, coordinate);
+                    coordinates[2 * (base + i / 2)] = row;
+                    coordinates[2 * (base + i / 2) + 1] = coordinate;
+                }
+            }
+            volleyCount++;
+            return pos;
+        }
+
+        /**
+         * Dispara as rajadas por disparar numa única sequência e escreve as
+         * respostas. Os contadores de cada resposta são os do jogo antes da
+         * sequência, acumulados com os resultados dos tiros até ao fim da rajada.
+         */
+        private void fireVolleys() {
+            if (volleyCount == 0)
+                return;
+            Game game = session.getGame();
+            int count = volleyCount * Tasks.NUMBER_SHOTS;
+            if (results.length < count)
+                results = new byte[cells.length];
+            int hits = game.getHits();
+            int invalid = game.getInvalidShots();
+            int repeated = game.getRepeatedShots();
+            int remaining = game.getRemainingShips();
+            game.fireAll(cells, coordinates, count, results);
+
+            BoardConfig config = game.getBoardConfig();
+            for (int shot = 0; shot < count; ) {
+                for (int i = 0; i < Tasks.NUMBER_SHOTS; i++, shot++) {
+                    switch (results[shot]) {
+                        case ShotResult.SUNK_CODE:
+                            remaining--;
+                            putSunk(session.getFleet().shipAt(config.rowOf(cells[shot]), config.columnOf(cells[shot])));
+                            hits++;
+                            break;
+                        case ShotResult.HIT_CODE:
+                            hits++;
+                            break;
+                        case ShotResult.INVALID_CODE:
+                            invalid++;
+                            break;
+                        case ShotResult.REPEATED_CODE:
+                            repeated++;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                reserve();
+                current.put(HITS);
+                putInt(hits);
+                current.put(INVALID);
+                putInt(invalid);
+                current.put(REPEATED);
+                putInt(repeated);
+                current.put(REMAINING);
+                putInt(remaining);
+                current.put(SHIPS);
+                if (remaining == 0)
+                    put(GAME_OVER);
+            }
+            volleyCount = 0;
+        }
+
+        /**
+         * Escreve a linha de um navio afundado no buffer de escrita corrente.
+         *
+         * @param sunk navio afundado
+         */
+        private void putSunk(IShip sunk) {
+            reserve();
+            current.put(SUNK);
+            String category = sunk.getCategory();
+            for (int c = 0; c < category.length(); c++)
+                current.put((byte) category.charAt(c));
+            current.put(SUNK_END);
+        }
+
+        /**
+         * Escreve um inteiro em decimal, em ASCII, no buffer de escrita corrente.
+         *
+         * @param value valor a escrever
+         */
+        private void putInt(int value) {
+            if (value < 0) {
+                current.put((byte) '-');
+                value = -value;
+            }
+            int divisor = 1;
+            while (value / divisor >= 10)
+                divisor *= 10;
+            for (; divisor > 0; divisor /= 10)
+                current.put((byte) ('0' + value / divisor % 10));
+        }
+
+        /**
+         * Escreve uma linha constante no buffer de escrita corrente.
+         *
+         * @param line bytes da linha
+         */
+        private void put(byte[] line) {
+            reserve();
+            current.put(line);
+        }
+
+        /**
+         * Garante que o buffer de escrita corrente tem espaço para uma linha.
+         */
+        private void reserve() {
+            if (current != null && current.remaining() >= MAX_LINE)
+                return;
+            seal();
+            current = spare != null ? spare : ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            spare = null;
+        }
+
+        /**
+         * Passa o buffer de escrita corrente, se tiver bytes, para a fila de envio.
+         */
+        private void seal() {
+            if (current == null || current.position() == 0)
+                return;
+            current.flip();
+            pending.add(current);
+            current = null;
+        }
+
+        /**
+         * Envia as respostas pendentes com escritas agregadas. Se o cliente não
+         * as puder receber todas, a ligação passa a esperar por poder escrever
+         * em vez de ler.
+         *
+         * @throws IOException se não for possível escrever
+         */
+        void write() throws IOException {
+            seal();
+            while (!pending.isEmpty()) {
+                int count = pending.size();
+                if (gather.length < count)
+                    gather = new ByteBuffer[Math.max(count, gather.length * 2)];
+                pending.toArray(gather);
+                channel.write(gather, 0, count);
+                Arrays.fill(gather, 0, count, null);
+                while (!pending.isEmpty() && !pending.peekFirst().hasRemaining())
+                    recycle(pending.pollFirst());
+                if (!pending.isEmpty()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            if (closing)
+                disconnect();
+            else
+                key.interestOps(SelectionKey.OP_READ);
+        }
+
+        /**
+         * Guarda um buffer de escrita já enviado para ser reutilizado.
+         *
+         * @param buffer buffer enviado
+         */
+        private void recycle(ByteBuffer buffer) {
+            if (spare == null && !buffer.isReadOnly() && buffer.capacity() == WRITE_BUFFER_SIZE) {
+                buffer.clear();
+                spare = buffer;
+            }
+        }
+
+        /**
+         * Fecha a ligação.
+         */
+        void disconnect() {
+            if (!channel.isOpen())
+                return;
+            key.cancel();
+            sessions--;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // a ligação já estava fechada
+            }
+        }
+    }
+
+    /**
+     * Devolve o índice do primeiro byte que não é um separador.
+     *
+     * @param a    bytes
+     * @param from índice inicial
+     * @param end  índice final (exclusivo)
+     * @return índice do primeiro byte não separador, ou {@code end}
+     */
+    private static int skipWhitespace(byte[] a, int from, int end) {
+        while (from < end && TokenReader.isWhitespace(a[from]))
+            from++;
+        return from;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Evento do Java Flight Recorder: navio recusado por uma frota.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitido por {@link Fleet#addShip(IShip)} e {@link BitboardFleet#addShip(IShip)}
+ * quando o navio é recusado, com o motivo ({@link PlacementResult}) e a duração
+ * da verificação.
+ */
+@Name("iscteiul.ista.battleship.PlacementRejected")
+@Label("Navio recusado")
+@Category({"Battleship", "Frota"})
+@Description("Navio recusado por uma frota")
+@StackTrace(false)
+final class PlacementRejectedEvent extends Event {
+
+    @Label("Categoria")
+    String category;
+
+    @Label("Linha")
+    int row;
+
+    @Label("Coluna")
+    int column;
+
+    @Label("Orientação")
+    String bearing;
+
+    @Label("Motivo")
+    String reason;
+
+    /**
+     * Preenche o evento com os dados do navio e o motivo da recusa.
+     *
+     * @param ship   navio recusado
+     * @param result motivo da recusa
+     */
+    void set(IShip ship, PlacementResult result) {
+        category = ship.getCategory();
+        row = ship.getPosition().getRow();
+        column = ship.getPosition().getColumn();
+        bearing = ship.getBearing().name();
+        reason = result.name();
+    }
+}
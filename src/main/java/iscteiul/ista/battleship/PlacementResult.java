@@ -0,0 +1,34 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Representa o resultado de uma tentativa de colocar um navio na frota.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+public enum PlacementResult {
+
+    /** Navio colocado na frota. */
+    ACCEPTED,
+
+    /** Recusado: a frota já está completa. */
+    FLEET_FULL,
+
+    /** Recusado: a quota da categoria do navio já foi atingida. */
+    OVER_QUOTA,
+
+    /** Recusado: o navio sai fora do tabuleiro. */
+    OUT_OF_BOARD,
+
+    /** Recusado: o navio toca ou fica encostado a outro navio. */
+    COLLISION;
+
+    /**
+     * Indica se o navio foi colocado.
+     *
+     * @return {@code true} para {@link #ACCEPTED}
+     */
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
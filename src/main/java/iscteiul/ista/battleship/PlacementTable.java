@@ -0,0 +1,295 @@
+/**
+ * Tabela de todas as colocações legais de navios num tabuleiro.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * Lista pré-calculada de todas as colocações de cada tipo de navio que cabem
+ * dentro de um tabuleiro com até 128 células.
+ * <p>
+ * Cada colocação é identificada por um índice e tem associado o tipo de navio,
+ * a orientação, a posição inicial, as células ocupadas e duas máscaras de bits
+ * (no formato de {@link BitboardFleet}): a das células ocupadas e a da zona
+ * proibida (células ocupadas e respetiva vizinhança). Duas colocações podem
+ * coexistir numa frota exatamente quando as células de uma não intersetam a
+ * zona proibida da outra, que é a regra de {@link Fleet#addShip(IShip)}.
+ * </p>
+ * <p>
+ * As colocações do mesmo tipo são contíguas e não há repetições: orientações
+ * que produzem as mesmas células (ex: Caravela Norte e Sul) dão uma só colocação.
+ * </p>
+ */
+public final class PlacementTable {
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Tipo de navio de cada colocação. */
+    private final byte[] kinds;
+
+    /** Orientação de cada colocação. */
+    private final Compass[] bearings;
+
+    /** Célula da posição inicial de cada colocação. */
+    private final int[] anchors;
+
+    /** Células ocupadas por cada colocação. */
+    private final int[][] cells;
+
+    /** Máscaras das células ocupadas (palavra baixa e alta). */
+    private final long[] shipLo;
+    private final long[] shipHi;
+
+    /** Máscaras da zona proibida (palavra baixa e alta). */
+    private final long[] haloLo;
+    private final long[] haloHi;
+
+    /** Primeira colocação de cada tipo; {@code first[kind + 1]} marca o fim. */
+    private final int[] first;
+
+    /** Colocações que ocupam cada célula (índice invertido), por ordem crescente. */
+    private final int[][] placementsAt;
+
+    /**
+     * Calcula todas as colocações legais no tabuleiro indicado.
+     *
+     * @param config dimensões do tabuleiro
+     * @throws IllegalArgumentException se o tabuleiro tiver mais de 128 células
+     */
+    public PlacementTable(BoardConfig config) {
+        if (config.getCells() > BitboardFleet.MAX_CELLS)
+            throw new IllegalArgumentException("ERROR! board too large for a placement table: " + config);
+        this.config = config;
+
+        int capacity = ShapeTable.KINDS * ShapeTable.BEARINGS.length * config.getCells();
+        byte[] k = new byte[capacity];
+        Compass[] b = new Compass[capacity];
+        int[] a = new int[capacity];
+        int[][] c = new int[capacity][];
+        long[] sLo = new long[capacity];
+        long[] sHi = new long[capacity];
+        first = new int[ShapeTable.KINDS + 1];
+
+        int n = 0;
+        for (int kind = 0; kind < ShapeTable.KINDS; kind++) {
+            first[kind] = n;
+            for (Compass bearing : ShapeTable.BEARINGS) {
+                ShapeTable.Shape shape = ShapeTable.shape(kind, bearing);
+                for (int row = 0; row < config.getRows(); row++)
+                    for (int column = 0; column < config.getColumns(); column++) {
+                        if (!shape.fits(row, column, config))
+                            continue;
+                        int[] shipCells = new int[shape.size()];
+                        long lo = 0L;
+                        long hi = 0L;
+                        for (int i = 0; i < shape.size(); i++) {
+                            shipCells[i] = config.cellOf(row + shape.rowOffset(i), column + shape.columnOffset(i));
+                            lo |= BitboardFleet.lo(shipCells[i]);
+                            hi |= BitboardFleet.hi(shipCells[i]);
+                        }
+                        if (contains(sLo, sHi, first[kind], n, lo, hi))
+                            continue;
+                        k[n] = (byte) kind;
+                        b[n] = bearing;
+                        a[n] = config.cellOf(row, column);
+                        c[n] = shipCells;
+                        sLo[n] = lo;
+                        sHi[n] = hi;
+                        n++;
+                    }
+            }
+        }
+        first[ShapeTable.KINDS] = n;
+
+        kinds = Arrays.copyOf(k, n);
+        bearings = Arrays.copyOf(b, n);
+        anchors = Arrays.copyOf(a, n);
+        cells = Arrays.copyOf(c, n);
+        shipLo = Arrays.copyOf(sLo, n);
+        shipHi = Arrays.copyOf(sHi, n);
+        haloLo = new long[n];
+        haloHi = new long[n];
+        for (int p = 0; p < n; p++)
+            for (int cell : cells[p])
+                for (int r = config.rowOf(cell) - 1; r <= config.rowOf(cell) + 1; r++)
+                    for (int col = config.columnOf(cell) - 1; col <= config.columnOf(cell) + 1; col++)
+                        if (config.isInside(r, col)) {
+                            haloLo[p] |= BitboardFleet.lo(config.cellOf(r, col));
+                            haloHi[p] |= BitboardFleet.hi(config.cellOf(r, col));
+                        }
+
+        int[] count = new int[config.getCells()];
+        for (int p = 0; p < n; p++)
+            for (int cell : cells[p])
+                count[cell]++;
+        placementsAt = new int[config.getCells()][];
+        for (int cell = 0; cell < placementsAt.length; cell++)
+            placementsAt[cell] = new int[count[cell]];
+        Arrays.fill(count, 0);
+        for (int p = 0; p < n; p++)
+            for (int cell : cells[p])
+                placementsAt[cell][count[cell]++] = p;
+    }
+
+    /**
+     * Verifica se já existe uma colocação com as mesmas células.
+     *
+     * @param lo      máscaras já calculadas (palavra baixa)
+     * @param hi      máscaras já calculadas (palavra alta)
+     * @param from    primeira colocação a comparar
+     * @param to      colocação seguinte à última a comparar
+     * @param cellsLo máscara das células a procurar (palavra baixa)
+     * @param cellsHi máscara das células a procurar (palavra alta)
+     * @return {@code true} se existir uma colocação com as mesmas células
+     */
+    private static boolean contains(long[] lo, long[] hi, int from, int to, long cellsLo, long cellsHi) {
+        for (int p = from; p < to; p++)
+            if (lo[p] == cellsLo && hi[p] == cellsHi)
+                return true;
+        return false;
+    }
+
+    /**
+     * Devolve as dimensões do tabuleiro.
+     *
+     * @return configuração do tabuleiro
+     */
+    public BoardConfig getBoardConfig() {
+        return config;
+    }
+
+    /**
+     * Devolve o número total de colocações.
+     *
+     * @return número de colocações
+     */
+    public int size() {
+        return kinds.length;
+    }
+
+    /**
+     * Devolve o índice da primeira colocação do tipo indicado.
+     *
+     * @param kind índice do tipo de navio ({@link ShapeTable})
+     * @return índice da primeira colocação
+     */
+    public int first(int kind) {
+        return first[kind];
+    }
+
+    /**
+     * Devolve o índice seguinte à última colocação do tipo indicado.
+     *
+     * @param kind índice do tipo de navio ({@link ShapeTable})
+     * @return índice seguinte à última colocação
+     */
+    public int end(int kind) {
+        return first[kind + 1];
+    }
+
+    /**
+     * Devolve o tipo de navio de uma colocação.
+     *
+     * @param p índice da colocação
+     * @return índice do tipo de navio
+     */
+    public int kind(int p) {
+        return kinds[p];
+    }
+
+    /**
+     * Devolve a orientação de uma colocação.
+     *
+     * @param p índice da colocação
+     * @return orientação
+     */
+    public Compass bearing(int p) {
+        return bearings[p];
+    }
+
+    /**
+     * Devolve a célula da posição inicial de uma colocação.
+     *
+     * @param p índice da colocação
+     * @return identificador da célula
+     */
+    public int anchor(int p) {
+        return anchors[p];
+    }
+
+    /**
+     * Devolve as células ocupadas por uma colocação. O array não deve ser alterado.
+     *
+     * @param p índice da colocação
+     * @return identificadores das células
+     */
+    public int[] cells(int p) {
+        return cells[p];
+    }
+
+    /**
+     * Devolve as colocações que ocupam uma célula. O array não deve ser alterado.
+     *
+     * @param cell identificador da célula
+     * @return índices das colocações, por ordem crescente
+     */
+    public int[] placementsAt(int cell) {
+        return placementsAt[cell];
+    }
+
+    /**
+     * Devolve a máscara das células ocupadas (palavra baixa).
+     *
+     * @param p índice da colocação
+     * @return máscara
+     */
+    public long shipLo(int p) {
+        return shipLo[p];
+    }
+
+    /**
+     * Devolve a máscara das células ocupadas (palavra alta).
+     *
+     * @param p índice da colocação
+     * @return máscara
+     */
+    public long shipHi(int p) {
+        return shipHi[p];
+    }
+
+    /**
+     * Devolve a máscara da zona proibida (palavra baixa).
+     *
+     * @param p índice da colocação
+     * @return máscara
+     */
+    public long haloLo(int p) {
+        return haloLo[p];
+    }
+
+    /**
+     * Devolve a máscara da zona proibida (palavra alta).
+     *
+     * @param p índice da colocação
+     * @return máscara
+     */
+    public long haloHi(int p) {
+        return haloHi[p];
+    }
+
+    /**
+     * Cria o navio correspondente a uma colocação.
+     *
+     * @param p índice da colocação
+     * @return novo navio
+     */
+    public Ship buildShip(int p) {
+        return Ship.buildShip(kinds[p], bearings[p],
+                new Position(config.rowOf(anchors[p]), config.columnOf(anchors[p])));
+    }
+}
@@ -14,8 +14,6 @@
  */
 package iscteiul.ista.battleship;
 
-import java.util.Objects;
-
 /**
  * Implementação concreta de uma posição no tabuleiro.
  */
@@ -70,11 +68,14 @@ public class Position implements IPosition {
     /**
      * Gera o código hash da posição.
      *
-     * @return valor de hash baseado na linha, coluna, estado de ocupação e estado de impacto
+     * O estado (ocupada ou atingida) não entra no cálculo, para que o hash
+     * seja coerente com {@link #equals(Object)} e estável ao longo do jogo.
+     *
+     * @return valor de hash baseado na linha e coluna
      */
     @Override
     public int hashCode() {
-        return Objects.hash(column, isHit, isOccupied, row);
+        return 31 * row + column;
     }
 
     /**
@@ -91,8 +92,8 @@ public class Position implements IPosition {
         if (this == otherPosition)
             return true;
 
-        if (otherPosition instanceof IPosition) {
-            IPosition other = (IPosition) otherPosition;
+        if (otherPosition instanceof ICoordinate) {
+            ICoordinate other = (ICoordinate) otherPosition;
             return (this.getRow() == other.getRow() &&
                     this.getColumn() == other.getColumn());
         }
@@ -109,7 +110,7 @@ public class Position implements IPosition {
      * @return {@code true} se for adjacente; {@code false} caso contrário
      */
     @Override
-    public boolean isAdjacentTo(IPosition other) {
+    public boolean isAdjacentTo(ICoordinate other) {
         return (Math.abs(this.getRow() - other.getRow()) <= 1 &&
                 Math.abs(this.getColumn() - other.getColumn()) <= 1);
     }
@@ -130,6 +131,14 @@ public class Position implements IPosition {
         isHit = true;
     }
 
+    /**
+     * Desfaz o disparo sobre a posição, usado para repor um jogo num estado
+     * anterior ({@link Game#restore(int)}).
+     */
+    void unshoot() {
+        isHit = false;
+    }
+
     /**
      * Indica se a posição está ocupada.
      *
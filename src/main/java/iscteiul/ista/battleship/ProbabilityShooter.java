@@ -0,0 +1,266 @@
+/**
+ * Jogador automático que dispara na célula com maior probabilidade de ter um navio.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Jogador de caça e alvo baseado num mapa de densidade.
+ * <p>
+ * Para cada célula é mantido o número de colocações ({@link PlacementTable})
+ * ainda possíveis que a ocupam, pesado pelo número de navios desse tipo ainda
+ * por afundar. Uma colocação deixa de ser possível quando passa por um tiro na
+ * água ou toca num navio já afundado. Enquanto não houver acertos por resolver
+ * (modo caça), o jogador dispara na célula com maior densidade; depois de um
+ * acerto (modo alvo), só contam as colocações que passam pelos acertos ainda
+ * não afundados, pesadas pelo número desses acertos que cobrem.
+ * </p>
+ * <p>
+ * Os dois mapas são atualizados de forma incremental a cada resultado: um tiro
+ * na água só percorre as colocações da célula atingida (índice invertido da
+ * tabela) e um afundamento só percorre as colocações do tipo afundado e as que
+ * tocam no navio. Escolher o tiro seguinte é uma passagem pelas células do
+ * tabuleiro. Cada instância deve ser usada por uma única thread e num só jogo.
+ * </p>
+ */
+public class ProbabilityShooter implements IShooter {
+
+    /** Colocações legais do tabuleiro. */
+    private final PlacementTable table;
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Gerador de números aleatórios, usado para desempatar. */
+    private final SplittableRandom random;
+
+    /** Número de navios ainda por afundar de cada tipo. */
+    private final int[] remaining;
+
+    /** Indica se cada colocação ainda é possível. */
+    private final boolean[] alive;
+
+    /** Número de acertos por resolver cobertos por cada colocação. */
+    private final int[] hitCount;
+
+    /** Densidade de cada célula (modo caça). */
+    private final int[] density;
+
+    /** Densidade de cada célula contando só as colocações com acertos (modo alvo). */
+    private final int[] target;
+
+    /** Indica se já foi disparado sobre cada célula. */
+    private final boolean[] shot;
+
+    /** Indica se cada célula é um acerto ainda não afundado. */
+    private final boolean[] hit;
+
+    /** Número de acertos ainda não afundados. */
+    private int unresolved;
+
+    /**
+     * Cria um jogador para o tabuleiro e a composição da configuração indicada.
+     * Calcula uma nova tabela de colocações; para muitos jogos, é preferível
+     * partilhar a tabela com {@link #ProbabilityShooter(PlacementTable, Map, SplittableRandom)}.
+     *
+     * @param config dimensões do tabuleiro e composição da frota (os limites por
+     *               categoria, ex: {@link BoardConfig#STANDARD})
+     * @param random gerador de números aleatórios
+     */
+    public ProbabilityShooter(BoardConfig config, SplittableRandom random) {
+        this(new PlacementTable(config), config.getQuotas(), random);
+    }
+
+    /**
+     * Cria um jogador.
+     *
+     * @param table       colocações legais do tabuleiro (pode ser partilhada entre threads)
+     * @param composition número de navios de cada categoria da frota adversária
+     * @param random      gerador de números aleatórios
+     * @throws IllegalArgumentException se a composição tiver categorias desconhecidas
+     */
+    public ProbabilityShooter(PlacementTable table, Map<String, Integer> composition, SplittableRandom random) {
+        this.table = table;
+        this.config = table.getBoardConfig();
+        this.random = random;
+        this.remaining = new int[ShapeTable.KINDS];
+        for (int kind : RandomFleetGenerator.shipKinds(composition))
+            remaining[kind]++;
+        this.alive = new boolean[table.size()];
+        this.hitCount = new int[table.size()];
+        this.density = new int[config.getCells()];
+        this.target = new int[config.getCells()];
+        this.shot = new boolean[config.getCells()];
+        this.hit = new boolean[config.getCells()];
+        for (int p = 0; p < table.size(); p++) {
+            alive[p] = true;
+            for (int cell : table.cells(p))
+                density[cell] += remaining[table.kind(p)];
+        }
+    }
+
+    /**
+     * Devolve uma cópia do mapa de densidade do modo caça.
+     *
+     * @return densidade de cada célula
+     */
+    int[] getDensity() {
+        return density.clone();
+    }
+
+    /**
+     * Devolve uma cópia do mapa de densidade do modo alvo.
+     *
+     * @return densidade de cada célula, contando só as colocações com acertos
+     */
+    int[] getTarget() {
+        return target.clone();
+    }
+
+    /**
+     * Escolhe a célula ainda não disparada com maior densidade (do modo alvo,
+     * se houver acertos por resolver), desempatando aleatoriamente.
+     *
+     * @return a posição onde disparar
+     * @throws IllegalStateException se já tiverem sido disparadas todas as células
+     */
+    @Override
+    public ICoordinate nextShot() {
+        int cell = -1;
+        if (unresolved > 0)
+            cell = best(target);
+        if (cell < 0)
+            cell = best(density);
+        if (cell < 0)
+            cell = best(null);
+        if (cell < 0)
+            throw new IllegalStateException("ERROR! no cells left to shoot");
+        shot[cell] = true;
+        return config.positionAt(config.rowOf(cell), config.columnOf(cell));
+    }
+
+    /**
+     * Devolve a célula ainda não disparada com o maior valor positivo no mapa
+     * indicado, escolhendo uniformemente entre empates.
+     *
+     * @param map mapa de densidade, ou {@code null} para escolher qualquer célula livre
+     * @return identificador da célula, ou {@code -1} se nenhuma tiver valor positivo
+     */
+    private int best(int[] map) {
+        int best = -1;
+        int bestValue = 0;
+        int ties = 0;
+        for (int cell = 0; cell < shot.length; cell++) {
+            if (shot[cell])
+                continue;
+            int value = map == null ? 1 : map[cell];
+            if (value > bestValue) {
+                best = cell;
+                bestValue = value;
+                ties = 1;
+            } else if (value == bestValue && value > 0 && random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void shotResult(ICoordinate shot, ShotResult result, IShip sunk) {
+        if (!config.isInside(shot.getRow(), shot.getColumn()))
+            return;
+        int cell = config.cellOf(shot.getRow(), shot.getColumn());
+        this.shot[cell] = true;
+        switch (result) {
+            case MISS:
+                for (int p : table.placementsAt(cell))
+                    kill(p);
+                break;
+            case HIT:
+                markHit(cell);
+                break;
+            case SUNK:
+                markHit(cell);
+                if (sunk != null)
+                    sink(sunk);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Regista um acerto ainda não afundado.
+     *
+     * @param cell célula atingida
+     */
+    private void markHit(int cell) {
+        if (hit[cell])
+            return;
+        hit[cell] = true;
+        unresolved++;
+        for (int p : table.placementsAt(cell))
+            if (alive[p]) {
+                hitCount[p]++;
+                int weight = remaining[table.kind(p)];
+                for (int c : table.cells(p))
+                    target[c] += weight;
+            }
+    }
+
+    /**
+     * Regista o afundamento de um navio: há menos um navio do seu tipo e
+     * nenhuma colocação pode tocar nas suas células.
+     *
+     * @param ship navio afundado
+     */
+    private void sink(IShip ship) {
+        int kind = ShapeTable.kindOf(ship.getCategory());
+        if (kind >= 0 && remaining[kind] > 0) {
+            remaining[kind]--;
+            for (int p = table.first(kind); p < table.end(kind); p++)
+                if (alive[p])
+                    for (int c : table.cells(p)) {
+                        density[c]--;
+                        target[c] -= hitCount[p];
+                    }
+        }
+
+        for (IPosition pos : ship.getPositions())
+            for (int r = pos.getRow() - 1; r <= pos.getRow() + 1; r++)
+                for (int col = pos.getColumn() - 1; col <= pos.getColumn() + 1; col++)
+                    if (config.isInside(r, col))
+                        for (int p : table.placementsAt(config.cellOf(r, col)))
+                            kill(p);
+
+        for (IPosition pos : ship.getPositions()) {
+            int cell = config.cellOf(pos.getRow(), pos.getColumn());
+            if (config.isInside(pos.getRow(), pos.getColumn()) && hit[cell]) {
+                hit[cell] = false;
+                unresolved--;
+            }
+        }
+    }
+
+    /**
+     * Marca uma colocação como impossível e retira a sua contribuição dos mapas.
+     *
+     * @param p índice da colocação
+     */
+    private void kill(int p) {
+        if (!alive[p])
+            return;
+        alive[p] = false;
+        int weight = remaining[table.kind(p)];
+        int targetWeight = weight * hitCount[p];
+        for (int c : table.cells(p)) {
+            density[c] -= weight;
+            target[c] -= targetWeight;
+        }
+    }
+}
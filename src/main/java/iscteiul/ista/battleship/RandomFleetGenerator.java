@@ -0,0 +1,211 @@
+/**
+ * Gerador de frotas aleatórias válidas para o jogo de Batalha Naval.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Gera frotas aleatórias que respeitam as regras de {@link Fleet#addShip(IShip)}
+ * (navios dentro do tabuleiro e sem se tocarem) e a composição pedida.
+ * <p>
+ * A geração trabalha sobre um {@link PlacementTable}: para cada navio, do maior
+ * para o menor, é sorteada uma colocação do seu tipo e aceite se não intersetar
+ * a zona proibida dos navios já colocados (uma operação de bits). Se nenhuma
+ * colocação for possível, o navio anterior é recolocado (retrocesso) e, em
+ * último caso, a frota recomeça do zero. O resultado é uma lista de índices de
+ * colocações, escrita num array fornecido pelo chamador, sem alocação de memória.
+ * </p>
+ * <p>
+ * Os números aleatórios vêm de um {@link SplittableRandom}, pelo que a mesma
+ * semente produz sempre a mesma sequência de frotas. Cada instância deve ser
+ * usada por uma única thread.
+ * </p>
+ */
+public class RandomFleetGenerator {
+
+    /** Número de sorteios de uma colocação antes de a procurar sequencialmente. */
+    private static final int SAMPLES = 16;
+
+    /** Número de retrocessos permitidos antes de recomeçar a frota do zero. */
+    private static final int MAX_BACKTRACKS = 64;
+
+    /** Colocações legais do tabuleiro. */
+    private final PlacementTable table;
+
+    /** Gerador de números aleatórios. */
+    private final SplittableRandom random;
+
+    /** Tipo de cada navio da frota, do maior para o menor. */
+    private final int[] shipKinds;
+
+    /** Zona proibida antes de colocar cada navio (palavra baixa e alta). */
+    private final long[] forbiddenLo;
+    private final long[] forbiddenHi;
+
+    /**
+     * Cria um gerador para o tabuleiro e a composição da configuração indicada.
+     *
+     * @param config dimensões do tabuleiro e composição da frota (os limites por
+     *               categoria, ex: {@link BoardConfig#STANDARD})
+     * @param seed   semente do gerador de números aleatórios
+     */
+    public RandomFleetGenerator(BoardConfig config, long seed) {
+        this(new PlacementTable(config), config.getQuotas(), new SplittableRandom(seed));
+    }
+
+    /**
+     * Cria um gerador com a composição indicada.
+     * A tabela de colocações pode ser partilhada entre geradores de várias threads.
+     *
+     * @param table       colocações legais do tabuleiro
+     * @param composition número de navios de cada categoria (ex: "Barca" -> 4)
+     * @param random      gerador de números aleatórios
+     * @throws IllegalArgumentException se a composição estiver vazia, tiver categorias
+     *                                  desconhecidas ou exceder o limite da frota
+     */
+    public RandomFleetGenerator(PlacementTable table, Map<String, Integer> composition, SplittableRandom random) {
+        this.table = table;
+        this.random = random;
+        this.shipKinds = shipKinds(composition);
+        if (shipKinds.length == 0)
+            throw new IllegalArgumentException("ERROR! empty fleet composition");
+        if (shipKinds.length > table.getBoardConfig().getFleetSize() + 1)
+            throw new IllegalArgumentException("ERROR! fleet composition exceeds the fleet size: " + composition);
+        this.forbiddenLo = new long[shipKinds.length + 1];
+        this.forbiddenHi = new long[shipKinds.length + 1];
+    }
+
+    /**
+     * Converte uma composição numa lista de tipos de navio, do maior para o menor.
+     *
+     * @param composition número de navios de cada categoria
+     * @return tipo de cada navio
+     * @throws IllegalArgumentException se houver categorias desconhecidas
+     */
+    static int[] shipKinds(Map<String, Integer> composition) {
+        int[] count = new int[ShapeTable.KINDS];
+        int total = 0;
+        for (Map.Entry<String, Integer> e : composition.entrySet()) {
+            int kind = ShapeTable.kindOf(e.getKey());
+            if (kind < 0)
+                throw new IllegalArgumentException("ERROR! unknown ship category " + e.getKey());
+            count[kind] += e.getValue();
+            total += e.getValue();
+        }
+        int[] kinds = new int[total];
+        int i = 0;
+        for (int kind = ShapeTable.KINDS - 1; kind >= 0; kind--)
+            for (int j = 0; j < count[kind]; j++)
+                kinds[i++] = kind;
+        return kinds;
+    }
+
+    /**
+     * Devolve a tabela de colocações usada pelo gerador.
+     *
+     * @return tabela de colocações
+     */
+    public PlacementTable getPlacements() {
+        return table;
+    }
+
+    /**
+     * Devolve o número de navios de cada frota gerada.
+     *
+     * @return número de navios
+     */
+    public int getShipCount() {
+        return shipKinds.length;
+    }
+
+    /**
+     * Gera uma frota e escreve os índices das colocações escolhidas no array indicado.
+     *
+     * @param placements array com pelo menos {@link #getShipCount()} posições
+     * @throws IllegalStateException se não for possível colocar a frota no tabuleiro
+     */
+    public void nextLayout(int[] placements) {
+        int restarts = 0;
+        int backtracks = 0;
+        int i = 0;
+        while (i < shipKinds.length) {
+            int p = choose(shipKinds[i], forbiddenLo[i], forbiddenHi[i]);
+            if (p >= 0) {
+                placements[i] = p;
+                forbiddenLo[i + 1] = forbiddenLo[i] | table.haloLo(p);
+                forbiddenHi[i + 1] = forbiddenHi[i] | table.haloHi(p);
+                i++;
+            } else if (i > 0 && backtracks < MAX_BACKTRACKS) {
+                backtracks++;
+                i--;
+            } else {
+                if (++restarts > MAX_BACKTRACKS)
+                    throw new IllegalStateException("ERROR! unable to place the fleet on the board");
+                backtracks = 0;
+                i = 0;
+            }
+        }
+    }
+
+    /**
+     * Gera uma frota e devolve os índices das colocações escolhidas.
+     *
+     * @return índices das colocações, um por navio
+     */
+    public int[] nextLayout() {
+        int[] placements = new int[shipKinds.length];
+        nextLayout(placements);
+        return placements;
+    }
+
+    /**
+     * Gera uma frota e constrói-a com objetos {@link Fleet} e {@link Ship}.
+     *
+     * @return nova frota, com todos os navios já adicionados
+     * @throws IllegalStateException se a frota recusar um dos navios gerados
+     */
+    public Fleet nextFleet() {
+        int[] placements = nextLayout();
+        Fleet fleet = new Fleet(table.getBoardConfig());
+        for (int p : placements) {
+            IShip ship = table.buildShip(p);
+            if (!fleet.addShip(ship))
+                throw new IllegalStateException("ERROR! generated ship rejected by the fleet: " + ship);
+        }
+        return fleet;
+    }
+
+    /**
+     * Escolhe aleatoriamente uma colocação do tipo indicado que não intersete
+     * a zona proibida: primeiro por sorteio e, se falhar, percorrendo as
+     * colocações a partir de um ponto aleatório.
+     *
+     * @param kind        tipo de navio
+     * @param forbiddenLo zona proibida (palavra baixa)
+     * @param forbiddenHi zona proibida (palavra alta)
+     * @return índice da colocação, ou {@code -1} se não houver nenhuma possível
+     */
+    private int choose(int kind, long forbiddenLo, long forbiddenHi) {
+        int first = table.first(kind);
+        int count = table.end(kind) - first;
+        if (count == 0)
+            return -1;
+        for (int t = 0; t < SAMPLES; t++) {
+            int p = first + random.nextInt(count);
+            if (((table.shipLo(p) & forbiddenLo) | (table.shipHi(p) & forbiddenHi)) == 0)
+                return p;
+        }
+        int start = random.nextInt(count);
+        for (int j = 0; j < count; j++) {
+            int p = first + (start + j) % count;
+            if (((table.shipLo(p) & forbiddenLo) | (table.shipHi(p) & forbiddenHi)) == 0)
+                return p;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Jogador automático que dispara em posições aleatórias, sem repetir.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Dispara sobre todas as células do tabuleiro por uma ordem aleatória,
+ * nunca repetindo um tiro. Serve de referência para comparar outros jogadores.
+ */
+public class RandomShooter implements IShooter {
+
+    /** Dimensões do tabuleiro. */
+    private final BoardConfig config;
+
+    /** Células ainda não disparadas, nas posições {@code 0..remaining-1}. */
+    private final int[] cells;
+
+    /** Gerador de números aleatórios. */
+    private final SplittableRandom random;
+
+    /** Número de células ainda não disparadas. */
+    private int remaining;
+
+    /**
+     * Cria um jogador aleatório.
+     *
+     * @param config dimensões do tabuleiro
+     * @param random gerador de números aleatórios
+     */
+    public RandomShooter(BoardConfig config, SplittableRandom random) {
+        this.config = config;
+        this.random = random;
+        this.cells = new int[config.getCells()];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = i;
+        this.remaining = cells.length;
+    }
+
+    /**
+     * Sorteia uma das células ainda não disparadas (passo do baralhamento de Fisher-Yates).
+     *
+     * @return a posição onde disparar
+     * @throws IllegalStateException se já tiverem sido disparadas todas as células
+     */
+    @Override
+    public ICoordinate nextShot() {
+        if (remaining == 0)
+            throw new IllegalStateException("ERROR! no cells left to shoot");
+        int i = random.nextInt(remaining);
+        int cell = cells[i];
+        cells[i] = cells[--remaining];
+        cells[remaining] = cell;
+        return config.positionAt(config.rowOf(cell), config.columnOf(cell));
+    }
+
+    @Override
+    public void shotResult(ICoordinate shot, ShotResult result, IShip sunk) {
+        // a ordem dos tiros não depende dos resultados
+    }
+}
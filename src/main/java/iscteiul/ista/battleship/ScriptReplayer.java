@@ -0,0 +1,270 @@
+/**
+ * Reprodução em lote de ficheiros de comandos gravados (gramática da tarefa D).
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reproduz todos os ficheiros de comandos de uma diretoria, em paralelo e sem
+ * escrever na consola, e grava os contadores finais de cada jogo num ficheiro
+ * de resultados.
+ * <p>
+ * Cada ficheiro é lido por um {@link TokenReader} diretamente sobre um buffer
+ * com o seu conteúdo: os ficheiros pequenos são lidos para um buffer reutilizado
+ * por cada thread e só os maiores do que {@link #MAP_THRESHOLD} são mapeados em
+ * memória, já que cada mapeamento só é libertado pelo coletor de lixo e o número
+ * de mapeamentos de um processo é limitado ({@code vm.max_map_count} em Linux).
+ * Os comandos seguem a gramática de
+ * {@link Tasks#taskD()}: cada {@code nova} começa um jogo novo e os comandos de
+ * visualização ({@code estado}, {@code mapa}, {@code ver}) são ignorados. A
+ * reprodução de um ficheiro termina em {@code desisto} ou no fim do ficheiro.
+ * </p>
+ * <p>
+ * O ficheiro de resultados tem uma linha por jogo, pela ordem dos nomes dos
+ * ficheiros: {@code ficheiro jogo acertos invalidos repetidos afundados}, com
+ * os jogos de cada ficheiro numerados a partir de 1. Um ficheiro que não possa
+ * ser lido, que termine a meio de um comando ou que tenha um comando inválido
+ * dá uma linha {@code ficheiro ERRO descrição}, depois das linhas dos jogos já
+ * começados.
+ * </p>
+ */
+public class ScriptReplayer {
+
+    /** Número de ficheiros a partir do qual uma tarefa é dividida em duas. */
+    private static final int THRESHOLD = 16;
+
+    /** Dimensão a partir da qual um ficheiro é mapeado em memória em vez de lido. */
+    static final int MAP_THRESHOLD = 1 << 20;
+
+    /** Dimensão inicial do buffer de leitura de cada thread. */
+    private static final int READ_BUFFER_SIZE = 1 << 13;
+
+    /** Buffer de leitura de cada thread, reutilizado entre ficheiros. */
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(READ_BUFFER_SIZE));
+
+    /** Cabeçalho do ficheiro de resultados. */
+    static final String HEADER = "# ficheiro jogo acertos invalidos repetidos afundados";
+
+    /**
+     * Classe utilitária: não é instanciável.
+     */
+    private ScriptReplayer() {
+    }
+
+    /**
+     * Reproduz os ficheiros de uma diretoria no {@link ForkJoinPool#commonPool()}.
+     *
+     * @param directory diretoria com os ficheiros de comandos
+     * @param results   ficheiro de resultados a criar (ou substituir)
+     * @return número de ficheiros reproduzidos
+     * @throws IOException se a diretoria não puder ser listada ou os resultados escritos
+     */
+    public static int replay(Path directory, Path results) throws IOException {
+        return replay(directory, results, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reproduz os ficheiros de uma diretoria no {@link ForkJoinPool} indicado.
+     *
+     * @param directory diretoria com os ficheiros de comandos
+     * @param results   ficheiro de resultados a criar (ou substituir)
+     * @param pool      conjunto de threads onde correm as reproduções
+     * @return número de ficheiros reproduzidos
+     * @throws IOException se a diretoria não puder ser listada ou os resultados escritos
+     */
+    public static int replay(Path directory, Path results, ForkJoinPool pool) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        String[] lines = new String[files.size()];
+        pool.invoke(new Batch(files, lines, 0, files.size()));
+
+        try (BufferedWriter out = Files.newBufferedWriter(results, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (String line : lines)
+                out.write(line);
+        }
+        return files.size();
+    }
+
+    /**
+     * Reproduz um ficheiro de comandos.
+     *
+     * @param file ficheiro de comandos
+     * @return linhas de resultados do ficheiro, cada uma terminada por mudança de linha
+     */
+    static String replayFile(Path file) {
+        StringBuilder out = new StringBuilder();
+        String name = file.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = size > MAP_THRESHOLD
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    : read(channel, (int) size);
+            replay(new TokenReader(buffer), name, out);
+        } catch (IOException | RuntimeException e) {
+            out.append(name).append(" ERRO ").append(describe(e)).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Lê um ficheiro pequeno para o buffer de leitura da thread atual,
+     * aumentando-o se for preciso.
+     *
+     * @param channel canal do ficheiro
+     * @param size    dimensão do ficheiro
+     * @return buffer com o conteúdo do ficheiro, pronto a ler
+     * @throws IOException se não for possível ler o ficheiro
+     */
+    private static ByteBuffer read(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = READ_BUFFER.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, Math.min(2 * buffer.capacity(), MAP_THRESHOLD)));
+            READ_BUFFER.set(buffer);
+        }
+        buffer.clear().limit(size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // lê até encher o buffer ou chegar ao fim do ficheiro
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Descreve o erro que interrompeu a reprodução de um ficheiro.
+     *
+     * @param e exceção lançada
+     * @return descrição numa linha
+     */
+    private static String describe(Exception e) {
+        if (e instanceof InputMismatchException)
+            return "numero esperado";
+        if (e instanceof NoSuchElementException)
+            return "fim inesperado";
+        return e.toString().replace('\n', ' ');
+    }
+
+    /**
+     * Reproduz os comandos de um leitor, acrescentando uma linha por jogo.
+     *
+     * @param in   leitor dos comandos
+     * @param name nome do ficheiro, usado nas linhas de resultados
+     * @param out  destino das linhas de resultados
+     * @throws NoSuchElementException se os comandos terminarem a meio de um comando
+     * @throws InputMismatchException se faltar um número num comando
+     */
+    static void replay(TokenReader in, String name, StringBuilder out) {
+        IGame game = null;
+        int games = 0;
+        int[] cells = new int[Tasks.NUMBER_SHOTS];
+        int[] coordinates = new int[2 * Tasks.NUMBER_SHOTS];
+        byte[] results = new byte[Tasks.NUMBER_SHOTS];
+        try {
+            while (in.hasNext()) {
+                String command = in.next();
+                if (command.equals(Tasks.DESISTIR))
+                    break;
+                switch (command) {
+                    case Tasks.NOVAFROTA:
+                        if (game != null)
+                            append(out, name, ++games, game);
+                        game = new Game(Tasks.buildFleet(in, false));
+                        break;
+                    case Tasks.RAJADA:
+                        if (game != null)
+                            Tasks.firingRound(in, game, cells, coordinates, results);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            if (game != null)
+                append(out, name, ++games, game);
+        }
+    }
+
+    /**
+     * Acrescenta a linha de resultados de um jogo.
+     *
+     * @param out   destino da linha
+     * @param name  nome do ficheiro
+     * @param index número do jogo no ficheiro
+     * @param game  jogo terminado
+     */
+    private static void append(StringBuilder out, String name, int index, IGame game) {
+        out.append(name).append(' ').append(index)
+                .append(' ').append(game.getHits())
+                .append(' ').append(game.getInvalidShots())
+                .append(' ').append(game.getRepeatedShots())
+                .append(' ').append(game.getSunkShips())
+                .append('\n');
+    }
+
+    /**
+     * Tarefa que reproduz os ficheiros com índices em {@code [from, to)},
+     * dividindo-se em duas enquanto tiver mais de {@link #THRESHOLD} ficheiros.
+     */
+    private static class Batch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Ficheiros a reproduzir. */
+        private final List<Path> files;
+
+        /** Linhas de resultados de cada ficheiro. */
+        private final String[] lines;
+
+        /** Índice do primeiro ficheiro. */
+        private final int from;
+
+        /** Índice seguinte ao do último ficheiro. */
+        private final int to;
+
+        /**
+         * Cria a tarefa para os ficheiros {@code [from, to)}.
+         *
+         * @param files ficheiros a reproduzir
+         * @param lines linhas de resultados de cada ficheiro
+         * @param from  índice do primeiro ficheiro
+         * @param to    índice seguinte ao do último ficheiro
+         */
+        Batch(List<Path> files, String[] lines, int from, int to) {
+            this.files = files;
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++)
+                    lines[i] = replayFile(files.get(i));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(files, lines, from, middle), new Batch(files, lines, middle, to));
+        }
+    }
+}
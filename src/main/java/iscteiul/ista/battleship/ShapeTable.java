@@ -0,0 +1,251 @@
+/**
+ * Tabela estática com a forma de cada tipo de navio em cada orientação.
+ * <p>
+ * Para cada tipo de navio e cada orientação ({@link Compass}) é guardado,
+ * uma única vez, o conjunto de deslocamentos (linha, coluna) das células
+ * ocupadas relativamente à posição inicial do navio, bem como a caixa
+ * envolvente desses deslocamentos. Construir um navio ou verificar se cabe
+ * no tabuleiro passa assim a ser uma consulta a esta tabela.
+ * </p>
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Formas pré-calculadas dos navios.
+ */
+public final class ShapeTable {
+
+    /** Índice do tipo "Barca". */
+    public static final int BARCA = 0;
+
+    /** Índice do tipo "Caravela". */
+    public static final int CARAVELA = 1;
+
+    /** Índice do tipo "Nau". */
+    public static final int NAU = 2;
+
+    /** Índice do tipo "Fragata". */
+    public static final int FRAGATA = 3;
+
+    /** Índice do tipo "Galeão". */
+    public static final int GALEAO = 4;
+
+    /** Número de tipos de navio. */
+    public static final int KINDS = 5;
+
+    /** Categoria de cada tipo de navio, indexada pelo índice do tipo. */
+    private static final String[] CATEGORIES = {"Barca", "Caravela", "Nau", "Fragata", "Galeao"};
+
+    /** Orientações válidas para navios. */
+    public static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /** Formas indexadas por tipo de navio e pelo ordinal da orientação ({@code null} se inválida). */
+    private static final Shape[][] SHAPES = new Shape[KINDS][Compass.values().length];
+
+    static {
+        for (Compass bearing : BEARINGS) {
+            SHAPES[BARCA][bearing.ordinal()] = new Shape(new int[]{0}, new int[]{0});
+            SHAPES[CARAVELA][bearing.ordinal()] = line(2, bearing);
+            SHAPES[NAU][bearing.ordinal()] = line(3, bearing);
+            SHAPES[FRAGATA][bearing.ordinal()] = line(4, bearing);
+        }
+        SHAPES[BARCA][Compass.UNKNOWN.ordinal()] = SHAPES[BARCA][Compass.NORTH.ordinal()];
+
+        SHAPES[GALEAO][Compass.NORTH.ordinal()] =
+                new Shape(new int[]{0, 0, 0, 1, 2}, new int[]{0, 1, 2, 1, 1});
+        SHAPES[GALEAO][Compass.SOUTH.ordinal()] =
+                new Shape(new int[]{0, 1, 2, 2, 2}, new int[]{0, 0, -1, 0, 1});
+        SHAPES[GALEAO][Compass.EAST.ordinal()] =
+                new Shape(new int[]{0, 1, 1, 1, 2}, new int[]{0, -2, -1, 0, 0});
+        SHAPES[GALEAO][Compass.WEST.ordinal()] =
+                new Shape(new int[]{0, 1, 1, 1, 2}, new int[]{0, 0, 1, 2, 0});
+    }
+
+    /**
+     * Classe utilitária: não é instanciável.
+     */
+    private ShapeTable() {
+    }
+
+    /**
+     * Cria a forma de um navio em linha reta: vertical para Norte/Sul,
+     * horizontal para Este/Oeste.
+     *
+     * @param size    número de células
+     * @param bearing orientação
+     * @return forma do navio
+     */
+    private static Shape line(int size, Compass bearing) {
+        boolean vertical = bearing == Compass.NORTH || bearing == Compass.SOUTH;
+        int[] rows = new int[size];
+        int[] columns = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = vertical ? i : 0;
+            columns[i] = vertical ? 0 : i;
+        }
+        return new Shape(rows, columns);
+    }
+
+    /**
+     * Devolve a forma de um tipo de navio numa orientação.
+     *
+     * @param kind    índice do tipo de navio
+     * @param bearing orientação
+     * @return forma do navio, ou {@code null} se a orientação não for válida para o tipo
+     * @throws NullPointerException se a orientação for {@code null}
+     */
+    public static Shape shape(int kind, Compass bearing) {
+        return SHAPES[kind][bearing.ordinal()];
+    }
+
+    /**
+     * Devolve o índice do tipo de navio com a categoria indicada.
+     *
+     * @param category categoria (ex: "Galeao")
+     * @return índice do tipo, ou {@code -1} se a categoria não existir
+     */
+    public static int kindOf(String category) {
+        for (int kind = 0; kind < KINDS; kind++)
+            if (CATEGORIES[kind].equals(category))
+                return kind;
+        return -1;
+    }
+
+    /**
+     * Devolve a categoria de um tipo de navio.
+     *
+     * @param kind índice do tipo
+     * @return categoria (ex: "Galeao")
+     */
+    public static String categoryOf(int kind) {
+        return CATEGORIES[kind];
+    }
+
+    /**
+     * Forma de um navio: deslocamentos das células ocupadas relativamente
+     * à posição inicial e respetiva caixa envolvente.
+     */
+    public static final class Shape {
+
+        /** Deslocamentos de linha de cada célula. */
+        private final int[] rowOffsets;
+
+        /** Deslocamentos de coluna de cada célula. */
+        private final int[] columnOffsets;
+
+        /** Menor deslocamento de linha. */
+        private final int top;
+
+        /** Maior deslocamento de linha. */
+        private final int bottom;
+
+        /** Menor deslocamento de coluna. */
+        private final int left;
+
+        /** Maior deslocamento de coluna. */
+        private final int right;
+
+        /**
+         * Cria uma forma a partir dos deslocamentos das suas células.
+         *
+         * @param rowOffsets    deslocamentos de linha
+         * @param columnOffsets deslocamentos de coluna
+         */
+        private Shape(int[] rowOffsets, int[] columnOffsets) {
+            this.rowOffsets = rowOffsets;
+            this.columnOffsets = columnOffsets;
+            int t = 0, b = 0, l = 0, r = 0;
+            for (int i = 0; i < rowOffsets.length; i++) {
+                t = Math.min(t, rowOffsets[i]);
+                b = Math.max(b, rowOffsets[i]);
+                l = Math.min(l, columnOffsets[i]);
+                r = Math.max(r, columnOffsets[i]);
+            }
+            this.top = t;
+            this.bottom = b;
+            this.left = l;
+            this.right = r;
+        }
+
+        /**
+         * Devolve o número de células da forma.
+         *
+         * @return número de células
+         */
+        public int size() {
+            return rowOffsets.length;
+        }
+
+        /**
+         * Devolve o deslocamento de linha da célula {@code i}.
+         *
+         * @param i índice da célula
+         * @return deslocamento de linha
+         */
+        public int rowOffset(int i) {
+            return rowOffsets[i];
+        }
+
+        /**
+         * Devolve o deslocamento de coluna da célula {@code i}.
+         *
+         * @param i índice da célula
+         * @return deslocamento de coluna
+         */
+        public int columnOffset(int i) {
+            return columnOffsets[i];
+        }
+
+        /**
+         * Devolve o menor deslocamento de linha.
+         *
+         * @return deslocamento da linha mais superior
+         */
+        public int top() {
+            return top;
+        }
+
+        /**
+         * Devolve o maior deslocamento de linha.
+         *
+         * @return deslocamento da linha mais inferior
+         */
+        public int bottom() {
+            return bottom;
+        }
+
+        /**
+         * Devolve o menor deslocamento de coluna.
+         *
+         * @return deslocamento da coluna mais à esquerda
+         */
+        public int left() {
+            return left;
+        }
+
+        /**
+         * Devolve o maior deslocamento de coluna.
+         *
+         * @return deslocamento da coluna mais à direita
+         */
+        public int right() {
+            return right;
+        }
+
+        /**
+         * Verifica se um navio com esta forma, colocado em (linha, coluna),
+         * fica totalmente dentro do tabuleiro.
+         *
+         * @param row    linha da posição inicial
+         * @param column coluna da posição inicial
+         * @param config dimensões do tabuleiro
+         * @return {@code true} se couber no tabuleiro
+         */
+        public boolean fits(int row, int column, BoardConfig config) {
+            return row + top >= 0 && row + bottom < config.getRows()
+                    && column + left >= 0 && column + right < config.getColumns();
+        }
+    }
+}
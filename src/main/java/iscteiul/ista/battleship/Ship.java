@@ -54,7 +54,7 @@ public abstract class Ship implements IShip {
      * @return instância concreta de {@code Ship} ou {@code null}
      *         caso o tipo seja inválido
      */
-    static Ship buildShip(String shipKind, Compass bearing, Position pos) {
+    static Ship buildShip(String shipKind, Compass bearing, IPosition pos) {
         Ship s;
         switch (shipKind) {
             case BARCA:
@@ -78,6 +78,40 @@ public abstract class Ship implements IShip {
         return s;
     }
 
+    /**
+     * Método de fábrica que cria um navio a partir do índice do seu tipo
+     * em {@link ShapeTable}.
+     *
+     * @param kind    índice do tipo de navio (ex: {@link ShapeTable#GALEAO})
+     * @param bearing orientação do navio no tabuleiro
+     * @param pos     posição inicial do navio
+     * @return instância concreta de {@code Ship} ou {@code null}
+     *         caso o tipo seja inválido
+     */
+    static Ship buildShip(int kind, Compass bearing, IPosition pos) {
+        Ship s;
+        switch (kind) {
+            case ShapeTable.BARCA:
+                s = new Barge(bearing, pos);
+                break;
+            case ShapeTable.CARAVELA:
+                s = new Caravel(bearing, pos);
+                break;
+            case ShapeTable.NAU:
+                s = new Carrack(bearing, pos);
+                break;
+            case ShapeTable.FRAGATA:
+                s = new Frigate(bearing, pos);
+                break;
+            case ShapeTable.GALEAO:
+                s = new Galleon(bearing, pos);
+                break;
+            default:
+                s = null;
+        }
+        return s;
+    }
+
     /** Categoria (tipo) do navio */
     private String category;
 
@@ -90,6 +124,15 @@ public abstract class Ship implements IShip {
     /** Lista de posições ocupadas pelo navio */
     protected List<IPosition> positions;
 
+    /** Forma do navio, obtida de {@link ShapeTable} */
+    private ShapeTable.Shape shape;
+
+    /** Número de posições do navio já atingidas */
+    private int hits;
+
+    /** Frota a que o navio pertence, avisada quando o navio é afundado */
+    private Fleet fleet;
+
     /**
      * Constrói um navio com categoria, orientação e posição inicial.
      *
@@ -109,6 +152,25 @@ public abstract class Ship implements IShip {
         this.positions = new ArrayList<>();
     }
 
+    /**
+     * Coloca o navio no tabuleiro segundo a forma indicada, criando
+     * as posições ocupadas a partir dos deslocamentos pré-calculados.
+     * Deve ser chamado uma única vez, pelo construtor da subclasse; as subclasses
+     * que preenchem {@link #positions} diretamente continuam suportadas, com os
+     * extremos do navio calculados a partir das posições.
+     *
+     * @param shape forma do navio para a sua orientação
+     */
+    protected void place(ShapeTable.Shape shape) {
+        assert shape != null;
+
+        this.shape = shape;
+        this.positions = new ArrayList<>(shape.size());
+        for (int i = 0; i < shape.size(); i++)
+            positions.add(new Position(pos.getRow() + shape.rowOffset(i),
+                    pos.getColumn() + shape.columnOffset(i)));
+    }
+
     /**
      * Devolve a categoria do navio.
      *
@@ -152,17 +214,34 @@ public abstract class Ship implements IShip {
      * Verifica se o navio ainda está a flutuar.
      * <p>
      * Um navio está a flutuar se pelo menos uma das suas posições
-     * ainda não tiver sido atingida.
+     * ainda não tiver sido atingida. O número de posições atingidas é
+     * contado em {@link #shoot(ICoordinate)}, pelo que a verificação é O(1).
      *
      * @return {@code true} se ainda existir pelo menos uma posição não atingida;
      *         {@code false} caso contrário
      */
     @Override
     public boolean stillFloating() {
-        for (int i = 0; i < getSize(); i++)
-            if (!getPositions().get(i).isHit())
-                return true;
-        return false;
+        return hits < getSize();
+    }
+
+    /**
+     * Associa o navio à frota que o contém, para que esta seja
+     * avisada quando o navio for afundado.
+     *
+     * @param fleet frota a que o navio pertence
+     */
+    void setFleet(Fleet fleet) {
+        this.fleet = fleet;
+    }
+
+    /**
+     * Devolve a forma do navio.
+     *
+     * @return forma pré-calculada do navio
+     */
+    ShapeTable.Shape getShape() {
+        return shape;
     }
 
     /**
@@ -172,11 +251,9 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getTopMostPos() {
-        int top = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() < top)
-                top = getPositions().get(i).getRow();
-        return top;
+        if (shape == null)
+            return extreme(true, true);
+        return pos.getRow() + shape.top();
     }
 
     /**
@@ -186,11 +263,9 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getBottomMostPos() {
-        int bottom = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() > bottom)
-                bottom = getPositions().get(i).getRow();
-        return bottom;
+        if (shape == null)
+            return extreme(true, false);
+        return pos.getRow() + shape.bottom();
     }
 
     /**
@@ -200,11 +275,9 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getLeftMostPos() {
-        int left = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() < left)
-                left = getPositions().get(i).getColumn();
-        return left;
+        if (shape == null)
+            return extreme(false, true);
+        return pos.getColumn() + shape.left();
     }
 
     /**
@@ -214,11 +287,28 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getRightMostPos() {
-        int right = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() > right)
-                right = getPositions().get(i).getColumn();
-        return right;
+        if (shape == null)
+            return extreme(false, false);
+        return pos.getColumn() + shape.right();
+    }
+
+    /**
+     * Procura a linha ou coluna extrema nas posições do navio, para navios
+     * cuja subclasse preenche as posições sem chamar {@link #place(ShapeTable.Shape)}.
+     *
+     * @param rows {@code true} para linhas, {@code false} para colunas
+     * @param min  {@code true} para o mínimo, {@code false} para o máximo
+     * @return linha ou coluna extrema ocupada pelo navio
+     */
+    private int extreme(boolean rows, boolean min) {
+        List<IPosition> positions = getPositions();
+        int extreme = rows ? positions.get(0).getRow() : positions.get(0).getColumn();
+        for (int i = 1; i < getSize(); i++) {
+            int value = rows ? positions.get(i).getRow() : positions.get(i).getColumn();
+            if (min ? value < extreme : value > extreme)
+                extreme = value;
+        }
+        return extreme;
     }
 
     /**
@@ -229,7 +319,7 @@ public abstract class Ship implements IShip {
      *         {@code false} caso contrário
      */
     @Override
-    public boolean occupies(IPosition pos) {
+    public boolean occupies(ICoordinate pos) {
         assert pos != null;
 
         for (int i = 0; i < getSize(); i++)
@@ -268,7 +358,7 @@ public abstract class Ship implements IShip {
      *         {@code false} caso contrário
      */
     @Override
-    public boolean tooCloseTo(IPosition pos) {
+    public boolean tooCloseTo(ICoordinate pos) {
         for (int i = 0; i < this.getSize(); i++)
             if (getPositions().get(i).isAdjacentTo(pos))
                 return true;
@@ -278,17 +368,52 @@ public abstract class Ship implements IShip {
     /**
      * Regista um disparo numa determinada posição.
      * <p>
-     * Se a posição pertencer ao navio, essa posição é marcada como atingida.
+     * Se a posição pertencer ao navio e ainda não tiver sido atingida,
+     * é marcada como atingida e o contador de impactos é incrementado.
+     * Se o navio ficar afundado, a frota a que pertence é avisada.
      *
      * @param pos posição alvo do disparo
      */
     @Override
-    public void shoot(IPosition pos) {
+    public void shoot(ICoordinate pos) {
         assert pos != null;
 
-        for (IPosition position : getPositions()) {
-            if (position.equals(pos))
-                position.shoot();
+        List<IPosition> positions = getPositions();
+        for (int i = 0; i < positions.size(); i++) {
+            IPosition position = positions.get(i);
+            if (position.equals(pos)) {
+                if (!position.isHit()) {
+                    position.shoot();
+                    hits++;
+                    if (hits == getSize() && fleet != null)
+                        fleet.shipSunk(this);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Desfaz um disparo registado por {@link #shoot(ICoordinate)}: a posição
+     * volta a não estar atingida e, se o navio estava afundado, a frota a que
+     * pertence é avisada de que voltou a flutuar. Os disparos devem ser
+     * desfeitos pela ordem inversa daquela em que foram feitos.
+     *
+     * @param pos posição do disparo a desfazer
+     */
+    void unshoot(ICoordinate pos) {
+        List<IPosition> positions = getPositions();
+        for (int i = 0; i < positions.size(); i++) {
+            IPosition position = positions.get(i);
+            if (position.equals(pos)) {
+                if (position.isHit()) {
+                    if (hits == getSize() && fleet != null)
+                        fleet.shipRefloated(this);
+                    hits--;
+                    ((Position) position).unshoot();
+                }
+                return;
+            }
         }
     }
 
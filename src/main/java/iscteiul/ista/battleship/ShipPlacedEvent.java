@@ -0,0 +1,53 @@
+/**
+ * Evento do Java Flight Recorder: navio colocado numa frota.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitido por {@link Fleet#addShip(IShip)} e {@link BitboardFleet#addShip(IShip)}
+ * quando o navio é aceite, com a duração da colocação.
+ */
+@Name("iscteiul.ista.battleship.ShipPlaced")
+@Label("Navio colocado")
+@Category({"Battleship", "Frota"})
+@Description("Navio aceite numa frota")
+@StackTrace(false)
+final class ShipPlacedEvent extends Event {
+
+    @Label("Categoria")
+    String category;
+
+    @Label("Linha")
+    int row;
+
+    @Label("Coluna")
+    int column;
+
+    @Label("Orientação")
+    String bearing;
+
+    @Label("Tamanho")
+    int size;
+
+    /**
+     * Preenche o evento com os dados do navio.
+     *
+     * @param ship navio colocado
+     */
+    void set(IShip ship) {
+        category = ship.getCategory();
+        row = ship.getPosition().getRow();
+        column = ship.getPosition().getColumn();
+        bearing = ship.getBearing().name();
+        size = ship.getSize();
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Evento do Java Flight Recorder: navio afundado.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitido por {@link Game#fire(int, int)} quando o tiro afunda um navio, com a
+ * posição do navio e a do tiro que o afundou.
+ */
+@Name("iscteiul.ista.battleship.ShipSunk")
+@Label("Navio afundado")
+@Category({"Battleship", "Jogo"})
+@Description("Navio afundado por um tiro")
+@StackTrace(false)
+final class ShipSunkEvent extends Event {
+
+    @Label("Categoria")
+    String category;
+
+    @Label("Linha do navio")
+    int row;
+
+    @Label("Coluna do navio")
+    int column;
+
+    @Label("Linha do tiro")
+    int shotRow;
+
+    @Label("Coluna do tiro")
+    int shotColumn;
+
+    @Label("Tiros disparados")
+    int shots;
+}
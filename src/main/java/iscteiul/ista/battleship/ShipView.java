@@ -0,0 +1,319 @@
+/**
+ * Descrição imutável de um navio de uma disposição de frota.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Categoria, orientação e células de um navio, sem estado de jogo.
+ * <p>
+ * Ao contrário de {@link Ship}, uma {@code ShipView} não pode ser atingida:
+ * todos os campos são finais e as células são instâncias imutáveis de
+ * {@link Cell}, pelo que a mesma vista pode ser partilhada por qualquer número
+ * de jogos e de threads (ver {@link FleetLayout}).
+ * </p>
+ * <p>
+ * Os jogos sobre uma disposição devolvem, quando um tiro afunda um navio, a
+ * vista {@link #sunk()}: um {@link IShip} imutável do navio já afundado, com
+ * todas as posições ocupadas e atingidas, em que os disparos não têm efeito.
+ * </p>
+ */
+public final class ShipView {
+
+    /** Categoria do navio. */
+    private final String category;
+
+    /** Orientação do navio. */
+    private final Compass bearing;
+
+    /** Posição de referência do navio. */
+    private final Cell position;
+
+    /** Células ocupadas pelo navio, numa lista não modificável. */
+    private final List<Cell> cells;
+
+    /** O navio afundado, devolvido pelos jogos. */
+    private final IShip sunk;
+
+    /**
+     * Cria a vista de um navio, copiando a sua categoria, orientação e posições.
+     * O estado de impactos do navio não é copiado.
+     *
+     * @param ship navio de origem
+     */
+    ShipView(IShip ship) {
+        this.category = ship.getCategory();
+        this.bearing = ship.getBearing();
+        this.position = new Cell(ship.getPosition().getRow(), ship.getPosition().getColumn());
+        List<Cell> cells = new ArrayList<>(ship.getSize());
+        for (IPosition p : ship.getPositions())
+            cells.add(new Cell(p.getRow(), p.getColumn()));
+        this.cells = Collections.unmodifiableList(cells);
+        this.sunk = new Sunk(this);
+    }
+
+    /**
+     * Devolve a categoria do navio.
+     *
+     * @return categoria (ex: "Galeao")
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Devolve a orientação do navio.
+     *
+     * @return orientação
+     */
+    public Compass getBearing() {
+        return bearing;
+    }
+
+    /**
+     * Devolve a posição de referência do navio.
+     *
+     * @return posição de referência
+     */
+    public Cell getPosition() {
+        return position;
+    }
+
+    /**
+     * Devolve o número de células do navio.
+     *
+     * @return tamanho do navio
+     */
+    public int getSize() {
+        return cells.size();
+    }
+
+    /**
+     * Devolve as células ocupadas pelo navio.
+     *
+     * @return lista não modificável de células
+     */
+    public List<Cell> getCells() {
+        return cells;
+    }
+
+    /**
+     * Verifica se o navio ocupa uma determinada posição.
+     *
+     * @param pos posição a verificar
+     * @return {@code true} se o navio ocupar a posição
+     */
+    public boolean occupies(ICoordinate pos) {
+        for (int i = 0; i < cells.size(); i++)
+            if (cells.get(i).equals(pos))
+                return true;
+        return false;
+    }
+
+    /**
+     * Devolve este navio já afundado, como {@link IShip} imutável.
+     *
+     * @return o navio afundado, sempre a mesma instância
+     */
+    public IShip sunk() {
+        return sunk;
+    }
+
+    /**
+     * Devolve uma representação textual do navio, como {@link Ship#toString()}.
+     *
+     * @return string no formato "[categoria orientação posição]"
+     */
+    @Override
+    public String toString() {
+        return "[" + category + " " + bearing + " " + position + "]";
+    }
+
+    /**
+     * Posição de um navio afundado: está ocupada e atingida e nenhum método a
+     * pode alterar, já que ocupar ou atingir a posição não muda nada.
+     */
+    private static final class SunkPosition implements IPosition {
+
+        /** Célula da posição. */
+        private final Cell cell;
+
+        SunkPosition(Cell cell) {
+            this.cell = cell;
+        }
+
+        @Override
+        public int getRow() {
+            return cell.getRow();
+        }
+
+        @Override
+        public int getColumn() {
+            return cell.getColumn();
+        }
+
+        @Override
+        public boolean isAdjacentTo(ICoordinate other) {
+            return cell.isAdjacentTo(other);
+        }
+
+        /** A posição já está ocupada. */
+        @Override
+        public void occupy() {
+        }
+
+        /** A posição já está atingida. */
+        @Override
+        public void shoot() {
+        }
+
+        @Override
+        public boolean isOccupied() {
+            return true;
+        }
+
+        @Override
+        public boolean isHit() {
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return cell.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return cell.equals(other);
+        }
+
+        @Override
+        public String toString() {
+            return cell.toString();
+        }
+    }
+
+    /**
+     * Navio afundado, imutável: todas as posições estão atingidas, pelo que
+     * {@link #shoot(ICoordinate)} não tem efeito.
+     */
+    private static final class Sunk implements IShip {
+
+        /** Vista do navio. */
+        private final ShipView view;
+
+        /** Posições do navio, ocupadas e atingidas, numa lista não modificável. */
+        private final List<IPosition> positions;
+
+        /** Posição de referência do navio. */
+        private final IPosition position;
+
+        Sunk(ShipView view) {
+            this.view = view;
+            List<IPosition> positions = new ArrayList<>(view.getSize());
+            for (Cell c : view.cells)
+                positions.add(new SunkPosition(c));
+            this.positions = Collections.unmodifiableList(positions);
+            this.position = new SunkPosition(view.position);
+        }
+
+        @Override
+        public String getCategory() {
+            return view.category;
+        }
+
+        @Override
+        public int getSize() {
+            return positions.size();
+        }
+
+        @Override
+        public List<IPosition> getPositions() {
+            return positions;
+        }
+
+        @Override
+        public IPosition getPosition() {
+            return position;
+        }
+
+        @Override
+        public Compass getBearing() {
+            return view.bearing;
+        }
+
+        @Override
+        public boolean stillFloating() {
+            return false;
+        }
+
+        @Override
+        public int getTopMostPos() {
+            int top = Integer.MAX_VALUE;
+            for (Cell c : view.cells)
+                top = Math.min(top, c.getRow());
+            return top;
+        }
+
+        @Override
+        public int getBottomMostPos() {
+            int bottom = Integer.MIN_VALUE;
+            for (Cell c : view.cells)
+                bottom = Math.max(bottom, c.getRow());
+            return bottom;
+        }
+
+        @Override
+        public int getLeftMostPos() {
+            int left = Integer.MAX_VALUE;
+            for (Cell c : view.cells)
+                left = Math.min(left, c.getColumn());
+            return left;
+        }
+
+        @Override
+        public int getRightMostPos() {
+            int right = Integer.MIN_VALUE;
+            for (Cell c : view.cells)
+                right = Math.max(right, c.getColumn());
+            return right;
+        }
+
+        @Override
+        public boolean occupies(ICoordinate pos) {
+            return view.occupies(pos);
+        }
+
+        @Override
+        public boolean tooCloseTo(IShip other) {
+            for (IPosition p : other.getPositions())
+                if (tooCloseTo(p))
+                    return true;
+            return false;
+        }
+
+        @Override
+        public boolean tooCloseTo(ICoordinate pos) {
+            for (Cell c : view.cells)
+                if (c.isAdjacentTo(pos))
+                    return true;
+            return false;
+        }
+
+        /** O navio já está afundado: o disparo não tem efeito. */
+        @Override
+        public void shoot(ICoordinate pos) {
+        }
+
+        @Override
+        public String toString() {
+            return view.toString();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Evento do Java Flight Recorder: tiro disparado.
+ *
+ * @author Tiago
+ */
+package iscteiul.ista.battleship;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emitido por {@link Game#fire(int, int)} com as coordenadas, o resultado e a
+ * duração do tiro. Os tiros fora do tabuleiro disparados apenas pela célula
+ * ({@link IGame#fireAll(int[], int, byte[])}) não têm coordenadas. Por omissão só são gravados os tiros que demoram mais de
+ * 20 µs; o perfil {@code battleship.jfc} grava todos.
+ */
+@Name("iscteiul.ista.battleship.ShotFired")
+@Label("Tiro")
+@Category({"Battleship", "Jogo"})
+@Description("Tiro disparado sobre a frota adversária")
+@StackTrace(false)
+@Threshold("20 us")
+final class ShotFiredEvent extends Event {
+
+    @Label("Linha")
+    int row;
+
+    @Label("Coluna")
+    int column;
+
+    @Label("Com coordenadas")
+    @Description("Falso para tiros fora do tabuleiro disparados pela célula, sem linha nem coluna")
+    boolean placed;
+
+    @Label("Resultado")
+    String result;
+}
@@ -0,0 +1,81 @@
+package iscteiul.ista.battleship;
+
+/**
+ * Representa o resultado de um tiro disparado sobre a frota adversária.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+public enum ShotResult {
+
+    /** Tiro válido que caiu na água. */
+    MISS,
+
+    /** Tiro válido que atingiu um navio sem o afundar. */
+    HIT,
+
+    /** Tiro válido que atingiu e afundou um navio. */
+    SUNK,
+
+    /** Tiro numa posição já anteriormente atingida. */
+    REPEATED,
+
+    /** Tiro numa posição fora do tabuleiro. */
+    INVALID;
+
+    /** Código de {@link #MISS} nos resultados de {@link IGame#fireAll(int[], int, byte[])}. */
+    public static final byte MISS_CODE = 0;
+
+    /** Código de {@link #HIT} nos resultados de {@link IGame#fireAll(int[], int, byte[])}. */
+    public static final byte HIT_CODE = 1;
+
+    /** Código de {@link #SUNK} nos resultados de {@link IGame#fireAll(int[], int, byte[])}. */
+    public static final byte SUNK_CODE = 2;
+
+    /** Código de {@link #REPEATED} nos resultados de {@link IGame#fireAll(int[], int, byte[])}. */
+    public static final byte REPEATED_CODE = 3;
+
+    /** Código de {@link #INVALID} nos resultados de {@link IGame#fireAll(int[], int, byte[])}. */
+    public static final byte INVALID_CODE = 4;
+
+    /** Resultados, indexados pelo código. */
+    private static final ShotResult[] VALUES = values();
+
+    /**
+     * Devolve o resultado com o código indicado, que é o seu ordinal.
+     *
+     * @param code código do resultado
+     * @return o resultado
+     */
+    public static ShotResult ofCode(int code) {
+        return VALUES[code];
+    }
+
+    /**
+     * Deduz o resultado de um tiro disparado por {@link IGame#fire(int, int)}
+     * do navio devolvido e da variação dos contadores do jogo.
+     *
+     * @param sunk     navio afundado pelo tiro, ou {@code null}
+     * @param hits     acertos antes do tiro
+     * @param invalid  tiros inválidos antes do tiro
+     * @param repeated tiros repetidos antes do tiro
+     * @param game     jogo, depois do tiro
+     * @return resultado do tiro
+     */
+    public static ShotResult of(IShip sunk, int hits, int invalid, int repeated, IGame game) {
+        return sunk != null ? SUNK
+                : game.getHits() != hits ? HIT
+                : game.getInvalidShots() != invalid ? INVALID
+                : game.getRepeatedShots() != repeated ? REPEATED
+                : MISS;
+    }
+
+    /**
+     * Indica se o tiro atingiu um navio (afundando-o ou não).
+     *
+     * @return {@code true} para {@link #HIT} e {@link #SUNK}
+     */
+    public boolean isHit() {
+        return this == HIT || this == SUNK;
+    }
+}
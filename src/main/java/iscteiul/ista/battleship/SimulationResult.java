@@ -0,0 +1,202 @@
+/**
+ * Estatísticas agregadas de um conjunto de jogos simulados.
+ *
+ * @author Tiago
+ * @version 1.0
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * Acumula os contadores de vários jogos e a distribuição do número de tiros
+ * necessários para vencer. Os resultados parciais de várias threads são
+ * combinados com {@link #merge(SimulationResult)}; como a combinação é uma
+ * soma, o resultado final não depende da forma como os jogos foram repartidos.
+ */
+public class SimulationResult {
+
+    /** Número de jogos simulados. */
+    private long games;
+
+    /** Número de jogos em que todos os navios foram afundados. */
+    private long wins;
+
+    /** Número total de tiros disparados. */
+    private long shots;
+
+    /** Número total de tiros que acertaram num navio. */
+    private long hits;
+
+    /** Número total de tiros repetidos. */
+    private long repeatedShots;
+
+    /** Número total de tiros inválidos. */
+    private long invalidShots;
+
+    /** Número total de navios afundados. */
+    private long sinks;
+
+    /** Número de jogos ganhos com {@code i} tiros, na posição {@code i}. */
+    private final long[] shotsToWin;
+
+    /**
+     * Cria um resultado vazio.
+     *
+     * @param maxShots número máximo de tiros por jogo
+     */
+    public SimulationResult(int maxShots) {
+        this.shotsToWin = new long[maxShots + 1];
+    }
+
+    /**
+     * Regista o final de um jogo.
+     *
+     * @param game  o jogo terminado
+     * @param fired número de tiros disparados no jogo
+     */
+    void record(IGame game, int fired) {
+        games++;
+        shots += fired;
+        hits += game.getHits();
+        repeatedShots += game.getRepeatedShots();
+        invalidShots += game.getInvalidShots();
+        sinks += game.getSunkShips();
+        if (game.getRemainingShips() == 0) {
+            wins++;
+            shotsToWin[fired]++;
+        }
+    }
+
+    /**
+     * Soma a este resultado os contadores de outro.
+     *
+     * @param other resultado a somar
+     * @return este resultado
+     */
+    public SimulationResult merge(SimulationResult other) {
+        games += other.games;
+        wins += other.wins;
+        shots += other.shots;
+        hits += other.hits;
+        repeatedShots += other.repeatedShots;
+        invalidShots += other.invalidShots;
+        sinks += other.sinks;
+        for (int i = 0; i < shotsToWin.length; i++)
+            shotsToWin[i] += other.shotsToWin[i];
+        return this;
+    }
+
+    /**
+     * Devolve o número de jogos simulados.
+     *
+     * @return número de jogos simulados
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Devolve o número de jogos em que todos os navios foram afundados.
+     *
+     * @return número de jogos em que todos os navios foram afundados
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * Devolve o número total de tiros disparados.
+     *
+     * @return número total de tiros disparados
+     */
+    public long getShots() {
+        return shots;
+    }
+
+    /**
+     * Devolve o número total de tiros que acertaram num navio.
+     *
+     * @return número total de tiros que acertaram num navio
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Devolve o número total de tiros repetidos.
+     *
+     * @return número total de tiros repetidos
+     */
+    public long getRepeatedShots() {
+        return repeatedShots;
+    }
+
+    /**
+     * Devolve o número total de tiros inválidos.
+     *
+     * @return número total de tiros inválidos
+     */
+    public long getInvalidShots() {
+        return invalidShots;
+    }
+
+    /**
+     * Devolve o número total de navios afundados.
+     *
+     * @return número total de navios afundados
+     */
+    public long getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Devolve a distribuição do número de tiros necessários para vencer.
+     *
+     * @return cópia do histograma: posição {@code i} = jogos ganhos com {@code i} tiros
+     */
+    public long[] getShotsToWin() {
+        return Arrays.copyOf(shotsToWin, shotsToWin.length);
+    }
+
+    /**
+     * Devolve a média de tiros dos jogos ganhos.
+     *
+     * @return média de tiros para vencer, ou {@code NaN} se nenhum jogo foi ganho
+     */
+    public double getMeanShotsToWin() {
+        if (wins == 0)
+            return Double.NaN;
+        long total = 0;
+        for (int i = 0; i < shotsToWin.length; i++)
+            total += i * shotsToWin[i];
+        return (double) total / wins;
+    }
+
+    /**
+     * Devolve o percentil indicado do número de tiros dos jogos ganhos.
+     *
+     * @param percentile percentil, entre 0 e 100
+     * @return menor número de tiros que cobre a percentagem indicada de vitórias,
+     *         ou {@code -1} se nenhum jogo foi ganho
+     */
+    public int getShotsToWinPercentile(double percentile) {
+        long target = (long) Math.ceil(wins * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < shotsToWin.length; i++) {
+            seen += shotsToWin[i];
+            if (seen >= Math.max(target, 1))
+                return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "Jogos: " + games + " Vitorias: " + wins + " Tiros: " + shots
+                + " Hits: " + hits + " Inv: " + invalidShots + " Rep: " + repeatedShots
+                + " Afundados: " + sinks
+                + String.format(" Media: %.2f p50: %d p90: %d p99: %d", getMeanShotsToWin(),
+                getShotsToWinPercentile(50), getShotsToWinPercentile(90), getShotsToWinPercentile(99));
+    }
+}
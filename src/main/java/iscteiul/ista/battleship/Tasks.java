@@ -24,11 +24,11 @@
  */
 package iscteiul.ista.battleship;
 
-import java.util.Scanner;
-
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import static org.apache.logging.log4j.util.Unbox.box;
+
 /**
  * Classe que agrega diferentes cenários de teste do jogo.
  */
@@ -38,20 +38,20 @@ public class Tasks {
     private static final Logger LOGGER = LogManager.getLogger();
 
     /** Número de disparos por ronda */
-    private static final int NUMBER_SHOTS = 3;
+    static final int NUMBER_SHOTS = 3;
 
     /** Mensagem apresentada ao terminar o programa */
-    private static final String GOODBYE_MESSAGE = "Bons ventos!";
+    static final String GOODBYE_MESSAGE = "Bons ventos!";
 
     /**
      * Comandos disponíveis ao utilizador
      */
-    private static final String NOVAFROTA = "nova";
-    private static final String DESISTIR = "desisto";
-    private static final String RAJADA = "rajada";
-    private static final String VERTIROS = "ver";
-    private static final String BATOTA = "mapa";
-    private static final String STATUS = "estado";
+    static final String NOVAFROTA = "nova";
+    static final String DESISTIR = "desisto";
+    static final String RAJADA = "rajada";
+    static final String VERTIROS = "ver";
+    static final String BATOTA = "mapa";
+    static final String STATUS = "estado";
 
     /**
      * Tarefa A.
@@ -61,12 +61,12 @@ public class Tasks {
      * </p>
      */
     public static void taskA() {
-        Scanner in = new Scanner(System.in);
+        TokenReader in = new TokenReader(System.in);
         while (in.hasNext()) {
             Ship s = readShip(in);
             if (s != null)
                 for (int i = 0; i < NUMBER_SHOTS; i++) {
-                    Position p = readPosition(in);
+                    Cell p = readPosition(in);
                     LOGGER.info("{} {}", p, s.occupies(p));
                 }
         }
@@ -79,7 +79,7 @@ public class Tasks {
      * </p>
      */
     public static void taskB() {
-        Scanner in = new Scanner(System.in);
+        TokenReader in = new TokenReader(System.in);
         IFleet fleet = null;
         String command = in.next();
 
@@ -108,7 +108,7 @@ public class Tasks {
      * </p>
      */
     public static void taskC() {
-        Scanner in = new Scanner(System.in);
+        TokenReader in = new TokenReader(System.in);
         IFleet fleet = null;
         String command = in.next();
 
@@ -146,7 +146,7 @@ public class Tasks {
      */
     public static void taskD() {
 
-        Scanner in = new Scanner(System.in);
+        TokenReader in = new TokenReader(System.in);
         IFleet fleet = null;
         IGame game = null;
         String command = in.next();
@@ -167,13 +167,13 @@ public class Tasks {
                     break;
                 case RAJADA:
                     if (game != null) {
-                        firingRound(in, game);
+                        firingRound(in, game, fleet);
 
                         LOGGER.info("Hits: {} Inv: {} Rep: {} Restam {} navios.",
-                                game.getHits(),
-                                game.getInvalidShots(),
-                                game.getRepeatedShots(),
-                                game.getRemainingShips());
+                                box(game.getHits()),
+                                box(game.getInvalidShots()),
+                                box(game.getRepeatedShots()),
+                                box(game.getRemainingShips()));
 
                         if (game.getRemainingShips() == 0)
                             LOGGER.info("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...");
@@ -194,69 +194,130 @@ public class Tasks {
     /**
      * Constrói uma frota com base nos dados introduzidos pelo utilizador.
      *
-     * @param in scanner de entrada
+     * @param in leitor de entrada
+     * @return frota criada
+     */
+    static Fleet buildFleet(TokenReader in) {
+        return buildFleet(in, true);
+    }
+
+    /**
+     * Constrói uma frota com base nos dados lidos, registando ou não
+     * as falhas e o resultado.
+     *
+     * @param in      leitor de entrada
+     * @param verbose {@code true} para registar no log
      * @return frota criada
      */
-    static Fleet buildFleet(Scanner in) {
+    static Fleet buildFleet(TokenReader in, boolean verbose) {
         assert in != null;
 
         Fleet fleet = new Fleet();
-        int i = 0;
-
-        while (i <= Fleet.FLEET_SIZE) {
-            IShip s = readShip(in);
-            if (s != null) {
-                boolean success = fleet.addShip(s);
-                if (success)
-                    i++;
-                else
-                    LOGGER.info("Falha na criacao de {} {} {}", s.getCategory(), s.getBearing(), s.getPosition());
-            } else {
-                LOGGER.info("Navio desconhecido!");
-            }
+        while (!addShip(in, fleet, verbose)) {
+            // lê navios até a frota ficar completa
         }
-        LOGGER.info("{} navios adicionados com sucesso!", i);
+        if (verbose)
+            LOGGER.info("{} navios adicionados com sucesso!", box(fleet.getShips().size()));
         return fleet;
     }
 
+    /**
+     * Lê os dados de um navio e tenta adicioná-lo a uma frota em construção
+     * por {@link #buildFleet(TokenReader, boolean)}. Os quatro dados do navio
+     * são lidos antes de a frota ser alterada, pelo que, se a entrada terminar
+     * a meio, a frota fica como estava.
+     *
+     * @param in      leitor de entrada
+     * @param fleet   frota em construção
+     * @param verbose {@code true} para registar no log as falhas
+     * @return {@code true} se a frota ficou completa
+     */
+    static boolean addShip(TokenReader in, Fleet fleet, boolean verbose) {
+        IShip s = readShip(in);
+        if (s != null) {
+            if (!fleet.addShip(s) && verbose)
+                LOGGER.info("Falha na criacao de {} {} {}", s.getCategory(), s.getBearing(), s.getPosition());
+        } else if (verbose) {
+            LOGGER.info("Navio desconhecido!");
+        }
+        return fleet.getShips().size() > Fleet.FLEET_SIZE;
+    }
+
     /**
      * Lê os dados de um navio e cria a respetiva instância.
      *
-     * @param in scanner de entrada
+     * @param in leitor de entrada
      * @return navio criado ou null se inválido
      */
-    static Ship readShip(Scanner in) {
+    static Ship readShip(TokenReader in) {
         String shipKind = in.next();
-        Position pos = readPosition(in);
-        char c = in.next().charAt(0);
+        int row = in.nextInt();
+        int column = in.nextInt();
+        char c = in.nextChar();
         Compass bearing = Compass.charToCompass(c);
-        return Ship.buildShip(shipKind, bearing, pos);
+        return Ship.buildShip(shipKind, bearing, new Position(row, column));
     }
 
     /**
      * Lê uma posição do tabuleiro.
+     * Dentro do tabuleiro é devolvida a posição partilhada (imutável)
+     * da configuração por omissão, sem criar objetos.
      *
-     * @param in scanner de entrada
-     * @return posição criada
+     * @param in leitor de entrada
+     * @return posição lida
      */
-    static Position readPosition(Scanner in) {
+    static Cell readPosition(TokenReader in) {
         int row = in.nextInt();
         int column = in.nextInt();
-        return new Position(row, column);
+        return BoardConfig.DEFAULT.positionAt(row, column);
     }
 
     /**
-     * Executa uma ronda de disparos (3 tiros) sobre a frota.
+     * Executa uma ronda de disparos (3 tiros) sobre a frota,
+     * registando os navios afundados.
      *
-     * @param in   scanner de entrada
-     * @param game jogo em execução
+     * @param in    leitor de entrada
+     * @param game  jogo em execução
+     * @param fleet frota do jogo, para identificar os navios afundados
      */
-    static void firingRound(Scanner in, IGame game) {
-        for (int i = 0; i < NUMBER_SHOTS; i++) {
-            IPosition pos = readPosition(in);
-            IShip sh = game.fire(pos);
-            if (sh != null)
-                LOGGER.info("Mas... mas... {}s nao sao a prova de bala? :-(", sh.getCategory());
+    static void firingRound(TokenReader in, IGame game, IFleet fleet) {
+        int[] cells = new int[NUMBER_SHOTS];
+        int[] coordinates = new int[2 * NUMBER_SHOTS];
+        byte[] results = new byte[NUMBER_SHOTS];
+        firingRound(in, game, cells, coordinates, results);
+        BoardConfig config = game.getBoardConfig();
+        for (int i = 0; i < NUMBER_SHOTS; i++)
+            if (results[i] == ShotResult.SUNK_CODE)
+                LOGGER.info("Mas... mas... {}s nao sao a prova de bala? :-(",
+                        fleet.shipAt(config.rowOf(cells[i]), config.columnOf(cells[i])).getCategory());
+    }
+
+    /**
+     * Lê uma ronda de disparos (3 tiros) e dispara-a numa única chamada a
+     * {@link IGame#fireAll(int[], int[], int, byte[])}, com as coordenadas dos
+     * tiros para os tiros fora do tabuleiro serem gravados onde foram disparados.
+     * Se a entrada terminar a meio da ronda, os tiros já lidos são disparados
+     * antes de a exceção ser propagada.
+     *
+     * @param in          leitor de entrada
+     * @param game        jogo em execução
+     * @param cells       destino das células dos tiros, com pelo menos 3 posições
+     * @param coordinates destino das coordenadas dos tiros, com pelo menos 6 posições
+     * @param results     destino dos resultados dos tiros, com pelo menos 3 posições
+     */
+    static void firingRound(TokenReader in, IGame game, int[] cells, int[] coordinates, byte[] results) {
+        BoardConfig config = game.getBoardConfig();
+        int count = 0;
+        try {
+            while (count < NUMBER_SHOTS) {
+                int row = in.nextInt();
+                int column = in.nextInt();
+                coordinates[2 * count] = row;
+                coordinates[2 * count + 1] = column;
+                cells[count++] = config.targetCell(row, column);
+            }
+        } finally {
+            game.fireAll(cells, coordinates, count, results);
         }
     }
 }
@@ -0,0 +1,302 @@
+/**
+ * Leitor de palavras (tokens) da linguagem de comandos do jogo,
+ * usado em alternativa a {@link java.util.Scanner}.
+ *
+ * @author Mariana
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Divide uma sequência de bytes em palavras separadas por espaços em branco,
+ * tal como um {@link java.util.Scanner} com o delimitador por omissão, mas sem
+ * expressões regulares: cada byte é lido uma única vez de um buffer.
+ * <p>
+ * As palavras conhecidas da linguagem de comandos (comandos e tipos de navio)
+ * são devolvidas por {@link #next()} como a constante {@code String}
+ * correspondente, sem criar objetos; {@link #nextInt()} e {@link #nextChar()}
+ * também não criam objetos. Os números aceites por {@link #nextInt()} são
+ * inteiros decimais com sinal opcional, sem separadores de milhares.
+ * </p>
+ * <p>
+ * Tal como no {@link java.util.Scanner}, {@link #next()} lança
+ * {@link NoSuchElementException} no fim da entrada e {@link #nextInt()} lança
+ * {@link InputMismatchException} sem consumir a palavra se esta não for um
+ * inteiro. Os erros de leitura são lançados como {@link UncheckedIOException}.
+ * </p>
+ */
+public class TokenReader {
+
+    /** Dimensão do buffer de leitura de um {@link InputStream}. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Palavras devolvidas sem criar objetos (comandos e tipos de navio). */
+    private static final String[] KEYWORDS = {
+            "nova", "desisto", "rajada", "ver", "mapa", "estado",
+            "barca", "caravela", "nau", "fragata", "galeao"
+    };
+
+    /** Bytes de cada palavra de {@link #KEYWORDS}. */
+    private static final byte[][] KEYWORD_BYTES = new byte[KEYWORDS.length][];
+
+    static {
+        for (int i = 0; i < KEYWORDS.length; i++)
+            KEYWORD_BYTES[i] = KEYWORDS[i].getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Origem dos bytes de um fluxo, ou {@code null}. */
+    private final InputStream in;
+
+    /** Origem dos bytes de um buffer sem array, lido diretamente, ou {@code null}. */
+    private final ByteBuffer source;
+
+    /** Bytes lidos de um fluxo ou array de um buffer, ou {@code null} se houver {@link #source}. */
+    private final byte[] buffer;
+
+    /** Índice do próximo byte a consumir em {@link #buffer} ou {@link #source}. */
+    private int position;
+
+    /** Fim dos bytes válidos em {@link #buffer} ou {@link #source}. */
+    private int limit;
+
+    /** Palavra pendente, lida mas ainda não consumida. */
+    private byte[] token = new byte[64];
+
+    /** Número de bytes da palavra pendente, ou {@code -1} se não houver nenhuma. */
+    private int length = -1;
+
+    /** Indica se a origem já chegou ao fim. */
+    private boolean eof;
+
+    /**
+     * Cria um leitor sobre um fluxo de entrada, lido em blocos de 64 KiB.
+     *
+     * @param in fluxo de entrada
+     */
+    public TokenReader(InputStream in) {
+        this(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Cria um leitor sobre um fluxo de entrada, lido em blocos da dimensão
+     * indicada (por exemplo, pequenos, para muitas ligações abertas em simultâneo).
+     *
+     * @param in         fluxo de entrada
+     * @param bufferSize dimensão do buffer de leitura, em bytes
+     */
+    public TokenReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.source = null;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Cria um leitor sobre os bytes restantes de um buffer (por exemplo, um
+     * ficheiro mapeado em memória), lidos diretamente do buffer, sem cópias.
+     * A posição do buffer não é alterada.
+     *
+     * @param buffer bytes da entrada
+     */
+    public TokenReader(ByteBuffer buffer) {
+        this.in = null;
+        this.eof = true;
+        if (buffer.hasArray()) {
+            this.source = null;
+            this.buffer = buffer.array();
+            this.position = buffer.arrayOffset() + buffer.position();
+            this.limit = buffer.arrayOffset() + buffer.limit();
+        } else {
+            this.source = buffer;
+            this.buffer = null;
+            this.position = buffer.position();
+            this.limit = buffer.limit();
+        }
+    }
+
+    /**
+     * Indica se ainda há uma palavra na entrada.
+     *
+     * @return {@code true} se houver mais uma palavra
+     */
+    public boolean hasNext() {
+        return peek();
+    }
+
+    /**
+     * Lê a próxima palavra.
+     *
+     * @return a palavra; para palavras da linguagem de comandos, a constante partilhada
+     * @throws NoSuchElementException se não houver mais palavras
+     */
+    public String next() {
+        if (!peek())
+            throw new NoSuchElementException();
+        String word = keyword();
+        if (word == null)
+            word = new String(token, 0, length, StandardCharsets.UTF_8);
+        length = -1;
+        return word;
+    }
+
+    /**
+     * Lê a próxima palavra como um inteiro decimal.
+     *
+     * @return o inteiro lido
+     * @throws NoSuchElementException se não houver mais palavras
+     * @throws InputMismatchException se a palavra não for um inteiro; a palavra não é consumida
+     */
+    public int nextInt() {
+        if (!peek())
+            throw new NoSuchElementException();
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i++;
+        }
+        if (i == length)
+            throw new InputMismatchException();
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new InputMismatchException();
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1)
+                throw new InputMismatchException();
+        }
+        if (negative)
+            value = -value;
+        if (value > Integer.MAX_VALUE)
+            throw new InputMismatchException();
+        length = -1;
+        return (int) value;
+    }
+
+    /**
+     * Lê a próxima palavra e devolve o seu primeiro carácter
+     * (equivalente a {@code next().charAt(0)}).
+     *
+     * @return o primeiro carácter da palavra
+     * @throws NoSuchElementException se não houver mais palavras
+     */
+    public char nextChar() {
+        if (!peek())
+            throw new NoSuchElementException();
+        char c = token[0] >= 0 ? (char) token[0] : next().charAt(0);
+        length = -1;
+        return c;
+    }
+
+    /**
+     * Devolve o índice do próximo byte por ler no array ou buffer de origem de
+     * um leitor criado sobre um {@link ByteBuffer}. Só é significativo quando
+     * não há uma palavra lida por {@link #hasNext()} e ainda não consumida.
+     *
+     * @return índice do próximo byte por ler
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Devolve a constante da palavra pendente, se for uma palavra conhecida.
+     *
+     * @return a constante, ou {@code null}
+     */
+    private String keyword() {
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            byte[] bytes = KEYWORD_BYTES[k];
+            if (bytes.length != length)
+                continue;
+            int i = 0;
+            while (i < length && bytes[i] == token[i])
+                i++;
+            if (i == length)
+                return KEYWORDS[k];
+        }
+        return null;
+    }
+
+    /**
+     * Garante que há uma palavra pendente, saltando os espaços em branco e
+     * copiando os bytes da palavra seguinte.
+     *
+     * @return {@code true} se houver uma palavra pendente
+     */
+    private boolean peek() {
+        if (length >= 0)
+            return true;
+        int b;
+        do {
+            b = read();
+            if (b < 0)
+                return false;
+        } while (isWhitespace(b));
+
+        int n = 0;
+        do {
+            if (n == token.length)
+                token = Arrays.copyOf(token, n * 2);
+            token[n++] = (byte) b;
+            b = read();
+        } while (b >= 0 && !isWhitespace(b));
+        length = n;
+        return true;
+    }
+
+    /**
+     * Lê o próximo byte, enchendo o buffer se necessário.
+     *
+     * @return o byte (0 a 255), ou {@code -1} no fim da entrada
+     */
+    private int read() {
+        if (position == limit && !fill())
+            return -1;
+        return (source != null ? source.get(position++) : buffer[position++]) & 0xFF;
+    }
+
+    /**
+     * Enche o buffer com mais bytes do fluxo de entrada.
+     *
+     * @return {@code true} se foram lidos bytes
+     */
+    private boolean fill() {
+        if (eof)
+            return false;
+        int n;
+        try {
+            do {
+                n = in.read(buffer, 0, buffer.length);
+            } while (n == 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * Indica se um byte é um espaço em branco ASCII, com a mesma definição de
+     * {@link Character#isWhitespace(char)}.
+     *
+     * @param b o byte
+     * @return {@code true} se for um separador
+     */
+    static boolean isWhitespace(int b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+}
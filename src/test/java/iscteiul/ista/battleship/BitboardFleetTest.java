@@ -0,0 +1,186 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara a {@link BitboardFleet} e o {@link BitboardGame} com a
+ * {@link Fleet} e o {@link Game}: os mesmos navios têm de ser aceites ou
+ * recusados e os mesmos tiros têm de ter os mesmos efeitos.
+ *
+ * @author Tiago
+ */
+class BitboardFleetTest {
+
+    /** Tabuleiros comparados, incluindo o maior representável e uma frota pequena. */
+    private static final List<BoardConfig> BOARDS = List.of(
+            BoardConfig.DEFAULT,
+            BoardConfig.STANDARD,
+            new BoardConfig(8, 16, IFleet.FLEET_SIZE, BoardConfig.STANDARD_FLEET),
+            new BoardConfig(16, 8, IFleet.FLEET_SIZE),
+            new BoardConfig(11, 11, 3),
+            new BoardConfig(5, 5, 1, Map.of("Barca", 2)));
+
+    /**
+     * Gera um navio aleatório, que pode sair do tabuleiro por qualquer lado.
+     */
+    private static IShip randomShip(BoardConfig config, Random random) {
+        return Ship.buildShip(random.nextInt(ShapeTable.KINDS),
+                ShapeTable.BEARINGS[random.nextInt(ShapeTable.BEARINGS.length)],
+                new Position(random.nextInt(config.getRows() + 4) - 2, random.nextInt(config.getColumns() + 4) - 2));
+    }
+
+    /**
+     * Cria uma cópia de um navio, para não partilhar posições entre frotas.
+     */
+    private static IShip copy(IShip s) {
+        return Ship.buildShip(ShapeTable.kindOf(s.getCategory()), s.getBearing(),
+                new Position(s.getPosition().getRow(), s.getPosition().getColumn()));
+    }
+
+    private static void assertSameShips(IFleet expected, IFleet actual, String name) {
+        assertEquals(expected.getShips().size(), actual.getShips().size(), name);
+        for (int i = 0; i < expected.getShips().size(); i++)
+            assertEquals(describe(expected.getShips().get(i)), describe(actual.getShips().get(i)), name);
+        BoardConfig config = expected.getBoardConfig();
+        for (int row = -1; row <= config.getRows(); row++)
+            for (int column = -1; column <= config.getColumns(); column++)
+                assertEquals(describe(expected.shipAt(row, column)), describe(actual.shipAt(row, column)),
+                        name + " " + row + "," + column);
+        assertEquals(expected.countFloatingShips(), actual.countFloatingShips(), name);
+    }
+
+    private static String describe(IShip s) {
+        return s == null ? "-" : s.getCategory() + "@" + s.getPosition().getRow() + "," + s.getPosition().getColumn()
+                + s.getBearing();
+    }
+
+    private static Set<String> cells(IGame game) {
+        Set<String> cells = new TreeSet<>();
+        for (ICoordinate c : game.getShots())
+            cells.add(c.getRow() + "," + c.getColumn());
+        return cells;
+    }
+
+    @Test
+    void placementMatchesFleet() {
+        Random random = new Random(29);
+        for (BoardConfig config : BOARDS) {
+            for (int round = 0; round < 200; round++) {
+                Fleet fleet = new Fleet(config);
+                BitboardFleet bitboard = new BitboardFleet(config);
+                for (int i = 0; i < 40; i++) {
+                    IShip s = randomShip(config, random);
+                    assertEquals(fleet.addShip(s), bitboard.addShip(copy(s)), config + " " + describe(s));
+                }
+                assertSameShips(fleet, bitboard, config + " round " + round);
+            }
+        }
+    }
+
+    @Test
+    void placementRules() {
+        BitboardFleet fleet = new BitboardFleet(BoardConfig.STANDARD);
+        assertTrue(fleet.addShip(new Caravel(Compass.EAST, new Position(4, 4))));
+        // colisão
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(4, 5))));
+        assertFalse(fleet.addShip(new Caravel(Compass.SOUTH, new Position(3, 5))));
+        // vizinhança, incluindo as diagonais
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(3, 3))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(5, 6))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(4, 6))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(4, 7))));
+        // fora do tabuleiro, no todo ou em parte
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(-1, 0))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 10))));
+        assertFalse(fleet.addShip(new Caravel(Compass.EAST, new Position(0, 9))));
+        assertFalse(fleet.addShip(new Frigate(Compass.SOUTH, new Position(7, 0))));
+        assertTrue(fleet.addShip(new Frigate(Compass.SOUTH, new Position(6, 0))));
+        // quota da categoria
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 9))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(9, 9))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(2, 9))));
+        assertEquals(6, fleet.getShips().size());
+        assertSame(fleet.getShips().get(1), fleet.shipAt(4, 7));
+        assertNull(fleet.shipAt(4, 6));
+        assertNull(fleet.shipAt(10, 0));
+    }
+
+    @Test
+    void fleetSizeLimit() {
+        // como em Fleet, a frota aceita fleetSize + 1 navios
+        BitboardFleet fleet = new BitboardFleet(new BoardConfig(10, 10, 2));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 2))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 4))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 6))));
+        assertEquals(3, fleet.countFloatingShips());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new BitboardFleet(new BoardConfig(10, 10, Byte.MAX_VALUE)));
+        new BitboardFleet(new BoardConfig(10, 10, Byte.MAX_VALUE - 1));
+    }
+
+    @Test
+    void boardSizeLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new BitboardFleet(new BoardConfig(9, 15, 10)));
+        assertThrows(IllegalArgumentException.class, () -> new BitboardFleet(new BoardConfig(1, 129, 10)));
+        // as células 64..127 ficam na palavra alta
+        BitboardFleet fleet = new BitboardFleet(new BoardConfig(8, 16, 10));
+        assertTrue(fleet.addShip(new Galleon(Compass.NORTH, new Position(5, 13))));
+        assertTrue(fleet.addShip(new Caravel(Compass.EAST, new Position(3, 14))));
+        assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(7, 13))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(3, 0))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(4, 2))));
+
+        BitboardGame game = new BitboardGame(fleet);
+        assertNull(game.fire(3, 14));
+        IShip sunk = game.fire(3, 15);
+        assertSame(fleet.getShips().get(1), sunk);
+        assertNull(game.fire(7, 15));
+        assertSame(fleet.getShips().get(2), game.fire(3, 0));
+        assertEquals(3, game.getHits());
+        assertEquals(2, game.getSunkShips());
+    }
+
+    @Test
+    void fireMatchesGame() {
+        Random random = new Random(31);
+        for (int round = 0; round < 200; round++) {
+            Fleet fleet = new RandomFleetGenerator(BoardConfig.STANDARD, random.nextLong()).nextFleet();
+            BitboardFleet bitboard = new BitboardFleet(BoardConfig.STANDARD);
+            for (IShip s : fleet.getShips())
+                assertTrue(bitboard.addShip(copy(s)));
+            Game game = new Game(fleet);
+            BitboardGame bitboardGame = new BitboardGame(bitboard);
+            String name = "round " + round;
+            while (game.getRemainingShips() > 0) {
+                int row = random.nextInt(12) - 1;
+                int column = random.nextInt(12) - 1;
+                assertEquals(describe(game.fire(row, column)), describe(bitboardGame.fire(row, column)),
+                        name + " " + row + "," + column);
+                assertEquals(game.getHits(), bitboardGame.getHits(), name);
+                assertEquals(game.getInvalidShots(), bitboardGame.getInvalidShots(), name);
+                assertEquals(game.getRepeatedShots(), bitboardGame.getRepeatedShots(), name);
+                assertEquals(game.getSunkShips(), bitboardGame.getSunkShips(), name);
+                assertEquals(game.getRemainingShips(), bitboardGame.getRemainingShips(), name);
+            }
+            assertEquals(0, bitboard.countFloatingShips(), name);
+            // o BitboardGame devolve os tiros por ordem das células
+            assertEquals(cells(game), cells(bitboardGame), name);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Dispara com várias threads sobre as mesmas células de um
+ * {@link ConcurrentGame} e verifica que cada célula é reclamada por um único
+ * tiro, que cada navio é afundado uma única vez e que os contadores batem
+ * certo com os tiros disparados.
+ *
+ * @author Tiago
+ */
+class ConcurrentGameTest {
+
+    /** Número de threads a disparar em simultâneo. */
+    private static final int THREADS = 8;
+
+    /** Número de vezes que cada thread dispara sobre cada célula. */
+    private static final int PASSES = 2;
+
+    /** Número de tiros fora do tabuleiro de cada thread. */
+    private static final int OFF_BOARD = 50;
+
+    /**
+     * Gera os tiros de uma thread: todas as células, {@link #PASSES} vezes, e
+     * alguns tiros fora do tabuleiro, por ordem aleatória.
+     */
+    private static int[] shots(BoardConfig config, Random random) {
+        List<Integer> cells = new ArrayList<>();
+        for (int pass = 0; pass < PASSES; pass++)
+            for (int cell = 0; cell < config.getCells(); cell++)
+                cells.add(cell);
+        for (int i = 0; i < OFF_BOARD; i++)
+            cells.add(random.nextBoolean() ? -1 - random.nextInt(10) : config.getCells() + random.nextInt(10));
+        Collections.shuffle(cells, random);
+        return cells.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Corre uma tarefa por thread, todas a partir do mesmo instante.
+     */
+    private static <T> List<T> race(List<Callable<T>> tasks) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(tasks.size());
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks)
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures)
+                results.add(future.get());
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int shipCells(FleetLayout layout) {
+        int cells = 0;
+        for (int i = 0; i < layout.shipCount(); i++)
+            cells += layout.shipSize(i);
+        return cells;
+    }
+
+    @Test
+    void overlappingVolleysClaimEachCellOnce() throws Exception {
+        Random random = new Random(17);
+        for (int round = 0; round < 50; round++) {
+            FleetLayout layout = FleetLayout.of(new RandomFleetGenerator(BoardConfig.STANDARD, random.nextLong()).nextFleet());
+            BoardConfig config = layout.getBoardConfig();
+            ConcurrentGame game = new ConcurrentGame(layout);
+            List<int[]> shots = new ArrayList<>();
+            List<Callable<byte[]>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int[] cells = shots(config, random);
+                long seed = random.nextLong();
+                shots.add(cells);
+                tasks.add(() -> {
+                    // lotes de tamanho aleatório, incluindo tiros isolados
+                    Random batches = new Random(seed);
+                    byte[] results = new byte[cells.length];
+                    for (int first = 0; first < cells.length; ) {
+                        int n = Math.min(cells.length - first, 1 + batches.nextInt(16));
+                        int[] batch = new int[n];
+                        System.arraycopy(cells, first, batch, 0, n);
+                        byte[] out = new byte[n];
+                        game.fireAll(batch, n, out);
+                        System.arraycopy(out, 0, results, first, n);
+                        first += n;
+                    }
+                    return results;
+                });
+            }
+            List<byte[]> results = race(tasks);
+
+            int[] claims = new int[config.getCells()];
+            int[] sunk = new int[layout.shipCount()];
+            int[] counts = new int[ShotResult.INVALID_CODE + 1];
+            int total = 0;
+            for (int t = 0; t < THREADS; t++) {
+                int[] cells = shots.get(t);
+                byte[] out = results.get(t);
+                total += cells.length;
+                for (int i = 0; i < cells.length; i++) {
+                    counts[out[i]]++;
+                    if (out[i] == ShotResult.INVALID_CODE || out[i] == ShotResult.REPEATED_CODE)
+                        continue;
+                    claims[cells[i]]++;
+                    int index = layout.shipIndexAt(cells[i]);
+                    assertEquals(out[i] == ShotResult.MISS_CODE, index < 0, "round " + round);
+                    if (out[i] == ShotResult.SUNK_CODE)
+                        sunk[index]++;
+                }
+            }
+            String name = "round " + round;
+            for (int cell = 0; cell < claims.length; cell++)
+                assertEquals(1, claims[cell], name + " cell " + cell);
+            for (int i = 0; i < sunk.length; i++)
+                assertEquals(1, sunk[i], name + " ship " + i);
+            int misses = counts[ShotResult.MISS_CODE];
+            assertEquals(counts[ShotResult.HIT_CODE] + counts[ShotResult.SUNK_CODE], game.getHits(), name);
+            assertEquals(counts[ShotResult.REPEATED_CODE], game.getRepeatedShots(), name);
+            assertEquals(counts[ShotResult.INVALID_CODE], game.getInvalidShots(), name);
+            assertEquals(total, game.getHits() + game.getRepeatedShots() + game.getInvalidShots() + misses, name);
+            assertEquals(shipCells(layout), game.getHits(), name);
+            assertEquals(layout.shipCount(), game.getSunkShips(), name);
+            assertEquals(0, game.getRemainingShips(), name);
+            assertEquals(config.getCells(), game.getShots().size(), name);
+        }
+    }
+
+    @Test
+    void overlappingShotsSinkEachShipOnce() throws Exception {
+        Random random = new Random(19);
+        for (int round = 0; round < 50; round++) {
+            FleetLayout layout = FleetLayout.of(new RandomFleetGenerator(BoardConfig.STANDARD, random.nextLong()).nextFleet());
+            BoardConfig config = layout.getBoardConfig();
+            ConcurrentGame game = new ConcurrentGame(layout);
+            List<Callable<List<IShip>>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int[] cells = shots(config, random);
+                tasks.add(() -> {
+                    List<IShip> sunk = new ArrayList<>();
+                    for (int cell : cells) {
+                        // os tiros fora do tabuleiro ficam fora por linha ou por coluna
+                        IShip ship = cell < 0 ? game.fire(cell, 0)
+                                : cell >= config.getCells() ? game.fire(0, cell)
+                                : game.fire(config.rowOf(cell), config.columnOf(cell));
+                        if (ship != null)
+                            sunk.add(ship);
+                    }
+                    return sunk;
+                });
+            }
+            Map<IShip, Integer> sunk = new IdentityHashMap<>();
+            for (List<IShip> ships : race(tasks))
+                for (IShip ship : ships)
+                    sunk.merge(ship, 1, Integer::sum);
+
+            String name = "round " + round;
+            assertEquals(layout.shipCount(), sunk.size(), name);
+            for (int i = 0; i < layout.shipCount(); i++)
+                assertEquals(1, sunk.get(layout.sunkShip(i)), name + " ship " + i);
+            int total = THREADS * (PASSES * config.getCells() + OFF_BOARD);
+            int misses = config.getCells() - shipCells(layout);
+            assertEquals(shipCells(layout), game.getHits(), name);
+            assertEquals(THREADS * OFF_BOARD, game.getInvalidShots(), name);
+            assertEquals(THREADS * PASSES * config.getCells() - config.getCells(), game.getRepeatedShots(), name);
+            assertEquals(total, game.getHits() + game.getRepeatedShots() + game.getInvalidShots() + misses, name);
+            assertEquals(0, game.getRemainingShips(), name);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package iscteiul.ista.battleship;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que {@link IGame#fireAll(int[], int[], int, byte[])} tem o mesmo
+ * efeito que os mesmos tiros disparados um a um por {@link IGame#fire(int, int)},
+ * em todas as implementações de {@link IGame}, incluindo os tiros fora do
+ * tabuleiro, que {@link Game} grava nas suas coordenadas ou, disparados só
+ * pela célula, sem coordenadas.
+ *
+ * @author Tiago
+ */
+class FireAllTest {
+
+    /** Implementações comparadas, criadas sobre uma frota. */
+    private static final List<Function<Fleet, IGame>> GAMES = List.of(
+            Game::new,
+            FireAllTest::bitboardGame,
+            fleet -> new LayoutGame(FleetLayout.of(fleet)),
+            fleet -> new ConcurrentGame(FleetLayout.of(fleet)));
+
+    private static IGame bitboardGame(Fleet fleet) {
+        BitboardFleet bitboard = new BitboardFleet(fleet.getBoardConfig());
+        for (IShip s : fleet.getShips())
+            assertTrue(bitboard.addShip(s));
+        return new BitboardGame(bitboard);
+    }
+
+    /**
+     * Gera tiros aleatórios, aos pares (linha, coluna), alguns fora do tabuleiro.
+     */
+    private static int[] shots(Random random, int count) {
+        int[] coordinates = new int[2 * count];
+        for (int i = 0; i < coordinates.length; i++)
+            coordinates[i] = random.nextInt(20) == 0 ? random.nextInt() : random.nextInt(14) - 2;
+        return coordinates;
+    }
+
+    /**
+     * Dispara um tiro com {@link IGame#fire(int, int)} e deduz o seu resultado
+     * da variação dos contadores.
+     */
+    private static byte fireOne(IGame game, int row, int column) {
+        int hits = game.getHits();
+        int invalid = game.getInvalidShots();
+        int repeated = game.getRepeatedShots();
+        IShip sunk = game.fire(row, column);
+        return (byte) ShotResult.of(sunk, hits, invalid, repeated, game).ordinal();
+    }
+
+    /**
+     * Dispara os tiros um a um.
+     */
+    private static byte[] fireOneByOne(IGame game, int[] coordinates) {
+        byte[] results = new byte[coordinates.length / 2];
+        for (int i = 0; i < results.length; i++)
+            results[i] = fireOne(game, coordinates[2 * i], coordinates[2 * i + 1]);
+        return results;
+    }
+
+    /**
+     * Dispara os tiros em lotes de tamanho aleatório, com as coordenadas.
+     */
+    private static byte[] fireInBatches(IGame game, int[] coordinates, Random random) {
+        return fireInBatches(game, coordinates, true, random);
+    }
+
+    /**
+     * Dispara os tiros em lotes de tamanho aleatório, com as coordenadas ou só
+     * com as células ({@link IGame#fireAll(int[])}).
+     */
+    private static byte[] fireInBatches(IGame game, int[] coordinates, boolean placed, Random random) {
+        BoardConfig config = game.getBoardConfig();
+        int count = coordinates.length / 2;
+        byte[] results = new byte[count];
+        for (int first = 0; first < count; ) {
+            int n = Math.min(count - first, 1 + random.nextInt(8));
+            int[] cells = new int[n];
+            int[] batch = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                batch[2 * i] = coordinates[2 * (first + i)];
+                batch[2 * i + 1] = coordinates[2 * (first + i) + 1];
+                cells[i] = config.targetCell(batch[2 * i], batch[2 * i + 1]);
+            }
+            byte[] out = new byte[n];
+            if (placed)
+                game.fireAll(cells, batch, n, out);
+            else
+                out = game.fireAll(cells);
+            System.arraycopy(out, 0, results, first, n);
+            first += n;
+        }
+        return results;
+    }
+
+    /**
+     * Descreve o estado observável do jogo.
+     */
+    private static String state(IGame game) {
+        StringBuilder out = new StringBuilder();
+        for (ICoordinate c : game.getShots())
+            out.append(c.getRow()).append(',').append(c.getColumn()).append(' ');
+        return out.append(game.getHits()).append(' ')
+                .append(game.getSunkShips()).append(' ')
+                .append(game.getInvalidShots()).append(' ')
+                .append(game.getRepeatedShots()).append(' ')
+                .append(game.getRemainingShips()).toString();
+    }
+
+    @Test
+    void fireAllMatchesShotByShot() {
+        Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            long seed = random.nextLong();
+            int[] coordinates = shots(random, 150);
+            for (Function<Fleet, IGame> factory : GAMES) {
+                IGame single = factory.apply(new RandomFleetGenerator(BoardConfig.STANDARD, seed).nextFleet());
+                IGame batched = factory.apply(new RandomFleetGenerator(BoardConfig.STANDARD, seed).nextFleet());
+                String name = single.getClass().getSimpleName() + " " + round;
+                assertArrayEquals(fireOneByOne(single, coordinates), fireInBatches(batched, coordinates, random), name);
+                assertEquals(state(single), state(batched), name);
+            }
+        }
+    }
+
+    /** Formas de disparar os tiros de {@link #record(Fleet, int[], int, Random)}. */
+    private static final int ONE_BY_ONE = 0;
+    private static final int BATCHES = 1;
+    private static final int CELL_BATCHES = 2;
+
+    /**
+     * Grava um jogo, disparando os tiros um a um, em lotes com as coordenadas
+     * ou em lotes só com as células.
+     */
+    private static byte[] record(Fleet fleet, int[] coordinates, int mode, Random random) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes, fleet.getBoardConfig())) {
+            Game game = new Game(fleet);
+            game.setRecorder(writer);
+            if (mode == ONE_BY_ONE)
+                fireOneByOne(game, coordinates);
+            else
+                fireInBatches(game, coordinates, mode == BATCHES, random);
+            writer.endGame();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lê os tiros gravados; os tiros inválidos são descritos sem coordenadas,
+     * e {@code placed} indica se as têm.
+     */
+    private static List<String> readShots(byte[] bytes, boolean placed) throws IOException {
+        List<String> shots = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            for (int type = reader.next(); type != GameRecordReader.EOF; type = reader.next()) {
+                if (type != GameRecordReader.SHOT)
+                    continue;
+                if (reader.result() == ShotResult.INVALID) {
+                    assertEquals(placed, reader.isPlaced());
+                    shots.add("INVALID");
+                } else {
+                    assertTrue(reader.isPlaced());
+                    shots.add(reader.row() + " " + reader.column() + " " + reader.result());
+                }
+            }
+        }
+        return shots;
+    }
+
+    /**
+     * Compara as gravações de tiros disparados um a um e em lotes.
+     */
+    private static void checkRecords(Random random) throws IOException {
+        for (int round = 0; round < 20; round++) {
+            long seed = random.nextLong();
+            int[] coordinates = shots(random, 150);
+            byte[] single = record(new RandomFleetGenerator(BoardConfig.STANDARD, seed).nextFleet(),
+                    coordinates, ONE_BY_ONE, random);
+            byte[] batched = record(new RandomFleetGenerator(BoardConfig.STANDARD, seed).nextFleet(),
+                    coordinates, BATCHES, random);
+            assertArrayEquals(single, batched, "round " + round);
+            byte[] cells = record(new RandomFleetGenerator(BoardConfig.STANDARD, seed).nextFleet(),
+                    coordinates, CELL_BATCHES, random);
+            assertEquals(readShots(single, true), readShots(cells, false), "round " + round);
+        }
+    }
+
+    @Test
+    void invalidShotsAreRecordedWhereTheyWereFired() throws IOException {
+        checkRecords(new Random(11));
+    }
+
+    @Test
+    void invalidShotsAreRecordedWhereTheyWereFiredWithEvents() throws IOException {
+        try (Recording recording = new Recording()) {
+            recording.enable(ShotFiredEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            assertTrue(new ShotFiredEvent().isEnabled());
+            checkRecords(new Random(13));
+        }
+    }
+
+    @Test
+    void cellShotsOffTheBoardAreJournaledWithoutCoordinates() {
+        Game game = new Game(new RandomFleetGenerator(BoardConfig.STANDARD, 5).nextFleet());
+        int mark = game.snapshot();
+        assertArrayEquals(new byte[]{ShotResult.INVALID_CODE, ShotResult.INVALID_CODE},
+                game.fireAll(new int[]{-1, BoardConfig.STANDARD.getCells()}));
+        assertEquals(2, game.getInvalidShots());
+        game.restore(mark);
+        assertEquals(0, game.getInvalidShots());
+        assertFalse(game.getShots().iterator().hasNext());
+    }
+}
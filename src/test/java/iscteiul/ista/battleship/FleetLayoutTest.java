@@ -0,0 +1,94 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que os jogos sobre uma {@link FleetLayout} partilhada devolvem
+ * navios afundados imutáveis e não alteram a disposição.
+ *
+ * @author Tiago
+ */
+class FleetLayoutTest {
+
+    private static FleetLayout layout() {
+        Fleet fleet = new Fleet(BoardConfig.STANDARD);
+        assertTrue(fleet.addShip(new Galleon(Compass.EAST, new Position(0, 2))));
+        assertTrue(fleet.addShip(new Caravel(Compass.SOUTH, new Position(5, 5))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(9, 9))));
+        return FleetLayout.of(fleet);
+    }
+
+    /**
+     * Dispara sobre todas as células do navio e devolve o último resultado.
+     */
+    private static IShip sink(IGame game, ShipView ship) {
+        IShip sunk = null;
+        for (Cell c : ship.getCells())
+            sunk = game.fire(c.getRow(), c.getColumn());
+        return sunk;
+    }
+
+    @Test
+    void sunkShipsAreImmutable() {
+        FleetLayout layout = layout();
+        for (IGame game : List.of(new LayoutGame(layout), new ConcurrentGame(layout))) {
+            for (int i = 0; i < layout.shipCount(); i++) {
+                ShipView view = layout.ship(i);
+                IShip sunk = sink(game, view);
+                assertSame(layout.sunkShip(i), sunk);
+                assertFalse(sunk.stillFloating());
+                assertEquals(view.getCategory(), sunk.getCategory());
+                assertEquals(view.getBearing(), sunk.getBearing());
+                assertEquals(view.getCells(), new ArrayList<>(sunk.getPositions()));
+                for (IPosition p : sunk.getPositions()) {
+                    p.shoot();
+                    p.occupy();
+                    assertTrue(p.isHit());
+                    assertTrue(p.isOccupied());
+                    assertTrue(sunk.occupies(p));
+                }
+                sunk.shoot(view.getPosition());
+                assertFalse(sunk.stillFloating());
+            }
+            assertEquals(0, game.getRemainingShips());
+        }
+    }
+
+    @Test
+    void gamesDoNotShareState() {
+        FleetLayout layout = layout();
+        LayoutGame first = new LayoutGame(layout);
+        LayoutGame second = new LayoutGame(layout);
+        sink(first, layout.ship(0));
+        assertTrue(first.isSunk(0));
+        assertFalse(second.isSunk(0));
+        ShipView galleon = layout.ship(0);
+        assertNull(second.fire(galleon.getPosition()));
+        assertEquals(layout.shipCount(), second.getRemainingShips());
+    }
+
+    @Test
+    void shotOrderGrowsOnLargeBoards() {
+        BoardConfig config = new BoardConfig(300, 300, 10);
+        Fleet fleet = new Fleet(config);
+        fleet.addShip(new Barge(Compass.NORTH, new Position(299, 299)));
+        LayoutGame game = new LayoutGame(FleetLayout.of(fleet));
+        for (int row = 0; row < config.getRows(); row++)
+            for (int column = 0; column < config.getColumns(); column++)
+                game.fire(row, column);
+        List<ICoordinate> shots = game.getShots();
+        assertEquals(config.getCells(), shots.size());
+        for (int cell = 0; cell < config.getCells(); cell++)
+            assertEquals(config.positionAt(cell), shots.get(cell));
+        assertEquals(0, game.getRemainingShips());
+    }
+}
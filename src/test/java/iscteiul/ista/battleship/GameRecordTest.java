@@ -0,0 +1,262 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que um jogo gravado por {@link GameRecordWriter} é lido por
+ * {@link GameRecordReader} sem perdas: configuração do tabuleiro, frota e
+ * tiros, incluindo os tiros fora do tabuleiro.
+ *
+ * @author Tiago
+ */
+class GameRecordTest {
+
+    /** Jogo sem tiros. */
+    private static final int[][] NO_SHOTS = {};
+
+    /**
+     * Grava os jogos indicados, um por frota, com os tiros correspondentes.
+     */
+    private static byte[] record(BoardConfig config, List<IFleet> fleets, List<int[][]> shots) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes, config)) {
+            for (int g = 0; g < fleets.size(); g++) {
+                Game game = new Game(fleets.get(g), config);
+                game.setRecorder(writer);
+                for (int[] shot : shots.get(g))
+                    game.fire(shot[0], shot[1]);
+                writer.endGame();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lê todos os registos, descrevendo cada um numa linha.
+     */
+    private static List<String> read(byte[] bytes) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            records.add("config " + reader.getBoardConfig() + " " + reader.getBoardConfig().getFleetSize());
+            for (int type = reader.next(); type != GameRecordReader.EOF; type = reader.next()) {
+                switch (type) {
+                    case GameRecordReader.FLEET:
+                        StringBuilder fleet = new StringBuilder("fleet");
+                        for (IShip s : reader.buildFleet().getShips())
+                            fleet.append(' ').append(s);
+                        records.add(fleet.toString());
+                        break;
+                    case GameRecordReader.SHOT:
+                        records.add("shot " + reader.row() + " " + reader.column() + " " + reader.result());
+                        break;
+                    default:
+                        records.add("end");
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Lê o registo, volta a jogar cada jogo sobre a frota reconstruída e
+     * verifica que a nova gravação é igual à original.
+     */
+    private static void checkReplay(byte[] bytes) throws IOException {
+        List<IFleet> fleets = new ArrayList<>();
+        List<int[][]> shots = new ArrayList<>();
+        BoardConfig config;
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            config = reader.getBoardConfig();
+            List<int[]> current = new ArrayList<>();
+            for (int type = reader.next(); type != GameRecordReader.EOF; type = reader.next()) {
+                if (type == GameRecordReader.FLEET) {
+                    fleets.add(reader.buildFleet());
+                } else if (type == GameRecordReader.SHOT) {
+                    current.add(new int[]{reader.row(), reader.column()});
+                } else {
+                    shots.add(current.toArray(NO_SHOTS));
+                    current.clear();
+                }
+            }
+        }
+        assertArrayEquals(bytes, record(config, fleets, shots));
+    }
+
+    /**
+     * Preenche um tabuleiro com barcas em linhas e colunas pares.
+     */
+    private static Fleet barges(BoardConfig config, int count) {
+        Fleet fleet = new Fleet(config);
+        for (int i = 0; fleet.getShips().size() < count; i++) {
+            int row = 2 * (i / ((config.getColumns() + 1) / 2));
+            int column = 2 * (i % ((config.getColumns() + 1) / 2));
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(row, column))));
+        }
+        return fleet;
+    }
+
+    @Test
+    void largeBoardKeepsEveryShip() throws IOException {
+        BoardConfig config = new BoardConfig(100, 100, 200);
+        Fleet fleet = barges(config, 200);
+        int[][] shots = {{0, 0}, {0, 1}, {0, 0}, {-1, 5}, {100, 100}, {-70000, 2_000_000}, {6, 98}, {99, 99}};
+        byte[] bytes = record(config, List.of(fleet), List.<int[][]>of(shots));
+
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            BoardConfig read = reader.getBoardConfig();
+            assertEquals(100, read.getRows());
+            assertEquals(100, read.getColumns());
+            assertEquals(200, read.getFleetSize());
+            assertEquals(config.getQuotas(), read.getQuotas());
+            assertEquals(GameRecordReader.FLEET, reader.next());
+            assertEquals(200, reader.shipCount());
+            Fleet rebuilt = reader.buildFleet();
+            assertEquals(200, rebuilt.getShips().size());
+            assertEquals(fleet.getShips().toString(), rebuilt.getShips().toString());
+
+            String[] expected = {"0 0 SUNK", "0 1 MISS", "0 0 REPEATED", "-1 5 INVALID", "100 100 INVALID",
+                    "-70000 2000000 INVALID", "6 98 SUNK", "99 99 MISS"};
+            for (String shot : expected) {
+                assertEquals(GameRecordReader.SHOT, reader.next());
+                assertEquals(shot, reader.row() + " " + reader.column() + " " + reader.result());
+            }
+            assertEquals(GameRecordReader.END, reader.next());
+            assertEquals(GameRecordReader.EOF, reader.next());
+        }
+        checkReplay(bytes);
+    }
+
+    @Test
+    void quotasAreKept() throws IOException {
+        Random random = new Random(42);
+        RandomFleetGenerator generator = new RandomFleetGenerator(BoardConfig.STANDARD, 42);
+        List<IFleet> fleets = new ArrayList<>();
+        List<int[][]> shots = new ArrayList<>();
+        for (int g = 0; g < 20; g++) {
+            fleets.add(generator.nextFleet());
+            int[][] game = new int[60][];
+            for (int i = 0; i < game.length; i++)
+                game[i] = new int[]{random.nextInt(12) - 1, random.nextInt(12) - 1};
+            shots.add(game);
+        }
+        byte[] bytes = record(BoardConfig.STANDARD, fleets, shots);
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            assertEquals(BoardConfig.STANDARD.getQuotas(), reader.getBoardConfig().getQuotas());
+            assertEquals(BoardConfig.STANDARD.getFleetSize(), reader.getBoardConfig().getFleetSize());
+        }
+        checkReplay(bytes);
+    }
+
+    @Test
+    void rejectedShipIsAnError() throws IOException {
+        BoardConfig config = new BoardConfig(5, 5, 10);
+        Fleet fleet = new Fleet(config);
+        fleet.getShips().add(new Barge(Compass.NORTH, new Position(0, 0)));
+        fleet.getShips().add(new Barge(Compass.NORTH, new Position(0, 1)));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes, config)) {
+            writer.fleet(fleet);
+        }
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(GameRecordReader.FLEET, reader.next());
+            assertThrows(IOException.class, reader::buildFleet);
+        }
+    }
+
+    @Test
+    void bargeWithoutBearingIsRecordedFacingNorth() throws IOException {
+        Fleet fleet = new Fleet(BoardConfig.STANDARD);
+        // com as asserções ativas, new Barge(null, ...) falha no construtor de Ship
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(3, 4)) {
+            @Override
+            public Compass getBearing() {
+                return null;
+            }
+        }));
+        assertTrue(fleet.addShip(new Caravel(Compass.EAST, new Position(6, 6))));
+        byte[] bytes = record(BoardConfig.STANDARD, List.of(fleet), List.<int[][]>of(new int[][]{{3, 4}, {-1, 0}}));
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            assertEquals(GameRecordReader.FLEET, reader.next());
+            assertEquals(Compass.NORTH, reader.shipBearing(0));
+            assertEquals(List.of(new Position(3, 4)), reader.buildFleet().getShips().get(0).getPositions());
+        }
+        checkReplay(bytes);
+    }
+
+    @Test
+    void rejectedFleetLeavesTheRecorderDetached() throws IOException {
+        Fleet fleet = new Fleet(BoardConfig.STANDARD);
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+        assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(5, 5)) {
+            @Override
+            public String getCategory() {
+                return "Jangada";
+            }
+        }));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes, BoardConfig.STANDARD)) {
+            Game game = new Game(fleet);
+            assertThrows(IllegalArgumentException.class, () -> game.setRecorder(writer));
+            game.fire(0, 0);
+        }
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(GameRecordReader.EOF, reader.next());
+        }
+    }
+
+    @Test
+    void recorderOfAnotherBoardIsRejected() throws IOException {
+        BoardConfig config = new BoardConfig(20, 20, 10);
+        Game game = new Game(barges(config, 3), config);
+        try (GameRecordWriter writer = new GameRecordWriter(new ByteArrayOutputStream(), BoardConfig.DEFAULT)) {
+            assertThrows(IllegalArgumentException.class, () -> game.setRecorder(writer));
+        }
+        try (GameRecordWriter writer = new GameRecordWriter(new ByteArrayOutputStream(),
+                new BoardConfig(20, 20, 10, BoardConfig.STANDARD_FLEET))) {
+            assertThrows(IllegalArgumentException.class, () -> game.setRecorder(writer));
+        }
+    }
+
+    @Test
+    void otherVersionsAreRejected() throws IOException {
+        byte[] bytes = record(BoardConfig.STANDARD, List.of(), List.of());
+        for (int version : new int[]{0, 1, GameRecordWriter.VERSION + 1}) {
+            bytes[GameRecordWriter.MAGIC.length] = (byte) version;
+            byte[] other = bytes.clone();
+            assertThrows(IOException.class, () -> new GameRecordReader(new ByteArrayInputStream(other)));
+        }
+    }
+
+    @Test
+    void truncatedInputIsAnError() throws IOException {
+        BoardConfig config = new BoardConfig(20, 30, 40, BoardConfig.STANDARD_FLEET);
+        Fleet fleet = barges(config, 4);
+        int[][] shots = {{0, 0}, {-3, 7}, {19, 29}, {2, 2}, {400, -400}, {18, 28}};
+        byte[] bytes = record(config, List.of(fleet, fleet), List.of(shots, NO_SHOTS));
+        List<String> full = read(bytes);
+        for (int n = 0; n < bytes.length; n++) {
+            byte[] prefix = Arrays.copyOf(bytes, n);
+            List<String> records;
+            try {
+                records = read(prefix);
+            } catch (IOException e) {
+                continue;
+            }
+            assertTrue(records.size() < full.size(), "prefix " + n);
+            assertEquals(full.subList(0, records.size()), records, "prefix " + n);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static iscteiul.ista.battleship.LoopbackClient.FLEET;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Joga sessões completas contra um {@link GameServer} por loopback e verifica
+ * que {@link GameServer#close()} termina as sessões em curso.
+ *
+ * @author Mariana
+ */
+class GameServerTest {
+
+    /** Fim de linha das respostas. */
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    void sessionPlaysAGame() throws Exception {
+        String script = FLEET + "rajada 9 9 0 9 3 3\nrajada 9 9 -1 4 5 5\ndesisto\nestado\n";
+        String barca = "Mas... mas... Barcas nao sao a prova de bala? :-(" + NL;
+        String expected = "11 navios adicionados com sucesso!" + NL
+                + barca + barca + barca
+                + "Hits: 3 Inv: 0 Rep: 0 Restam 8 navios." + NL
+                + "Hits: 3 Inv: 1 Rep: 1 Restam 8 navios." + NL
+                + Tasks.GOODBYE_MESSAGE + NL;
+        try (GameServer server = new GameServer(LoopbackClient.anyPort())) {
+            server.start();
+            assertEquals(expected, LoopbackClient.text(LoopbackClient.talk(server.getPort(), script, 4096)));
+            assertEquals(expected, LoopbackClient.text(LoopbackClient.talk(server.getPort(), script, 1)));
+            LoopbackClient.awaitValue(0, server::getSessionCount);
+        }
+    }
+
+    @Test
+    void numberExpectedEndsTheSession() throws Exception {
+        try (GameServer server = new GameServer(LoopbackClient.anyPort())) {
+            server.start();
+            String reply = LoopbackClient.text(LoopbackClient.talk(server.getPort(),
+                    FLEET + "rajada 1 1 x 2 3 3\nestado\n", 64));
+            assertEquals("11 navios adicionados com sucesso!" + NL + GameSession.NUMBER_EXPECTED + NL, reply);
+        }
+    }
+
+    @Test
+    void closeEndsOpenSessions() throws Exception {
+        GameServer server = new GameServer(LoopbackClient.anyPort());
+        server.start();
+        List<Socket> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Socket socket = LoopbackClient.connect(server.getPort());
+                // a meio do comando nova: a sessão fica à espera dos navios
+                socket.getOutputStream().write("nova\ngaleao 0 0 n\n".getBytes(StandardCharsets.US_ASCII));
+                clients.add(socket);
+            }
+            LoopbackClient.awaitValue(3, server::getSessionCount);
+            server.close();
+            for (Socket socket : clients) {
+                ByteArrayOutputStream reply = new ByteArrayOutputStream();
+                LoopbackClient.readAll(socket, reply);
+                assertEquals(0, reply.size());
+            }
+            assertEquals(0, server.getSessionCount());
+            assertTimeoutPreemptively(Duration.ofMillis(LoopbackClient.TIMEOUT), server::join);
+        } finally {
+            server.close();
+            for (Socket socket : clients)
+                closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // já fechada
+        }
+    }
+}
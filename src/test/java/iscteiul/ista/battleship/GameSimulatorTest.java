@@ -0,0 +1,62 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica que os resultados do {@link GameSimulator} dependem apenas da
+ * semente, e não do número de threads nem da forma como as partidas são
+ * repartidas.
+ *
+ * @author Tiago
+ */
+class GameSimulatorTest {
+
+    private static void assertSameResult(SimulationResult expected, SimulationResult actual, String name) {
+        assertEquals(expected.getGames(), actual.getGames(), name);
+        assertEquals(expected.getWins(), actual.getWins(), name);
+        assertEquals(expected.getShots(), actual.getShots(), name);
+        assertEquals(expected.getHits(), actual.getHits(), name);
+        assertEquals(expected.getRepeatedShots(), actual.getRepeatedShots(), name);
+        assertEquals(expected.getInvalidShots(), actual.getInvalidShots(), name);
+        assertEquals(expected.getSinks(), actual.getSinks(), name);
+        assertArrayEquals(expected.getShotsToWin(), actual.getShotsToWin(), name);
+    }
+
+    private static void checkReproducible(BiFunction<BoardConfig, SplittableRandom, IShooter> shooters,
+                                          long games, long seed) {
+        GameSimulator simulator = new GameSimulator(BoardConfig.STANDARD, shooters);
+        SimulationResult sequential = new SimulationResult(BoardConfig.STANDARD.getCells());
+        for (long i = 0; i < games; i++)
+            simulator.play(i, seed, sequential);
+
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            SimulationResult single = simulator.run(games, seed, one);
+            SimulationResult parallel = simulator.run(games, seed, four);
+            assertEquals(games, single.getGames());
+            assertSameResult(sequential, single, "1 thread");
+            assertSameResult(single, parallel, "4 threads");
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    void randomShooterIsReproducibleAcrossPools() {
+        checkReproducible(RandomShooter::new, 1500, 42);
+    }
+
+    @Test
+    void probabilityShooterIsReproducibleAcrossPools() {
+        checkReproducible(ProbabilityShooter::new, 600, 7);
+    }
+}
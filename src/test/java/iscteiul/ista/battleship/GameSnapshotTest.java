@@ -0,0 +1,119 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica {@link Game#snapshot()}, {@link Game#restore(int)} e
+ * {@link Game#release(int)} com sequências aleatórias de tiros e de snapshots
+ * encaixados, comparando o estado restaurado com o estado guardado.
+ *
+ * @author Tiago
+ */
+class GameSnapshotTest {
+
+    /**
+     * Descreve todo o estado observável do jogo e da frota.
+     */
+    private static String state(Game game, Fleet fleet) {
+        StringBuilder out = new StringBuilder();
+        out.append(game.getShots()).append(' ')
+                .append(game.getHits()).append(' ')
+                .append(game.getSunkShips()).append(' ')
+                .append(game.getInvalidShots()).append(' ')
+                .append(game.getRepeatedShots()).append(' ')
+                .append(game.getRemainingShips()).append(' ')
+                .append(fleet.getSunkShips()).append('\n');
+        for (IShip s : fleet.getShips()) {
+            out.append(s).append(s.stillFloating());
+            for (IPosition p : s.getPositions())
+                out.append(p.isHit() ? 'X' : '.');
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Dispara um tiro aleatório, às vezes fora do tabuleiro, um a um ou em lote.
+     */
+    private static void fire(Game game, Random random) {
+        int row = random.nextInt(12) - 1;
+        int column = random.nextInt(12) - 1;
+        if (random.nextBoolean())
+            game.fire(row, column);
+        else
+            game.fireAll(new int[]{game.getBoardConfig().targetCell(row, column)});
+    }
+
+    @Test
+    void randomNestedSnapshots() {
+        Random random = new Random(2024);
+        RandomFleetGenerator generator = new RandomFleetGenerator(BoardConfig.STANDARD, 7);
+        for (int round = 0; round < 200; round++) {
+            Fleet fleet = generator.nextFleet();
+            Game game = new Game(fleet);
+            List<Integer> marks = new ArrayList<>();
+            List<String> states = new ArrayList<>();
+            for (int step = 0; step < 300; step++) {
+                int op = random.nextInt(10);
+                if (op < 6 || marks.isEmpty()) {
+                    if (op < 2 && marks.size() < 8) {
+                        marks.add(game.snapshot());
+                        states.add(state(game, fleet));
+                    } else {
+                        fire(game, random);
+                    }
+                } else if (op < 8) {
+                    int i = random.nextInt(marks.size());
+                    game.restore(marks.get(i));
+                    assertEquals(states.get(i), state(game, fleet), "restore " + i);
+                    int keep = i + 1;
+                    while (keep < marks.size() && marks.get(keep).equals(marks.get(i)))
+                        keep++;
+                    marks.subList(keep, marks.size()).clear();
+                    states.subList(keep, states.size()).clear();
+                } else {
+                    int i = random.nextInt(marks.size());
+                    String current = state(game, fleet);
+                    game.release(marks.get(i));
+                    assertEquals(current, state(game, fleet), "release " + i);
+                    // snapshots com a mesma marca são indistinguíveis: é libertado o mais recente
+                    while (i + 1 < marks.size() && marks.get(i + 1).equals(marks.get(i)))
+                        i++;
+                    marks.subList(i, marks.size()).clear();
+                    states.subList(i, states.size()).clear();
+                    if (marks.isEmpty()) {
+                        assertEquals(0, game.snapshot(), "trimmed journal");
+                        game.release(0);
+                    }
+                }
+            }
+            for (int i = marks.size() - 1; i >= 0; i--) {
+                game.restore(marks.get(i));
+                assertEquals(states.get(i), state(game, fleet), "final restore " + i);
+            }
+        }
+    }
+
+    @Test
+    void releasedSnapshotsCannotBeRestored() {
+        Game game = new Game(new RandomFleetGenerator(BoardConfig.STANDARD, 3).nextFleet());
+        int outer = game.snapshot();
+        game.fire(0, 0);
+        int inner = game.snapshot();
+        game.fire(0, 1);
+        game.restore(outer);
+        assertThrows(IllegalArgumentException.class, () -> game.restore(inner));
+        game.fire(5, 5);
+        game.release(outer);
+        assertThrows(IllegalArgumentException.class, () -> game.restore(outer));
+        assertThrows(IllegalArgumentException.class, () -> game.release(outer + 1));
+        assertEquals(0, game.snapshot());
+    }
+}
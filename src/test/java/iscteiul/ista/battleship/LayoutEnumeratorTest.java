@@ -0,0 +1,208 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara o {@link LayoutEnumerator} com uma enumeração por força bruta em
+ * tabuleiros pequenos, em que cada frota é validada por {@link Fleet#addShip(IShip)}.
+ *
+ * @author Tiago
+ */
+class LayoutEnumeratorTest {
+
+    /**
+     * Resultado da enumeração por força bruta.
+     */
+    private static final class BruteForce {
+
+        /** Tabuleiro. */
+        private final BoardConfig config;
+
+        /** Colocações distintas de cada navio a colocar, do maior para o menor. */
+        private final List<List<Ship>> options = new ArrayList<>();
+
+        /** Tipo de cada navio a colocar, pela mesma ordem. */
+        private final List<Integer> kinds = new ArrayList<>();
+
+        /** Frotas encontradas, como conjuntos ordenados de células por navio. */
+        private final Set<List<List<Integer>>> layouts = new HashSet<>();
+
+        /** Número de frotas em que cada célula está ocupada. */
+        private final long[] cellCounts;
+
+        BruteForce(BoardConfig config, Map<String, Integer> composition) {
+            this.config = config;
+            this.cellCounts = new long[config.getCells()];
+            for (int kind = ShapeTable.KINDS - 1; kind >= 0; kind--) {
+                int n = composition.getOrDefault(ShapeTable.categoryOf(kind), 0);
+                List<Ship> ships = placements(kind);
+                for (int i = 0; i < n; i++) {
+                    options.add(ships);
+                    kinds.add(kind);
+                }
+            }
+            search(new ArrayList<>(), new int[options.size()]);
+        }
+
+        /**
+         * Constrói todas as colocações de um tipo de navio dentro do tabuleiro,
+         * sem repetir conjuntos de células.
+         */
+        private List<Ship> placements(int kind) {
+            List<Ship> ships = new ArrayList<>();
+            Set<List<Integer>> seen = new HashSet<>();
+            for (Compass bearing : Compass.values())
+                for (int row = 0; row < config.getRows(); row++)
+                    for (int column = 0; column < config.getColumns(); column++) {
+                        Ship s;
+                        try {
+                            s = Ship.buildShip(kind, bearing, new Position(row, column));
+                        } catch (IllegalArgumentException | NullPointerException e) {
+                            continue;
+                        }
+                        List<Integer> cells = cellsOf(s);
+                        if (cells != null && seen.add(cells))
+                            ships.add(s);
+                    }
+            return ships;
+        }
+
+        /**
+         * Devolve as células ordenadas de um navio, ou {@code null} se sair do tabuleiro.
+         */
+        private List<Integer> cellsOf(IShip s) {
+            List<Integer> cells = new ArrayList<>();
+            for (IPosition p : s.getPositions()) {
+                if (!config.isInside(p.getRow(), p.getColumn()))
+                    return null;
+                cells.add(config.cellOf(p.getRow(), p.getColumn()));
+            }
+            cells.sort(null);
+            return cells;
+        }
+
+        /**
+         * Escolhe o navio seguinte; navios do mesmo tipo são escolhidos por
+         * ordem crescente, para cada frota ser contada uma única vez.
+         */
+        private void search(List<Ship> chosen, int[] index) {
+            if (!legal(chosen))
+                return;
+            int depth = chosen.size();
+            if (depth == options.size()) {
+                List<List<Integer>> layout = new ArrayList<>();
+                for (Ship s : chosen) {
+                    List<Integer> cells = cellsOf(s);
+                    layout.add(cells);
+                    for (int cell : cells)
+                        cellCounts[cell]++;
+                }
+                layouts.add(layout);
+                return;
+            }
+            int from = depth > 0 && kinds.get(depth).equals(kinds.get(depth - 1)) ? index[depth - 1] + 1 : 0;
+            List<Ship> ships = options.get(depth);
+            for (int i = from; i < ships.size(); i++) {
+                index[depth] = i;
+                chosen.add(ships.get(i));
+                search(chosen, index);
+                chosen.remove(depth);
+            }
+        }
+
+        /**
+         * Verifica se uma frota nova, sem limites, aceita todos os navios escolhidos.
+         */
+        private boolean legal(List<Ship> chosen) {
+            Fleet fleet = new Fleet(new BoardConfig(config.getRows(), config.getColumns(), options.size()));
+            for (Ship s : chosen)
+                if (!fleet.addShip(s))
+                    return false;
+            return true;
+        }
+    }
+
+    private static Map<String, Integer> composition(Object... categoryAndCount) {
+        Map<String, Integer> composition = new LinkedHashMap<>();
+        for (int i = 0; i < categoryAndCount.length; i += 2)
+            composition.put((String) categoryAndCount[i], (Integer) categoryAndCount[i + 1]);
+        return composition;
+    }
+
+    /**
+     * Compara contagem, contagens por célula, probabilidades e frotas percorridas.
+     */
+    private static void check(int rows, int columns, Map<String, Integer> composition) {
+        BoardConfig config = new BoardConfig(rows, columns, 10, composition);
+        BruteForce expected = new BruteForce(config, composition);
+        PlacementTable table = new PlacementTable(config);
+        LayoutEnumerator enumerator = new LayoutEnumerator(table, composition);
+        String board = rows + "x" + columns + " " + composition;
+
+        long count = enumerator.count();
+        assertEquals(expected.layouts.size(), count, board);
+        assertArrayEquals(expected.cellCounts, enumerator.cellCounts(), board);
+
+        double[] probabilities = enumerator.cellProbabilities();
+        for (int cell = 0; cell < config.getCells(); cell++)
+            assertEquals(count == 0 ? 0.0 : (double) expected.cellCounts[cell] / count, probabilities[cell], 1e-12, board);
+
+        Set<List<List<Integer>>> visited = new HashSet<>();
+        enumerator.forEach(layout -> {
+            List<List<Integer>> ships = new ArrayList<>();
+            for (int p : layout) {
+                List<Integer> cells = new ArrayList<>();
+                for (int cell : table.cells(p))
+                    cells.add(cell);
+                cells.sort(null);
+                ships.add(cells);
+            }
+            visited.add(ships);
+        });
+        assertEquals(expected.layouts, visited, board);
+
+        assertEquals(count, new LayoutEnumerator(config).count(), board);
+    }
+
+    @Test
+    void squareBoardWithSmallShips() {
+        check(4, 4, composition("Caravela", 1, "Barca", 2));
+    }
+
+    @Test
+    void squareBoardWithMixedShips() {
+        check(5, 5, composition("Nau", 1, "Caravela", 1, "Barca", 1));
+    }
+
+    @Test
+    void rectangularBoard() {
+        check(4, 6, composition("Fragata", 1, "Caravela", 2));
+    }
+
+    @Test
+    void galleonShapes() {
+        check(6, 6, composition("Galeao", 1, "Barca", 2));
+    }
+
+    @Test
+    void boardWithoutLegalFleets() {
+        check(3, 3, composition("Galeao", 1, "Barca", 1));
+    }
+
+    @Test
+    void emptyComposition() {
+        LayoutEnumerator enumerator = new LayoutEnumerator(new BoardConfig(4, 4, 10));
+        assertEquals(1L, enumerator.count());
+        assertArrayEquals(new long[16], enumerator.cellCounts());
+    }
+}
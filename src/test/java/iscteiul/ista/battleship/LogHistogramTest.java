@@ -0,0 +1,133 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica os contadores do {@link LogHistogram}, em particular nas fronteiras
+ * das potências de dois, e o erro relativo dos percentis.
+ *
+ * @author Tiago
+ */
+class LogHistogramTest {
+
+    /**
+     * Valores de teste: as fronteiras de todas as potências de dois e os
+     * extremos dos valores {@code long}.
+     */
+    private static List<Long> boundaries() {
+        List<Long> values = new ArrayList<>();
+        for (int k = 0; k < Long.SIZE - 1; k++) {
+            long power = 1L << k;
+            values.add(power - 1);
+            values.add(power);
+            values.add(power + 1);
+        }
+        values.add(Long.MAX_VALUE - 1);
+        values.add(Long.MAX_VALUE);
+        return values;
+    }
+
+    /** Limite superior (exclusivo) de um contador, sem transbordar no último. */
+    private static long upperBound(int bucket) {
+        return bucket + 1 == LogHistogram.BUCKETS ? Long.MAX_VALUE : LogHistogram.lowerBound(bucket + 1);
+    }
+
+    @Test
+    void smallValuesHaveOneBucketEach() {
+        for (int v = 0; v < 32; v++) {
+            assertEquals(v, LogHistogram.bucketOf(v));
+            assertEquals(v, LogHistogram.lowerBound(v));
+        }
+        assertEquals(32, LogHistogram.bucketOf(32));
+        assertEquals(32, LogHistogram.bucketOf(33));
+        assertEquals(33, LogHistogram.bucketOf(34));
+        assertEquals(LogHistogram.BUCKETS - 1, LogHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucket() {
+        for (long value : boundaries()) {
+            int bucket = LogHistogram.bucketOf(value);
+            assertTrue(bucket >= 0 && bucket < LogHistogram.BUCKETS, "value " + value);
+            long lower = LogHistogram.lowerBound(bucket);
+            long upper = upperBound(bucket);
+            assertTrue(lower <= value, "value " + value + " below " + lower);
+            assertTrue(value < upper || value == Long.MAX_VALUE, "value " + value + " above " + upper);
+            // erro relativo inferior a 1/16
+            assertTrue(upper - lower <= Math.max(1, lower / 16), "bucket " + bucket);
+        }
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        for (int bucket = 0; bucket < LogHistogram.BUCKETS; bucket++) {
+            long lower = LogHistogram.lowerBound(bucket);
+            assertEquals(bucket, LogHistogram.bucketOf(lower), "bucket " + bucket);
+            if (bucket > 0)
+                assertEquals(bucket - 1, LogHistogram.bucketOf(lower - 1), "bucket " + bucket);
+        }
+    }
+
+    @Test
+    void percentilesAreWithinTheRelativeError() {
+        LogHistogram histogram = new LogHistogram();
+        Random random = new Random(37);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(4) == 0 ? random.nextInt(64) : (long) Math.exp(random.nextDouble() * 30);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.getPercentile(100));
+        for (double p : new double[]{0, 1, 10, 25, 50, 75, 90, 99, 99.9}) {
+            long exact = values[Math.max(0, (int) Math.ceil(p / 100 * values.length) - 1)];
+            long reported = histogram.getPercentile(p);
+            assertTrue(reported >= exact, p + ": " + reported + " < " + exact);
+            assertTrue(reported - exact <= exact / 16, p + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void percentilesAtPowerOfTwoBoundaries() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(1023);
+        histogram.record(1024);
+        histogram.record(1024);
+        histogram.record(-5);
+        assertEquals(4, histogram.getCount());
+        // -5 conta como 0; 1023 fica no último contador da potência anterior
+        assertEquals(0, histogram.getPercentile(25));
+        assertEquals(1023, histogram.getPercentile(50));
+        assertEquals(1024, histogram.getPercentile(75));
+        assertEquals(1024, histogram.getPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+    }
+
+    @Test
+    void emptyAndInvalid() {
+        LogHistogram histogram = new LogHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMean());
+        histogram.record(40);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(100.5));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(Double.NaN));
+    }
+}
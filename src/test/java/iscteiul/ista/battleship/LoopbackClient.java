@@ -0,0 +1,159 @@
+package iscteiul.ista.battleship;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Cliente dos testes de {@link GameServer} e {@link NioGameServer}: envia um
+ * guião de comandos por loopback e devolve tudo o que o servidor responder
+ * até fechar a ligação.
+ *
+ * @author Mariana
+ */
+final class LoopbackClient {
+
+    /** Tempo máximo de espera por uma resposta, em milissegundos. */
+    static final int TIMEOUT = 10_000;
+
+    /** Comando {@code nova} com uma frota completa (a barca em 99 99 é recusada). */
+    static final String FLEET = "nova\n"
+            + "galeao 0 0 n\nfragata 4 0 s\nnau 9 0 e\nnau 0 5 s\nbarca 9 9 n\ncaravela 6 5 e\n"
+            + "caravela 2 8 s\ncaravela 6 9 s\nbarca 3 3 n\nbarca 99 99 n\nbarca 0 9 n\nbarca 9 5 n\n";
+
+    private LoopbackClient() {
+    }
+
+    /**
+     * Devolve o endereço de loopback, numa porta livre qualquer.
+     *
+     * @return endereço de escuta para os servidores dos testes
+     */
+    static InetSocketAddress anyPort() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    /**
+     * Abre uma ligação ao servidor, com {@link #TIMEOUT} nas leituras.
+     *
+     * @param port porta do servidor
+     * @return ligação aberta
+     * @throws IOException se não for possível ligar
+     */
+    static Socket connect(int port) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setSoTimeout(TIMEOUT);
+        socket.setTcpNoDelay(true);
+        return socket;
+    }
+
+    /**
+     * Envia um guião e devolve a resposta completa.
+     *
+     * @param port   porta do servidor
+     * @param script comandos a enviar
+     * @param chunk  número de bytes de cada escrita
+     * @return bytes recebidos até o servidor fechar a ligação
+     * @throws Exception se a ligação falhar ou o servidor não responder a tempo
+     */
+    static byte[] talk(int port, String script, int chunk) throws Exception {
+        return talk(port, script.getBytes(StandardCharsets.UTF_8), chunk, 0);
+    }
+
+    /**
+     * Envia um guião e devolve a resposta completa. As respostas só começam a
+     * ser lidas depois de {@code readDelay} milissegundos, para o servidor
+     * encontrar o cliente sem ler.
+     *
+     * @param port      porta do servidor
+     * @param script    comandos a enviar
+     * @param chunk     número de bytes de cada escrita
+     * @param readDelay espera antes de começar a ler, em milissegundos
+     * @return bytes recebidos até o servidor fechar a ligação
+     * @throws Exception se a ligação falhar ou o servidor não responder a tempo
+     */
+    static byte[] talk(int port, byte[] script, int chunk, long readDelay) throws Exception {
+        try (Socket socket = connect(port)) {
+            ByteArrayOutputStream reply = new ByteArrayOutputStream();
+            Throwable[] failure = new Throwable[1];
+            Thread reader = new Thread(() -> {
+                try {
+                    Thread.sleep(readDelay);
+                    readAll(socket, reply);
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }, "loopback-reader");
+            reader.start();
+            OutputStream out = socket.getOutputStream();
+            try {
+                for (int i = 0; i < script.length; i += chunk) {
+                    out.write(script, i, Math.min(chunk, script.length - i));
+                    out.flush();
+                }
+                socket.shutdownOutput();
+            } catch (SocketException e) {
+                // o servidor fechou a ligação antes do fim do guião
+            }
+            reader.join(readDelay + 6L * TIMEOUT);
+            if (reader.isAlive())
+                fail("no reply from port " + port);
+            if (failure[0] != null)
+                throw new AssertionError("reading from port " + port, failure[0]);
+            return reply.toByteArray();
+        }
+    }
+
+    /**
+     * Lê da ligação até o servidor a fechar.
+     *
+     * @param socket ligação
+     * @param reply  destino dos bytes lidos
+     * @throws IOException se a leitura falhar ou exceder {@link #TIMEOUT}
+     */
+    static void readAll(Socket socket, ByteArrayOutputStream reply) throws IOException {
+        InputStream in = socket.getInputStream();
+        byte[] buffer = new byte[8192];
+        try {
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+                reply.write(buffer, 0, n);
+        } catch (SocketException e) {
+            // ligação reposta pelo servidor ao fechar: o que foi lido fica
+        }
+    }
+
+    /**
+     * Espera que um valor chegue ao esperado, até {@link #TIMEOUT}.
+     *
+     * @param expected valor esperado
+     * @param value    valor a observar
+     * @throws InterruptedException se a thread for interrompida
+     */
+    static void awaitValue(int expected, IntSupplier value) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (value.getAsInt() != expected) {
+            if (System.currentTimeMillis() > deadline)
+                fail("expected " + expected + " but was " + value.getAsInt());
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Converte uma resposta em texto.
+     *
+     * @param reply bytes recebidos
+     * @return texto UTF-8
+     */
+    static String text(byte[] reply) {
+        return new String(reply, StandardCharsets.UTF_8);
+    }
+}
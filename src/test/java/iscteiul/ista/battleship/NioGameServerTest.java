@@ -0,0 +1,155 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static iscteiul.ista.battleship.LoopbackClient.FLEET;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que o {@link NioGameServer} responde byte a byte como o
+ * {@link GameServer} aos mesmos guiões, enviados de uma vez ou aos bocados,
+ * e que fecha as ligações com comandos incompletos demasiado longos.
+ *
+ * @author Mariana
+ */
+class NioGameServerTest {
+
+    /** Servidor de referência. */
+    private static GameServer reference;
+
+    /** Servidor em teste. */
+    private static NioGameServer server;
+
+    @BeforeAll
+    static void start() throws IOException {
+        reference = new GameServer(LoopbackClient.anyPort());
+        reference.start();
+        server = new NioGameServer(LoopbackClient.anyPort());
+        server.start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        server.close();
+        reference.close();
+    }
+
+    /**
+     * Gera rajadas aleatórias, algumas com tiros fora do tabuleiro e com
+     * {@code \r\n} no fim, enviadas sem esperar pelas respostas.
+     */
+    private static String volleys(Random random, int count) {
+        StringBuilder script = new StringBuilder();
+        for (int v = 0; v < count; v++) {
+            script.append("rajada");
+            for (int i = 0; i < 2 * Tasks.NUMBER_SHOTS; i++)
+                script.append(' ').append(random.nextInt(12) - 1);
+            script.append(v % 7 == 0 ? "\r\n" : "\n");
+        }
+        return script.toString();
+    }
+
+    /**
+     * Envia o guião aos dois servidores, com escritas do tamanho indicado, e
+     * compara as respostas.
+     *
+     * @return resposta do servidor em teste
+     */
+    private static String check(String script, int... chunks) throws Exception {
+        byte[] bytes = script.getBytes(StandardCharsets.UTF_8);
+        byte[] expected = LoopbackClient.talk(reference.getPort(), bytes, bytes.length, 0);
+        for (int chunk : chunks)
+            assertEquals(LoopbackClient.text(expected),
+                    LoopbackClient.text(LoopbackClient.talk(server.getPort(), bytes, chunk, 0)), "chunk " + chunk);
+        return LoopbackClient.text(expected);
+    }
+
+    @Test
+    void pipelinedVolleysMatchGameServer() throws Exception {
+        Random random = new Random(3);
+        String script = "rajada 1 1 2 2 3 3\n" + FLEET + volleys(random, 150)
+                + "estado\nver\nmapa\nxpto\n" + FLEET + volleys(random, 50) + "desisto\nrajada 1 1 1 1 1 1\n";
+        String reply = check(script, script.length(), 3, 1);
+        assertTrue(reply.endsWith(Tasks.GOODBYE_MESSAGE + System.lineSeparator()));
+    }
+
+    @Test
+    void fleetIsReadShipByShipAcrossWhitespaceFloods() throws Exception {
+        String spaced = (FLEET + "estado\nrajada 9 9 0 9 3 3\ndesisto\n")
+                .replace(" ", " ".repeat(2500)).replace("\n", "\n" + "\t".repeat(1500));
+        check(spaced, 4096, 7);
+        check("nova\n" + " \n".repeat(1 << 16) + "estado\n" + " ".repeat(1 << 16) + "desisto\n", 4096);
+    }
+
+    @Test
+    void nonNumberMidVolleyEndsTheSession() throws Exception {
+        String reply = check(FLEET + "rajada 0 0 0 1 0 2\nrajada 1 1 x 2 3 3\nestado\n", 4096, 1);
+        assertTrue(reply.endsWith(GameSession.NUMBER_EXPECTED + System.lineSeparator()), reply);
+        check(FLEET + "rajada 0 0 0 1 0 2\nrajada 1 1 99999999999 2 3 3\n", 4096);
+        check("nova\ngaleao 0 x n\n", 4096);
+    }
+
+    @Test
+    void oversizedCommandClosesTheConnection() throws Exception {
+        String created = "11 navios adicionados com sucesso!" + System.lineSeparator();
+        try (Socket socket = LoopbackClient.connect(server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(FLEET.getBytes(StandardCharsets.US_ASCII));
+            byte[] line = new byte[created.length()];
+            assertEquals(line.length, socket.getInputStream().readNBytes(line, 0, line.length));
+            assertEquals(created, LoopbackClient.text(line));
+            // um número que nunca acaba: a ligação é fechada sem esperar pelo fim do guião
+            out.write("rajada 1 ".getBytes(StandardCharsets.US_ASCII));
+            byte[] digits = "1".repeat(512).getBytes(StandardCharsets.US_ASCII);
+            try {
+                for (int i = 0; i < 8; i++)
+                    out.write(digits);
+            } catch (IOException e) {
+                // o servidor pode fechar a ligação antes de receber tudo
+            }
+            ByteArrayOutputStream reply = new ByteArrayOutputStream();
+            LoopbackClient.readAll(socket, reply);
+            assertEquals(0, reply.size());
+        }
+        // as respostas aos comandos anteriores ao comando longo são enviadas
+        String reply = LoopbackClient.text(LoopbackClient.talk(server.getPort(),
+                "xpto\n" + "y".repeat(4000), 8192));
+        assertEquals(GameSession.UNKNOWN_COMMAND + System.lineSeparator(), reply);
+    }
+
+    @Test
+    void commandJustUnderTheLimitIsServed() throws Exception {
+        try (Socket socket = LoopbackClient.connect(server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write("x".repeat(1000).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            Thread.sleep(50);
+            out.write("\ndesisto\n".getBytes(StandardCharsets.US_ASCII));
+            ByteArrayOutputStream reply = new ByteArrayOutputStream();
+            LoopbackClient.readAll(socket, reply);
+            String nl = System.lineSeparator();
+            assertEquals(GameSession.UNKNOWN_COMMAND + nl + Tasks.GOODBYE_MESSAGE + nl,
+                    LoopbackClient.text(reply.toByteArray()));
+        }
+    }
+
+    @Test
+    void slowReaderGetsEveryReply() throws Exception {
+        byte[] script = (FLEET + volleys(new Random(5), 20_000) + "desisto\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = LoopbackClient.talk(reference.getPort(), script, 8192, 0);
+        // as respostas excedem os buffers do socket: o servidor tem de deixar de ler
+        byte[] reply = LoopbackClient.talk(server.getPort(), script, 8192, 500);
+        assertEquals(LoopbackClient.text(expected), LoopbackClient.text(reply));
+        LoopbackClient.awaitValue(0, server::getSessionCount);
+    }
+}
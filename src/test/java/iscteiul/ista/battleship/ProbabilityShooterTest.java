@@ -0,0 +1,149 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Joga partidas aleatórias com o {@link ProbabilityShooter} e compara, depois
+ * de cada tiro, os mapas atualizados de forma incremental com os mesmos mapas
+ * calculados de raiz a partir dos tiros já disparados.
+ *
+ * @author Tiago
+ */
+class ProbabilityShooterTest {
+
+    /**
+     * Estado do jogo visto pelo jogador, a partir do qual os mapas são
+     * recalculados.
+     */
+    private static final class Observed {
+
+        private final PlacementTable table;
+        private final BoardConfig config;
+
+        /** Células dos tiros na água. */
+        private final boolean[] miss;
+
+        /** Acertos em navios ainda não afundados. */
+        private final boolean[] hit;
+
+        /** Navios afundados. */
+        private final List<IShip> sunk = new ArrayList<>();
+
+        /** Número de navios por afundar de cada tipo. */
+        private final int[] remaining = new int[ShapeTable.KINDS];
+
+        Observed(PlacementTable table) {
+            this.table = table;
+            this.config = table.getBoardConfig();
+            this.miss = new boolean[config.getCells()];
+            this.hit = new boolean[config.getCells()];
+            for (int kind : RandomFleetGenerator.shipKinds(config.getQuotas()))
+                remaining[kind]++;
+        }
+
+        void record(ICoordinate shot, ShotResult result, IShip ship) {
+            if (!config.isInside(shot.getRow(), shot.getColumn()))
+                return;
+            int cell = config.cellOf(shot.getRow(), shot.getColumn());
+            if (result == ShotResult.MISS)
+                miss[cell] = true;
+            if (result.isHit())
+                hit[cell] = true;
+            if (result == ShotResult.SUNK) {
+                sunk.add(ship);
+                remaining[ShapeTable.kindOf(ship.getCategory())]--;
+                for (IPosition pos : ship.getPositions())
+                    hit[config.cellOf(pos.getRow(), pos.getColumn())] = false;
+            }
+        }
+
+        /**
+         * Indica se a colocação ainda é possível: não passa por nenhum tiro na
+         * água e não toca em nenhum navio afundado.
+         */
+        private boolean alive(int p) {
+            for (int c : table.cells(p)) {
+                if (miss[c])
+                    return false;
+                for (IShip ship : sunk)
+                    for (IPosition pos : ship.getPositions())
+                        if (Math.abs(pos.getRow() - config.rowOf(c)) <= 1
+                                && Math.abs(pos.getColumn() - config.columnOf(c)) <= 1)
+                            return false;
+            }
+            return true;
+        }
+
+        /**
+         * Calcula os dois mapas de raiz: {@code maps[0]} é a densidade e
+         * {@code maps[1]} a densidade do modo alvo.
+         */
+        int[][] maps() {
+            int[][] maps = new int[2][config.getCells()];
+            for (int p = 0; p < table.size(); p++) {
+                if (!alive(p))
+                    continue;
+                int weight = remaining[table.kind(p)];
+                int hits = 0;
+                for (int c : table.cells(p))
+                    if (hit[c])
+                        hits++;
+                for (int c : table.cells(p)) {
+                    maps[0][c] += weight;
+                    maps[1][c] += weight * hits;
+                }
+            }
+            return maps;
+        }
+    }
+
+    @Test
+    void incrementalMapsMatchRecomputedMaps() {
+        PlacementTable table = new PlacementTable(BoardConfig.STANDARD);
+        BoardConfig config = table.getBoardConfig();
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            Fleet fleet = new RandomFleetGenerator(table, config.getQuotas(), new SplittableRandom(random.nextLong()))
+                    .nextFleet();
+            Game game = new Game(fleet);
+            ProbabilityShooter shooter = new ProbabilityShooter(table, config.getQuotas(),
+                    new SplittableRandom(random.nextLong()));
+            Observed observed = new Observed(table);
+            int fired = 0;
+            while (game.getRemainingShips() > 0) {
+                // alguns tiros são escolhidos fora do jogador, incluindo repetidos e fora do tabuleiro
+                ICoordinate shot = random.nextInt(6) != 0 ? shooter.nextShot()
+                        : new Position(random.nextInt(config.getRows() + 2) - 1, random.nextInt(config.getColumns() + 2) - 1);
+                int hits = game.getHits();
+                int invalid = game.getInvalidShots();
+                int repeated = game.getRepeatedShots();
+                IShip sunk = game.fire(shot);
+                ShotResult result = ShotResult.of(sunk, hits, invalid, repeated, game);
+                shooter.shotResult(shot, result, sunk);
+                observed.record(shot, result, sunk);
+                fired++;
+
+                int[][] maps = observed.maps();
+                String name = "round " + round + " shot " + fired + " " + shot + " " + result;
+                assertArrayEquals(maps[0], shooter.getDensity(), name);
+                assertArrayEquals(maps[1], shooter.getTarget(), name);
+            }
+            assertEquals(0, sum(shooter.getTarget()), "round " + round);
+        }
+    }
+
+    private static int sum(int[] map) {
+        int total = 0;
+        for (int v : map)
+            total += v;
+        return total;
+    }
+}
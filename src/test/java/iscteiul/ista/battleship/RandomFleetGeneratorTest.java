@@ -0,0 +1,84 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que as frotas do {@link RandomFleetGenerator} são aceites navio a
+ * navio por {@link Fleet#addShip(IShip)}, têm a composição pedida e dependem
+ * apenas da semente.
+ *
+ * @author Tiago
+ */
+class RandomFleetGeneratorTest {
+
+    /** Tabuleiros onde as frotas são geradas. */
+    private static final List<BoardConfig> BOARDS = List.of(
+            BoardConfig.STANDARD,
+            new BoardConfig(8, 12, IFleet.FLEET_SIZE, BoardConfig.STANDARD_FLEET),
+            new BoardConfig(11, 11, IFleet.FLEET_SIZE, Map.of("Galeao", 2, "Nau", 2, "Barca", 5)));
+
+    /**
+     * Constrói a frota de uma disposição numa frota nova, verificando que
+     * cada navio é aceite.
+     */
+    private static Fleet build(PlacementTable table, int[] placements) {
+        Fleet fleet = new Fleet(table.getBoardConfig());
+        for (int p : placements)
+            assertTrue(fleet.addShip(table.buildShip(p)), "placement " + p);
+        return fleet;
+    }
+
+    private static Map<String, Integer> composition(IFleet fleet) {
+        Map<String, Integer> count = new HashMap<>();
+        for (IShip s : fleet.getShips())
+            count.merge(s.getCategory(), 1, Integer::sum);
+        return count;
+    }
+
+    @Test
+    void generatedFleetsAreValid() {
+        for (BoardConfig config : BOARDS) {
+            PlacementTable table = new PlacementTable(config);
+            RandomFleetGenerator generator = new RandomFleetGenerator(table, config.getQuotas(), new SplittableRandom(1));
+            int ships = config.getQuotas().values().stream().mapToInt(Integer::intValue).sum();
+            assertEquals(ships, generator.getShipCount());
+            for (int round = 0; round < 500; round++) {
+                Fleet fleet = build(table, generator.nextLayout());
+                assertEquals(config.getQuotas(), composition(fleet), config + " " + round);
+            }
+            for (int round = 0; round < 100; round++) {
+                Fleet fleet = generator.nextFleet();
+                assertEquals(config.getQuotas(), composition(fleet), config + " " + round);
+                assertEquals(ships, fleet.countFloatingShips());
+            }
+        }
+    }
+
+    @Test
+    void sameSeedGivesTheSameFleets() {
+        for (BoardConfig config : BOARDS) {
+            RandomFleetGenerator a = new RandomFleetGenerator(config, 99);
+            RandomFleetGenerator b = new RandomFleetGenerator(config, 99);
+            RandomFleetGenerator c = new RandomFleetGenerator(config, 100);
+            boolean differs = false;
+            for (int round = 0; round < 200; round++) {
+                int[] layout = a.nextLayout();
+                assertArrayEquals(layout, b.nextLayout(), config + " " + round);
+                differs |= !Arrays.equals(layout, c.nextLayout());
+            }
+            assertTrue(differs, config.toString());
+            assertEquals(new RandomFleetGenerator(config, 5).nextFleet().getShips().toString(),
+                    new RandomFleetGenerator(config, 5).nextFleet().getShips().toString());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica que o {@link TokenReader} divide e interpreta a entrada tal como
+ * um {@link Scanner} com o delimitador por omissão.
+ *
+ * @author Mariana
+ */
+class TokenReaderTest {
+
+    /**
+     * Fluxo que entrega os bytes um a um, para as palavras ficarem
+     * repartidas por várias leituras.
+     */
+    private static final class TrickleInputStream extends InputStream {
+
+        private final byte[] bytes;
+
+        private int position;
+
+        TrickleInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (position == bytes.length)
+                return -1;
+            b[off] = bytes[position++];
+            return 1;
+        }
+    }
+
+    /**
+     * Lê toda a entrada com {@link Scanner}: cada palavra é lida com
+     * {@code nextInt()} e, se não for um inteiro, com {@code next()}.
+     */
+    private static List<String> scan(String input) {
+        List<String> out = new ArrayList<>();
+        Scanner in = new Scanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+        while (in.hasNext()) {
+            try {
+                out.add("int " + in.nextInt());
+            } catch (InputMismatchException e) {
+                out.add("word " + in.next());
+            }
+        }
+        out.add(end(in::next));
+        out.add(end(in::nextInt));
+        return out;
+    }
+
+    /**
+     * Lê toda a entrada com {@link TokenReader}, da mesma forma que {@link #scan(String)}.
+     */
+    private static List<String> read(TokenReader in) {
+        List<String> out = new ArrayList<>();
+        while (in.hasNext()) {
+            try {
+                out.add("int " + in.nextInt());
+            } catch (InputMismatchException e) {
+                out.add("word " + in.next());
+            }
+        }
+        out.add(end(in::next));
+        out.add(end(in::nextInt));
+        return out;
+    }
+
+    /**
+     * Descreve o que acontece ao ler depois do fim da entrada.
+     */
+    private static String end(Runnable read) {
+        try {
+            read.run();
+            return "no exception";
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Compara o {@link Scanner} com o {@link TokenReader} sobre um fluxo (com
+     * vários tamanhos de buffer e com um fluxo que entrega um byte de cada vez),
+     * sobre um array e sobre um buffer direto.
+     */
+    private static void check(String input) {
+        List<String> expected = scan(input);
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize : new int[]{1, 2, 3, 7, 1 << 16})
+            assertEquals(expected, read(new TokenReader(new ByteArrayInputStream(bytes), bufferSize)),
+                    "buffer " + bufferSize + ": " + input);
+        assertEquals(expected, read(new TokenReader(new TrickleInputStream(bytes))), input);
+        assertEquals(expected, read(new TokenReader(ByteBuffer.wrap(bytes))), input);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertEquals(expected, read(new TokenReader(direct)), input);
+    }
+
+    @Test
+    void everyAsciiCharacterSeparatesLikeScanner() {
+        for (char c = 0; c < 128; c++)
+            check("nova" + c + "12" + c + c + "x" + c);
+        for (int b = 0; b < 128; b++)
+            assertEquals(Character.isWhitespace((char) b), TokenReader.isWhitespace(b), "byte " + b);
+    }
+
+    @Test
+    void commandsAndKeywords() {
+        check("nova\ngaleao 0 0 n\r\nfragata 4 0 s\trajada 1 1 2 2 3 3\fmapa\u000Bestado\u001Fdesisto\n");
+        check("NOVA Barca barcas nov a\u001C\u001D\u001E");
+    }
+
+    @Test
+    void signs() {
+        check("+5 -5 +0 -0 + - +-1 -+1 5- 1+1 007 -007 +x 0x10 1.5 1e3");
+    }
+
+    @Test
+    void intOverflow() {
+        check("2147483647 2147483648 -2147483648 -2147483649 +2147483647 +2147483648");
+        check("99999999999999999999 -99999999999999999999 0000000000002147483647 00000000000000000000");
+    }
+
+    @Test
+    void endOfInputInsideAToken() {
+        check("rajada 1 2 3 4 5 6");
+        check("galeao 0 0 n");
+        check("  1234567890");
+        check("x");
+        check("");
+        check(" \n\t ");
+    }
+
+    @Test
+    void longTokensAndNonAscii() {
+        check("a".repeat(1000) + " " + "7".repeat(300) + " caravela");
+        check("posição ção é 3   4");
+    }
+
+    @Test
+    void nextCharIsTheFirstCharacter() {
+        String input = "n s e o norte é 5";
+        Scanner scanner = new Scanner(input);
+        TokenReader reader = new TokenReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+        while (scanner.hasNext())
+            assertEquals(scanner.next().charAt(0), reader.nextChar());
+        assertThrows(NoSuchElementException.class, reader::nextChar);
+    }
+
+    @Test
+    void mismatchDoesNotConsumeTheToken() {
+        TokenReader reader = new TokenReader(ByteBuffer.wrap("abc 4".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(InputMismatchException.class, reader::nextInt);
+        assertThrows(InputMismatchException.class, reader::nextInt);
+        assertEquals("abc", reader.next());
+        assertEquals(4, reader.nextInt());
+    }
+
+    @Test
+    void keywordsAreSharedConstants() {
+        TokenReader reader = new TokenReader(ByteBuffer.wrap("rajada barca".getBytes(StandardCharsets.US_ASCII)));
+        assertSame(Tasks.RAJADA, reader.next());
+        assertSame("barca", reader.next());
+    }
+}